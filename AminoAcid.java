@@ -2,6 +2,7 @@
  * This class represents an amino acid.
  * An amino acid has three identifiers involved here: one-letter code, three-letter code, and full name
  * These are represented by this class's instance variables.
+ * An amino acid never changes once created, since the same objects are shared by AminoAcidList.getShared() and every genetic code.
  * @author Prakash
  *
  */
@@ -10,15 +11,15 @@ public class AminoAcid {
 	/**
 	 * The one-letter code of this amino acid
 	 */
-	private char oneLetter;
+	private final char oneLetter;
 	/**
 	 * The three-letter code of this amino acid
 	 */
-	private String threeLetter;
+	private final String threeLetter;
 	/**
 	 * The full name of this amino acid
 	 */
-	private String fullName;
+	private final String fullName;
 	
 	/**
 	 * Constructor to initialize the amino acid with its identifiers
@@ -34,36 +35,6 @@ public class AminoAcid {
 		
 	}
 	
-	/**
-	 * Mutator method to set the one-letter code of the amino acid
-	 * @param newOneLetter The desired value of the one-letter code
-	 */
-	public void setOneLetter(char newOneLetter) {
-		
-		oneLetter = newOneLetter;
-		
-	}
-	
-	/**
-	 * Mutator method to set the three-letter code of the amino acid
-	 * @param newThreeLetter The desired value of the one-letter code
-	 */
-	public void setThreeLetter(String newThreeLetter) {
-		
-		threeLetter = newThreeLetter;
-		
-	}
-
-	/**
-	 * Mutator method to set the full name of the amino acid
-	 * @param newFullName The desired value of the full name
-	 */
-	public void setFullName(String newFullName) {
-	
-		fullName = newFullName;
-	
-	}
-	
 	/**
 	 * Accessor method to get the one-letter code of the amino acid
 	 * @return The one-letter code
@@ -12,58 +12,100 @@
 
 public class AminoAcidList {
 	
+	/**
+	 * The identifiers of each amino acid: a row for each, with its full name, three-letter code and one-letter code. This uses the resource cited
+	 */
+	private static final String[][] aminoAcidDetails = {
+			{"Glycine", "Gly", "G"},
+			{"Alanine", "Ala", "A"},
+			{"Valine", "Val", "V"},
+			{"Leucine", "Leu", "L"},
+			{"Isoleucine", "Ile", "I"},
+			{"Methionine", "Met", "M"},
+			{"Proline", "Pro", "P"},
+			{"Tryptophan", "Trp", "W"},
+			{"Phenylalanine", "Phe", "F"},
+			{"Tyrosine", "Tyr", "Y"},
+			{"Serine", "Ser", "S"},
+			{"Threonine", "Thr", "T"},
+			{"Asparagine", "Asn", "N"},
+			{"Glutamine", "Gln", "Q"},
+			{"Cysteine", "Cys", "C"},
+			{"Aspartic Acid", "Asp", "D"},
+			{"Glutamic Acid", "Glu", "E"},
+			{"Lysine", "Lys", "K"},
+			{"Arganine", "Arg", "R"},
+			{"Histidine", "His", "H"}
+	};
+	
 	/**
 	 * An array which will store the amino acids
 	 */
-	private AminoAcid[] aminoAcidArray;
+	private final AminoAcid[] aminoAcidArray;
+	/**
+	 * A map from each amino acid's three-letter code to the amino acid, so getAA() does not need to compare with every code
+	 */
+	private final java.util.HashMap<String, AminoAcid> aminoAcidsByThreeLetter;
+	/**
+	 * The position in the list of each amino acid, indexed by its one-letter code, or -1 for characters that are not one
+	 */
+	private final byte[] indicesByOneLetter;
+	
+	/**
+	 * Holder of the list shared by the whole program. The JVM creates it the first time getShared() is called, and only once, even
+	 * if many threads call getShared() at the same time
+	 */
+	private static class SharedHolder {
+		
+		/**
+		 * The shared list
+		 */
+		static final AminoAcidList instance = new AminoAcidList();
+		
+	}
 	
 	/**
 	 * Constructor to create the AminoAcidList object, containing all the possible amino acids' identifiers
 	 */
 	public AminoAcidList() {
 		
-		// Create this 2D array where each row is for an amino acid and each column is for one of the three types of identifiers. This uses the resource cited
-		String [][] aminoAcidDetails = {
-				{"Glycine", "Gly", "G"},
-				{"Alanine", "Ala", "A"},
-				{"Valine", "Val", "V"},
-				{"Leucine", "Leu", "L"},
-				{"Isoleucine", "Ile", "I"},
-				{"Methionine", "Met", "M"},
-				{"Proline", "Pro", "P"},
-				{"Tryptophan", "Trp", "W"},
-				{"Phenylalanine", "Phe", "F"},
-				{"Tyrosine", "Tyr", "Y"},
-				{"Serine", "Ser", "S"},
-				{"Threonine", "Thr", "T"},
-				{"Asparagine", "Asn", "N"},
-				{"Glutamine", "Gln", "Q"},
-				{"Cysteine", "Cys", "C"},
-				{"Aspartic Acid", "Asp", "D"},
-				{"Glutamic Acid", "Glu", "E"},
-				{"Lysine", "Lys", "K"},
-				{"Arganine", "Arg", "R"},
-				{"Histidine", "His", "H"}
-		};
-		
 		// Declare a 1D string array which will contain the identifiers of an amino acid from row i in aminoAcidDetails
 		String[] aminoAcidDetailsI;
 		
 		// Initialize the array of amino acid objects that will eventually be used to get amino acid objects from just their three-letter codes
-		aminoAcidArray = new AminoAcid[20];
+		aminoAcidArray = new AminoAcid[aminoAcidDetails.length];
+		// Make the map large enough from the start that it never has to grow
+		aminoAcidsByThreeLetter = new java.util.HashMap<String, AminoAcid>(2 * aminoAcidDetails.length);
+		indicesByOneLetter = new byte[128];
+		java.util.Arrays.fill(indicesByOneLetter, (byte) -1);
 		
 		// For each of the 20 rows in aminoAcidDetails
-		for (int i = 0; i < 20; i++) {
+		for (int i = 0; i < aminoAcidDetails.length; i++) {
 			
 			// Get the identifiers of the current amino acid
 			aminoAcidDetailsI = aminoAcidDetails[i];
 			// Put an amino acid object into this array, using the identifiers
 			aminoAcidArray[i] = new AminoAcid(aminoAcidDetailsI[2].charAt(0), aminoAcidDetailsI[1], aminoAcidDetailsI[0]);
+			// Also map its three-letter code to it
+			aminoAcidsByThreeLetter.put(aminoAcidDetailsI[1], aminoAcidArray[i]);
+			// And record its position under its one-letter code
+			indicesByOneLetter[aminoAcidDetailsI[2].charAt(0)] = (byte) i;
 			
 		}
 		
 	}
 	
+	/**
+	 * Method to get the list shared by the whole program, so the amino acids are only created once.
+	 * The list never changes, so it is safe to use from any thread
+	 * @return The shared list
+	 */
+	public static AminoAcidList getShared() {
+		
+		return SharedHolder.instance;
+		
+	}
+	
 	/**
 	 * Method to get an AminoAcid object using only its three-letter code
 	 * @param threeLetter Three-letter code of the desired amino acid
@@ -71,19 +113,10 @@ public class AminoAcidList {
 	 */
 	public AminoAcid getAA(String threeLetter) {
 		
-		// Declare a variable that will represent the current amino acid
-		AminoAcid aAcidCurr;
-		
-		// For each amino acid (until the desired amino acid if it gets reached)
-		for (int i = 0; i < 20; i++) {
-			
-			// Update the current amino acid
-			aAcidCurr = aminoAcidArray[i];
-			// If it is the desired amino acid based on the given three-letter code, return it
-			if (aAcidCurr.getThreeLetter() == threeLetter) {
-				return aAcidCurr;
-			}
-			
+		// Look up the amino acid with the given three-letter code
+		AminoAcid aAcid = aminoAcidsByThreeLetter.get(threeLetter);
+		if (aAcid != null) {
+			return aAcid;
 		}
 		
 		//If nothing has been returned
@@ -93,4 +126,36 @@ public class AminoAcidList {
 		
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Method to get an AminoAcid object using its position in the list (0 to 19), in the order of the cited resource
+	 * @param index Position of the desired amino acid
+	 * @return Amino acid object at that position
+	 */
+	public AminoAcid getAA(int index) {
+		
+		return aminoAcidArray[index];
+		
+	}
+	
+	/**
+	 * Method to get the position in the list (0 to 19) of the amino acid with a given one-letter code
+	 * @param oneLetter One-letter code of the amino acid
+	 * @return Position of the amino acid, or -1 if no amino acid has that code
+	 */
+	public int indexOf(char oneLetter) {
+		
+		return (oneLetter < 128) ? indicesByOneLetter[oneLetter] : -1;
+		
+	}
+	
+	/**
+	 * Method to get the number of amino acids in the list
+	 * @return The number of amino acids
+	 */
+	public int size() {
+		
+		return aminoAcidArray.length;
+		
+	}
+
+}
@@ -1,114 +1,316 @@
+import java.io.IOException;
+
 /**
  * This class represents the sequence of an amino acid chain.
- * It extends the class DoublyLinkedList<AminoAcid> so it is a doubly linked list 
+ * It extends the class DoublyLinkedList<AminoAcid> so it is a doubly linked list
  * of AminoAcid objects, with additionally features, regarding the identifiers of the amino acids in the list.
+ *
+ * The three strings representing the sequence are kept up to date as amino acids are added to the tail (as happens in translation),
+ * by appending the new amino acid's identifiers to them. Inserting anywhere else or deleting makes them out of date, and they are
+ * rebuilt from the whole list the next time they are needed.
+ * Nodes should only be added or removed using insert(), delete(), splice() and concat() (or an iterator's remove()), or the strings will
+ * not know they are out of date.
+ *
+ * A sequence can be frozen once it is complete (e.g. before being shared through a TranslationCache). After that, insert(), delete() and
+ * splice() throw an exception (as does splicing it into another sequence, since that empties it), as do the mutator methods of its nodes,
+ * and the strings are already made, so the sequence can be read by many threads at the same time.
  * @author Prakash
  *
  */
 public class AminoAcidSequence extends DoublyLinkedList<AminoAcid> {
 
 	/**
-	 * A string of the one-letter codes of the amino acids in the list
+	 * The one-letter codes of the amino acids in the list
+	 */
+	private StringBuilder builderOneLetter;
+	/**
+	 * The three-letter codes of the amino acids in the list, separated by '-'
+	 */
+	private StringBuilder builderThreeLetter;
+	/**
+	 * The full names of the amino acids in the list, separated by '-'
+	 */
+	private StringBuilder builderFullName;
+	/**
+	 * Whether the builders match the list. It is false after an amino acid is inserted somewhere other than the tail, or deleted
+	 */
+	private boolean buildersUpToDate;
+
+	/**
+	 * A string of the one-letter codes of the amino acids in the list, or null if it has not been made since the list last changed
 	 */
 	private String strOneLetter;
 	/**
-	 * A string of the three-letter codes of the amino acids in the list
+	 * A string of the three-letter codes of the amino acids in the list, or null if it has not been made since the list last changed
 	 */
 	private String strThreeLetter;
 	/**
-	 * A string of the full names of the amino acids in the list
+	 * A string of the full names of the amino acids in the list, or null if it has not been made since the list last changed
 	 */
 	private String strFullName;
-	
+	/**
+	 * Whether the sequence can no longer be changed
+	 */
+	private boolean frozen;
+
 	/**
 	 * Constructor to initialize an amino acid sequence with empty strings
 	 */
 	public AminoAcidSequence() {
-		
+
+		builderOneLetter = new StringBuilder();
+		builderThreeLetter = new StringBuilder();
+		builderFullName = new StringBuilder();
+		buildersUpToDate = true;
+
 		strOneLetter = "";
 		strThreeLetter = "";
 		strFullName = "";
-		
+		frozen = false;
+
+	}
+
+	/**
+	 * Method to insert a node into the list, appending its amino acid's identifiers to the strings if it is inserted at the tail
+	 * @param newNode The node to be inserted into the list
+	 * @param predecessor The node in the list, immediately after which the new node will be inserted
+	 */
+	@Override
+	public void insert(DoublyLinkedListNode<AminoAcid> newNode, DoublyLinkedListNode<AminoAcid> predecessor) {
+
+		// Check this before inserting, since the tail changes. For an empty list, both are null
+		boolean atTail = (predecessor == getTail());
+
+		super.insert(newNode, predecessor);
+
+		if (atTail && buildersUpToDate) {
+			append(newNode.getData());
+		} else {
+			buildersUpToDate = false;
+		}
+
+		// The strings no longer match the list
+		strOneLetter = null;
+		strThreeLetter = null;
+		strFullName = null;
+
 	}
-	
+
+	/**
+	 * Method to delete a node from the list, marking the strings as out of date if it was deleted
+	 * @param nodeToDelete The node to be deleted from the list
+	 * @return true if the node was successfully deleted, false if it was not
+	 */
+	@Override
+	public boolean delete(DoublyLinkedListNode<AminoAcid> nodeToDelete) {
+
+		boolean deleted = super.delete(nodeToDelete);
+
+		if (deleted) {
+			buildersUpToDate = false;
+			strOneLetter = null;
+			strThreeLetter = null;
+			strFullName = null;
+		}
+
+		return deleted;
+
+	}
+
+	/**
+	 * Method to move every amino acid of another sequence into this one, immediately after a node, appending their identifiers to the
+	 * strings if they are spliced at the tail. The other sequence is left empty, with empty strings
+	 * @param other The list whose nodes are moved
+	 * @param predecessor The node in this list, immediately after which the other list's nodes will be inserted, or null for the front
+	 */
+	@Override
+	public void splice(DoublyLinkedList<AminoAcid> other, DoublyLinkedListNode<AminoAcid> predecessor) {
+
+		AminoAcidSequence otherSequence = (other instanceof AminoAcidSequence) ? (AminoAcidSequence) other : null;
+
+		// Check these before splicing, since the tail changes and the other list is emptied
+		boolean atTail = (predecessor == getTail());
+		DoublyLinkedListNode<AminoAcid> firstMoved = other.getFront();
+
+		super.splice(other, predecessor);
+
+		if (atTail && buildersUpToDate) {
+			for (DoublyLinkedListNode<AminoAcid> nodeCurr = firstMoved; nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+				append(nodeCurr.getData());
+			}
+		} else {
+			buildersUpToDate = false;
+		}
+
+		// The strings no longer match the list
+		strOneLetter = null;
+		strThreeLetter = null;
+		strFullName = null;
+
+		// The other sequence is now empty
+		if (otherSequence != null) otherSequence.updateSequenceStrings();
+
+	}
+
 	/**
-	 * Method to update the three strings each representing the sequence
+	 * Method to stop the sequence and its nodes from being changed, first making the three strings so that reading them never changes
+	 * anything
+	 */
+	public void freeze() {
+
+		getStrOneLetter();
+		getStrThreeLetter();
+		getStrFullName();
+		frozen = true;
+
+		// The nodes can be reached from getFront() and getTail(), so they are made read-only as well
+		for (DoublyLinkedListNode<AminoAcid> nodeCurr = getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+			nodeCurr.readOnly = true;
+		}
+
+	}
+
+	/**
+	 * Accessor method for whether the sequence has been frozen
+	 * @return true if the sequence can no longer be changed, false if it can
+	 */
+	public boolean isFrozen() {
+
+		return frozen;
+
+	}
+
+	/**
+	 * Method to throw an exception if the sequence has been frozen, called by DoublyLinkedList before changing it (including before
+	 * splicing it into another list, which empties it)
+	 */
+	@Override
+	protected void checkModifiable() {
+
+		if (frozen) throw new UnsupportedOperationException("This amino acid sequence is frozen and cannot be changed.");
+
+	}
+
+	/**
+	 * Method to update the three strings each representing the sequence, rebuilding them from the whole list
 	 */
 	public void updateSequenceStrings() {
-		
-		// Declare variables representing the current node and its amino acid
-		DoublyLinkedListNode<AminoAcid> nodeCurr;
-		AminoAcid aACurr;
-		
-		// Declare variables that represent identifiers of the current amino acid
-		char aA1LCurr;
-		String aA3LCurr;
-		String aAFNCurr;
-		
-		// Start with the current node as the front node of the list
-		nodeCurr = getFront();
-		
-		// For every node in the list
+
+		// A frozen sequence's strings were made when it was frozen, and cannot have changed since
+		if (frozen) return;
+
+		// Empty the builders
+		builderOneLetter.setLength(0);
+		builderThreeLetter.setLength(0);
+		builderFullName.setLength(0);
+
+		// Append the identifiers of every amino acid in the list, starting at the front node
+		DoublyLinkedListNode<AminoAcid> nodeCurr = getFront();
 		while (nodeCurr != null) {
-			
-			// Get the amino acid that is in the node
-			aACurr = nodeCurr.getData();
-			
-			// Get its identifiers
-			aA1LCurr = aACurr.getOneLetter();
-			aA3LCurr = aACurr.getThreeLetter();
-			aAFNCurr = aACurr.getFullName();
-			
-			// In the three-letter code and full name strings, we want amino acid identifiers to be separated by '-'
-			// So if this is the first node in the list, append the identifiers but without any '-' before each
-			if (nodeCurr.getPrevious() == null) {
-				
-				strOneLetter = "" + aA1LCurr;
-				strThreeLetter = aA3LCurr;
-				strFullName = aAFNCurr;
-				
-			} else { // Otherwise, append them with '-' before each
-				
-				strOneLetter = strOneLetter + aA1LCurr;
-				strThreeLetter = strThreeLetter + '-' + aA3LCurr;
-				strFullName = strFullName + '-' + aAFNCurr;
-				
-			}
-			
+
+			append(nodeCurr.getData());
 			nodeCurr = nodeCurr.getNext();
-			
+
 		}
-		
+
+		buildersUpToDate = true;
+		strOneLetter = null;
+		strThreeLetter = null;
+		strFullName = null;
+
 	}
-	
+
+	/**
+	 * Method to append the identifiers of an amino acid to the end of the builders
+	 * @param aACurr The amino acid
+	 */
+	private void append(AminoAcid aACurr) {
+
+		// In the three-letter code and full name strings, we want amino acid identifiers to be separated by '-'
+		// So if this is the first amino acid, append the identifiers but without any '-' before each
+		if (builderOneLetter.length() != 0) {
+			builderThreeLetter.append('-');
+			builderFullName.append('-');
+		}
+
+		builderOneLetter.append(aACurr.getOneLetter());
+		builderThreeLetter.append(aACurr.getThreeLetter());
+		builderFullName.append(aACurr.getFullName());
+
+	}
+
 	/**
 	 * Accessor method for the string of one-letter codes
-	 * It first updates the string
+	 * It is only rebuilt if the list has changed somewhere other than the tail
 	 * @return String of one-letter codes of amino acids in the sequence
 	 */
 	public String getStrOneLetter() {
-		updateSequenceStrings();
+		if (!buildersUpToDate) updateSequenceStrings();
+		if (strOneLetter == null) strOneLetter = builderOneLetter.toString();
 		return strOneLetter;
 	}
-	
+
 	/**
 	 * Accessor method for the string of three-letter codes
-	 * It first updates the string
+	 * It is only rebuilt if the list has changed somewhere other than the tail
 	 * @return String of three-letter codes of amino acids in the sequence
 	 */
 	public String getStrThreeLetter() {
-		updateSequenceStrings();
+		if (!buildersUpToDate) updateSequenceStrings();
+		if (strThreeLetter == null) strThreeLetter = builderThreeLetter.toString();
 		return strThreeLetter;
 	}
-	
+
 	/**
 	 * Accessor method for the string of full names
-	 * It first updates the string
+	 * It is only rebuilt if the list has changed somewhere other than the tail
 	 * @return String of full names of amino acids in the sequence
 	 */
 	public String getStrFullName() {
-		updateSequenceStrings();
+		if (!buildersUpToDate) updateSequenceStrings();
+		if (strFullName == null) strFullName = builderFullName.toString();
 		return strFullName;
 	}
 
+	/**
+	 * Method to write the one-letter codes of the sequence straight from the list, without making a string of them all
+	 * @param out Where to write the codes
+	 * @throws IOException If writing fails
+	 */
+	public void writeOneLetter(Appendable out) throws IOException {
+
+		for (DoublyLinkedListNode<AminoAcid> nodeCurr = getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+			out.append(nodeCurr.getData().getOneLetter());
+		}
+
+	}
+
+	/**
+	 * Method to write the three-letter codes of the sequence, separated by '-', straight from the list
+	 * @param out Where to write the codes
+	 * @throws IOException If writing fails
+	 */
+	public void writeThreeLetter(Appendable out) throws IOException {
+
+		for (DoublyLinkedListNode<AminoAcid> nodeCurr = getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+			if (nodeCurr.getPrevious() != null) out.append('-');
+			out.append(nodeCurr.getData().getThreeLetter());
+		}
+
+	}
+
+	/**
+	 * Method to write the full names of the sequence, separated by '-', straight from the list
+	 * @param out Where to write the names
+	 * @throws IOException If writing fails
+	 */
+	public void writeFullName(Appendable out) throws IOException {
+
+		for (DoublyLinkedListNode<AminoAcid> nodeCurr = getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+			if (nodeCurr.getPrevious() != null) out.append('-');
+			out.append(nodeCurr.getData().getFullName());
+		}
+
+	}
+
 }
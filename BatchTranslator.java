@@ -0,0 +1,345 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An object of this class runs transcription and translation on many DNA strands without prompting, so the simulator can be used in
+ * pipelines (e.g. on a cluster) instead of interactively.
+ *
+ * Strands are read from stdin or from files, either one strand per line or as FASTA records (a line starting with '>' names the record,
+ * and the lines after it up to the next '>' are its strand). Line breaks, other whitespace and lower case bases are allowed, as in
+ * TranslationServer. Each strand is run through the engine by one of a number of worker threads, and one line is written for it, in the
+ * order the strands were read:
+ * -name, OK, the indices of the Start and Stop codons, and the amino acid sequence (tab separated), if it was translated
+ * -name, ERROR, and the reason (the same messages as Main and TranslationServer), if it has invalid characters or no Start or Stop codon,
+ *  or the engine failed on it
+ * A strand that cannot be translated never stops the batch. Strands given one per line are named by their source and line number.
+ *
+ * Run it with "java Main [--code N] --batch [--workers N] [--format one|three|full] [file ...]", where "-" (or no file) reads stdin.
+ * The exit status is 0 if every strand was translated, 1 if any was not, and 2 if the arguments or a file could not be used.
+ * @author Prakash
+ *
+ */
+public class BatchTranslator {
+
+	/**
+	 * The number of strands that can be waiting to be written for each worker, so reading stays ahead of the workers without holding
+	 * a whole input in memory
+	 */
+	private static final int pendingPerWorker = 4;
+	/**
+	 * Line describing how to run a batch
+	 */
+	static final String usage = "Usage: java Main [--code N] --batch [--workers N] [--format one|three|full] [file ...]";
+
+	/**
+	 * The engine strands are run through, shared by the workers
+	 */
+	private final TranslationEngine engine;
+	/**
+	 * The validator that checks and normalizes each strand
+	 */
+	private final DNAValidator validator;
+	/**
+	 * The number of worker threads
+	 */
+	private final int numWorkers;
+	/**
+	 * How amino acid sequences are written: "one", "three" or "full"
+	 */
+	private final String format;
+
+	/**
+	 * The number of strands that could not be translated, counted by the workers
+	 */
+	private final AtomicLong numFailed = new AtomicLong();
+
+	/**
+	 * Constructor to create a batch translator
+	 * @param engine The engine to run strands through
+	 * @param numWorkers The number of worker threads
+	 * @param format How amino acid sequences are written: "one" (one-letter codes), "three" (three-letter codes) or "full" (full names)
+	 */
+	public BatchTranslator(TranslationEngine engine, int numWorkers, String format) {
+
+		if (numWorkers < 1) throw new IllegalArgumentException("There must be at least one worker, not " + numWorkers + '.');
+		if (!format.equals("one") && !format.equals("three") && !format.equals("full")) {
+			throw new IllegalArgumentException("Unknown format '" + format + "'. It must be one, three or full.");
+		}
+		this.engine = engine;
+		this.validator = new DNAValidator(true, 20);
+		this.numWorkers = numWorkers;
+		this.format = format;
+
+	}
+
+	/**
+	 * Method to run a batch from the command line with the standard genetic code
+	 * @param args The options and files (see the class description)
+	 */
+	public static void main(String[] args) {
+
+		System.exit(run(new TranslationEngine(), args));
+
+	}
+
+	/**
+	 * Method to run a batch from the command line, reading the options and files, and writing the results to stdout
+	 * @param engine The engine to run strands through
+	 * @param args The options and files (see the class description)
+	 * @return The exit status: 0 if every strand was translated, 1 if any was not, 2 if the arguments or a file could not be used
+	 */
+	public static int run(TranslationEngine engine, String[] args) {
+
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		String format = "one";
+		int i = 0;
+
+		// Read the options, which come before the files
+		try {
+			for (; i < args.length && args[i].startsWith("--"); i++) {
+				if (args[i].equals("--workers") && i + 1 < args.length) {
+					numWorkers = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("--format") && i + 1 < args.length) {
+					format = args[++i];
+				} else {
+					System.err.println("Unknown option " + args[i] + '.');
+					System.err.println(usage);
+					return 2;
+				}
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("The number of workers must be a whole number.");
+			System.err.println(usage);
+			return 2;
+		}
+
+		BatchTranslator batch;
+		try {
+			batch = new BatchTranslator(engine, numWorkers, format);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(usage);
+			return 2;
+		}
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+		try {
+			// With no files, read stdin
+			if (i == args.length) {
+				batch.translateAll(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), "stdin", out);
+			}
+			for (; i < args.length; i++) {
+				if (args[i].equals("-")) {
+					batch.translateAll(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), "stdin", out);
+				} else {
+					try (BufferedReader in = Files.newBufferedReader(Paths.get(args[i]), StandardCharsets.UTF_8)) {
+						batch.translateAll(in, args[i], out);
+					}
+				}
+			}
+			out.flush();
+		} catch (IOException e) {
+			// Keep the lines already written for the strands before the error
+			try {
+				out.flush();
+			} catch (IOException flushError) {
+				// stdout itself failed, so there is nothing more to keep
+			}
+			System.err.println("Error: " + e);
+			return 2;
+		}
+
+		return (batch.getNumFailed() == 0) ? 0 : 1;
+
+	}
+
+	/**
+	 * Accessor method for the number of strands that could not be translated so far
+	 * @return The number of strands with an ERROR line
+	 */
+	public long getNumFailed() {
+
+		return numFailed.get();
+
+	}
+
+	/**
+	 * Method to translate every strand from a source, writing one line for each in the order they are read.
+	 * Lines are written as soon as they are ready and every line before them has been written, and the output is flushed whenever
+	 * reading would have to wait, so results keep coming when the input is a pipe
+	 * @param in The lines of the source
+	 * @param source The name of the source, used to name strands given one per line
+	 * @param out Where to write the results
+	 * @throws IOException If reading or writing fails
+	 */
+	public void translateAll(BufferedReader in, String source, Writer out) throws IOException {
+
+		ExecutorService workers = Executors.newFixedThreadPool(numWorkers);
+		// The results not written yet, in the order the strands were read
+		ArrayDeque<Future<String>> pending = new ArrayDeque<Future<String>>();
+
+		try {
+
+			// The FASTA record being read, if any
+			String recordName = null;
+			StringBuilder recordBases = new StringBuilder();
+			int lineNumber = 0;
+			String line;
+
+			while (true) {
+
+				if (!in.ready()) out.flush();
+				line = in.readLine();
+				if (line == null) break;
+				lineNumber++;
+
+				if (line.startsWith(">")) {
+					// A header ends the record before it
+					if (recordName != null) submit(workers, pending, recordName, recordBases.toString(), out);
+					recordName = line.substring(1).trim();
+					recordBases.setLength(0);
+				} else if (recordName != null) {
+					recordBases.append(line);
+				} else if (!line.trim().isEmpty()) {
+					submit(workers, pending, source + ':' + lineNumber, line, out);
+				}
+
+			}
+
+			if (recordName != null) submit(workers, pending, recordName, recordBases.toString(), out);
+
+			// Write the results still waiting, in order
+			while (!pending.isEmpty()) out.write(take(pending.poll()));
+
+		} finally {
+			workers.shutdownNow();
+		}
+
+	}
+
+	/**
+	 * Method to give a strand to the workers, first writing the results at the front of the queue that are done (or waiting for the
+	 * oldest one if the queue is full)
+	 * @param workers The worker threads
+	 * @param pending The results not written yet
+	 * @param name The name of the strand
+	 * @param dNA3to5 The strand
+	 * @param out Where to write the results
+	 * @throws IOException If writing fails
+	 */
+	private void submit(ExecutorService workers, ArrayDeque<Future<String>> pending, String name, String dNA3to5, Writer out)
+			throws IOException {
+
+		while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() >= numWorkers * pendingPerWorker)) {
+			out.write(take(pending.poll()));
+		}
+		pending.add(workers.submit(() -> translate(name, dNA3to5)));
+
+	}
+
+	/**
+	 * Method to wait for a result
+	 * @param result The result
+	 * @return The line for the strand
+	 * @throws IOException If waiting is interrupted
+	 */
+	private String take(Future<String> result) throws IOException {
+
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for a strand to be translated.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Translating a strand failed.", e.getCause());
+		}
+
+	}
+
+	/**
+	 * Method to run one strand through the engine and make its line. If the engine fails on the strand, its line is an ERROR line
+	 * rather than the failure ending the batch
+	 * @param name The name of the strand
+	 * @param dNA3to5 The strand, which may have whitespace and lower case bases
+	 * @return The line for the strand, ending with a line break
+	 */
+	private String translate(String name, String dNA3to5) {
+
+		// Tabs and line breaks in the name would break up the line
+		String safeName = name.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+
+		try {
+			return translateStrand(safeName, dNA3to5);
+		} catch (RuntimeException e) {
+			return error(safeName, "Translating the strand failed: " + String.valueOf(e).replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+		}
+
+	}
+
+	/**
+	 * Method to check one strand, run it through the engine and make its line
+	 * @param safeName The name of the strand, with no tabs or line breaks
+	 * @param dNA3to5 The strand, which may have whitespace and lower case bases
+	 * @return The line for the strand, ending with a line break
+	 */
+	private String translateStrand(String safeName, String dNA3to5) {
+
+		ValidationReport report = validator.validate(dNA3to5);
+		if (!report.isValid()) return error(safeName, "Invalid character(s) used: " + report);
+		if (report.getLength() == 0) return error(safeName, "The DNA strand is empty.");
+
+		GeneticCode code = engine.getGeneticCode();
+		TranslationResult result = engine.run(report.getNormalized());
+		if (!result.hasStartCodon()) {
+			return error(safeName, "The inputted DNA strand yielded no START codon (" + GeneticCode.listCodons(code.getStartCodons(), false, "") + ").");
+		}
+		if (!result.hasStopCodon()) {
+			return error(safeName, "The inputted DNA strand yielded no STOP codon (" + GeneticCode.listCodons(code.getStopCodons(), false, "") + ").");
+		}
+
+		StringBuilder line = new StringBuilder(safeName.length() + 32 + result.getStopCodonIndex() / 3);
+		line.append(safeName).append("\tOK\t").append(result.getStartCodonIndex()).append('\t').append(result.getStopCodonIndex()).append('\t');
+		AminoAcidSequence aASeq = result.getAminoAcidSequence();
+		try {
+			if (format.equals("three")) {
+				aASeq.writeThreeLetter(line);
+			} else if (format.equals("full")) {
+				aASeq.writeFullName(line);
+			} else {
+				aASeq.writeOneLetter(line);
+			}
+		} catch (IOException e) {
+			// A StringBuilder never throws one
+			throw new IllegalStateException(e);
+		}
+		return line.append('\n').toString();
+
+	}
+
+	/**
+	 * Method to make the line for a strand that could not be translated
+	 * @param name The name of the strand
+	 * @param message Why it could not be translated
+	 * @return The line, ending with a line break
+	 */
+	private String error(String name, String message) {
+
+		numFailed.incrementAndGet();
+		return name + "\tERROR\t" + message + '\n';
+
+	}
+
+}
@@ -0,0 +1,368 @@
+import java.util.SplittableRandom;
+
+/**
+ * An object of this class generates valid DNA strands in bulk, for load tests and other uses needing many (or very long) strands.
+ * The strands have the same parts as those from RandomDNAStrandGenerator: bases without Start codon DNA, Start codon DNA, codons that are
+ * not Stop codon DNA, Stop codon DNA, and any bases.
+ *
+ * Unlike RandomDNAStrandGenerator, each strand is written straight into a PackedStrand in time proportional to its length:
+ * -Codons between the Start and Stop codon DNA are picked directly from the triples that are not Stop codon DNA (61 in the standard
+ *  code), instead of picking three random bases and trying again if they make Stop codon DNA
+ * -Before the Start codon DNA, each base is picked from those that cannot make Start codon DNA with the two before it (e.g. a C is
+ *  never picked right after TA in the standard code), instead of picking again if Start codon DNA was made
+ * The Start and Stop codons are those of the genetic code given, or of the standard code, so the strands can be translated by a
+ * TranslationEngine using the same code.
+ * -The random numbers come from a SplittableRandom. It is not safe to share between threads, so each thread should use its own
+ *  generator, which can be made with split()
+ * @author Prakash
+ *
+ */
+public class BulkDNAStrandGenerator {
+
+	/**
+	 * The state of the bases before the Start codon DNA when none have been picked yet. With one base picked, the state is 16 plus
+	 * its code, and with two or more it is the codes of the last two (see nextState())
+	 */
+	static final int noBases = 20;
+	/**
+	 * XORing the packed code of a codon with this gives the packed code of its template DNA, and the other way
+	 */
+	private static final int complementCodon = 0b101010;
+
+	/**
+	 * The random number generator used to pick bases and codons
+	 */
+	private final SplittableRandom random;
+	/**
+	 * The genetic code whose Start and Stop codons are used
+	 */
+	private final GeneticCode geneticCode;
+	/**
+	 * Mask with the bit of the packed code (see PackedStrand) of each Start codon DNA triple set, e.g. TAC in the standard code
+	 */
+	private final long startCodonsDNA;
+	/**
+	 * The packed codes of the Start codon DNA triples
+	 */
+	private final int[] startCodonDNA;
+	/**
+	 * The packed codes of the Stop codon DNA triples, e.g. ATT, ATC and ACT in the standard code
+	 */
+	private final int[] stopCodonsDNA;
+	/**
+	 * The packed codes of the triples of DNA bases that are not Stop codon DNA
+	 */
+	private final int[] nonStopCodonsDNA;
+	/**
+	 * For each state of the bases before the Start codon DNA, the codes of the bases that can be picked next (see basesAvoidingStart())
+	 */
+	private final int[][] preStartBases;
+
+	/**
+	 * Constructor to create a generator for the standard genetic code with a random seed
+	 */
+	public BulkDNAStrandGenerator() {
+
+		this(new SplittableRandom(), GeneticCode.standard);
+
+	}
+
+	/**
+	 * Constructor to create a generator for the standard genetic code that always generates the same strands for the same seed
+	 * @param seed The seed of the random number generator
+	 */
+	public BulkDNAStrandGenerator(long seed) {
+
+		this(new SplittableRandom(seed), GeneticCode.standard);
+
+	}
+
+	/**
+	 * Constructor to create a generator for a given genetic code that always generates the same strands for the same seed
+	 * @param seed The seed of the random number generator
+	 * @param geneticCode The genetic code
+	 */
+	public BulkDNAStrandGenerator(long seed, GeneticCode geneticCode) {
+
+		this(new SplittableRandom(seed), geneticCode);
+
+	}
+
+	/**
+	 * Constructor to create a generator using a given random number generator
+	 * @param random The random number generator
+	 * @param geneticCode The genetic code
+	 * @throws IllegalArgumentException If the code has no Start codon, or every triple is a Stop codon
+	 */
+	private BulkDNAStrandGenerator(SplittableRandom random, GeneticCode geneticCode) {
+
+		this.random = random;
+		this.geneticCode = geneticCode;
+
+		long stopCodons = geneticCode.getStopCodons();
+		if (geneticCode.getStartCodons() == 0 || stopCodons == -1L) {
+			throw new IllegalArgumentException(geneticCode + " cannot make strands with a Start and a Stop codon.");
+		}
+
+		startCodonsDNA = toTemplateDNA(geneticCode.getStartCodons());
+		startCodonDNA = codonsIn(startCodonsDNA);
+		stopCodonsDNA = codonsIn(toTemplateDNA(stopCodons));
+		nonStopCodonsDNA = codonsIn(~toTemplateDNA(stopCodons));
+		preStartBases = basesAvoidingStart(startCodonsDNA);
+
+	}
+
+	/**
+	 * Method to create a new generator whose random numbers are independent of this one's, e.g. to give to another thread
+	 * @return The new generator
+	 */
+	public BulkDNAStrandGenerator split() {
+
+		return new BulkDNAStrandGenerator(random.split(), geneticCode);
+
+	}
+
+	/**
+	 * Method to generate a packed DNA strand
+	 * @param numPreStartBases The number of bases before the Start codon DNA
+	 * @param numCodonsDNA The number of codons between the Start and Stop codon DNA
+	 * @param numPostStopBases The number of bases after the Stop codon DNA
+	 * @return The packed DNA strand
+	 */
+	public PackedStrand nextPackedStrand(int numPreStartBases, int numCodonsDNA, int numPostStopBases) {
+
+		long length = (long) numPreStartBases + 3L * numCodonsDNA + 6 + numPostStopBases;
+		if (numPreStartBases < 0 || numCodonsDNA < 0 || numPostStopBases < 0 || length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid strand lengths: " + numPreStartBases + ", " + numCodonsDNA + ", " + numPostStopBases + '.');
+		}
+
+		long[] words = new long[PackedStrand.wordsFor((int) length)];
+		int n = 0;
+		int start = -1;
+
+		while (start == -1) {
+
+			// 1) Bases without Start codon DNA. Keep the state of the last two bases to know which bases can come next
+			java.util.Arrays.fill(words, 0L);
+			n = 0;
+			int state = noBases;
+			for (int i = 0; i < numPreStartBases; i++) {
+				int[] bases = preStartBases[state];
+				if (bases.length == 0) throw new IllegalStateException(geneticCode + " cannot make " + numPreStartBases + " bases without Start codon DNA.");
+				int base = bases[random.nextInt(bases.length)];
+				n = put(words, n, base, 1);
+				state = nextState(state, base);
+			}
+
+			// 2) Start codon DNA that does not make other Start codon DNA with the last bases. In the standard code TAC always fits,
+			// but in a few codes no Start codon DNA fits after some bases, and then they are picked again
+			start = pickStartCodonDNA(state);
+
+		}
+		n = put(words, n, start, 3);
+
+		// 3) Codons that are not Stop codon DNA
+		for (int i = 0; i < numCodonsDNA; i++) {
+			n = put(words, n, nonStopCodonsDNA[random.nextInt(nonStopCodonsDNA.length)], 3);
+		}
+
+		// 4) Stop codon DNA
+		n = put(words, n, stopCodonsDNA[random.nextInt(stopCodonsDNA.length)], 3);
+
+		// 5) Any bases
+		for (int i = 0; i < numPostStopBases; i++) {
+			n = put(words, n, random.nextInt(4), 1);
+		}
+
+		return new PackedStrand(words, n, false);
+
+	}
+
+	/**
+	 * Method to generate a DNA strand as a string
+	 * @param numPreStartBases The number of bases before the Start codon DNA
+	 * @param numCodonsDNA The number of codons between the Start and Stop codon DNA
+	 * @param numPostStopBases The number of bases after the Stop codon DNA
+	 * @return String representing the DNA strand
+	 */
+	public String nextStrand(int numPreStartBases, int numCodonsDNA, int numPostStopBases) {
+
+		return nextPackedStrand(numPreStartBases, numCodonsDNA, numPostStopBases).toString();
+
+	}
+
+	/**
+	 * Method to generate many DNA strands with the same lengths
+	 * @param count The number of strands
+	 * @param numPreStartBases The number of bases before the Start codon DNA in each strand
+	 * @param numCodonsDNA The number of codons between the Start and Stop codon DNA in each strand
+	 * @param numPostStopBases The number of bases after the Stop codon DNA in each strand
+	 * @return Array of packed DNA strands
+	 */
+	public PackedStrand[] nextPackedStrands(int count, int numPreStartBases, int numCodonsDNA, int numPostStopBases) {
+
+		PackedStrand[] strands = new PackedStrand[count];
+		for (int i = 0; i < count; i++) {
+			strands[i] = nextPackedStrand(numPreStartBases, numCodonsDNA, numPostStopBases);
+		}
+		return strands;
+
+	}
+
+	/**
+	 * Method to pick Start codon DNA that does not make other Start codon DNA with the bases before it
+	 * @param state The state of the bases before it
+	 * @return The packed code of the Start codon DNA, or -1 if none fits
+	 */
+	private int pickStartCodonDNA(int state) {
+
+		int numFitting = 0;
+		for (int codon : startCodonDNA) {
+			if (fitsAfter(state, codon, startCodonsDNA)) numFitting++;
+		}
+		if (numFitting == 0) return -1;
+
+		// Only use a random number if there is a choice, so strands of the standard code are the same as before there were other codes
+		int iFitting = (numFitting == 1) ? 0 : random.nextInt(numFitting);
+		for (int codon : startCodonDNA) {
+			if (fitsAfter(state, codon, startCodonsDNA) && iFitting-- == 0) return codon;
+		}
+		return -1;
+
+	}
+
+	/**
+	 * Method to get the mask of the template DNA triples of a mask of codons
+	 * @param codons Mask with bit n set for each codon number n
+	 * @return Mask with the bit of the packed code of each codon's template DNA set
+	 */
+	static long toTemplateDNA(long codons) {
+
+		long codonsDNA = 0;
+		for (int codon = 0; codon < 64; codon++) {
+			if (((codons >>> codon) & 1) != 0) codonsDNA = codonsDNA | (1L << (codon ^ complementCodon));
+		}
+		return codonsDNA;
+
+	}
+
+	/**
+	 * Method to list the codons in a mask
+	 * @param codons Mask with bit n set for each codon number n
+	 * @return The codon numbers, in increasing order
+	 */
+	private static int[] codonsIn(long codons) {
+
+		int[] list = new int[Long.bitCount(codons)];
+		int iCodon = 0;
+		for (int codon = 0; codon < 64; codon++) {
+			if (((codons >>> codon) & 1) != 0) list[iCodon++] = codon;
+		}
+		return list;
+
+	}
+
+	/**
+	 * Method to get the state of the bases before the Start codon DNA after another base is added
+	 * @param state The state before the base is added
+	 * @param base The code of the base
+	 * @return The state after it is added
+	 */
+	static int nextState(int state, int base) {
+
+		if (state == noBases) return 16 + base;
+		if (state >= 16) return ((state - 16) << 2) | base;
+		return ((state & 3) << 2) | base;
+
+	}
+
+	/**
+	 * Method to check whether a triple of DNA bases can come after some bases without Start codon DNA being made where they meet
+	 * @param state The state of the bases before the triple
+	 * @param codonDNA The packed code of the triple
+	 * @param startCodonsDNA Mask of the Start codon DNA triples
+	 * @return true if the last two bases and the first base of the triple, and the last base and the first two bases of the triple,
+	 *         are not Start codon DNA
+	 */
+	static boolean fitsAfter(int state, int codonDNA, long startCodonsDNA) {
+
+		if (state == noBases) return true;
+		int last = (state >= 16) ? state - 16 : state & 3;
+		if (((startCodonsDNA >>> ((last << 4) | (codonDNA >>> 2))) & 1) != 0) return false;
+		return state >= 16 || ((startCodonsDNA >>> ((state << 2) | (codonDNA >>> 4))) & 1) == 0;
+
+	}
+
+	/**
+	 * Method to find which bases can be picked next before the Start codon DNA: those that do not make Start codon DNA with the last two
+	 * bases, and that do not lead to two bases which every base after would make Start codon DNA with (e.g. in the vertebrate
+	 * mitochondrial code, any base after TA does, so A is never picked after T)
+	 * @param startCodonsDNA Mask of the Start codon DNA triples
+	 * @return The codes of the bases that can be picked next, for each state (see nextState())
+	 */
+	static int[][] basesAvoidingStart(long startCodonsDNA) {
+
+		// Remove the states no base can be added to, until every state left can have a base added
+		boolean[] alive = new boolean[noBases + 1];
+		java.util.Arrays.fill(alive, true);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int state = 0; state <= noBases; state++) {
+				if (alive[state] && countNextBases(state, startCodonsDNA, alive, null) == 0) {
+					alive[state] = false;
+					changed = true;
+				}
+			}
+		}
+
+		int[][] nextBases = new int[noBases + 1][];
+		for (int state = 0; state <= noBases; state++) {
+			nextBases[state] = new int[countNextBases(state, startCodonsDNA, alive, null)];
+			countNextBases(state, startCodonsDNA, alive, nextBases[state]);
+		}
+		return nextBases;
+
+	}
+
+	/**
+	 * Method to count (and optionally list) the bases that can be picked after some bases
+	 * @param state The state of the bases
+	 * @param startCodonsDNA Mask of the Start codon DNA triples
+	 * @param alive Which states can still have a base added
+	 * @param list Array to put the codes of the bases in, or null
+	 * @return The number of bases
+	 */
+	private static int countNextBases(int state, long startCodonsDNA, boolean[] alive, int[] list) {
+
+		int count = 0;
+		for (int base = 0; base < 4; base++) {
+			boolean makesStart = state < 16 && ((startCodonsDNA >>> ((state << 2) | base)) & 1) != 0;
+			if (!makesStart && alive[nextState(state, base)]) {
+				if (list != null) list[count] = base;
+				count++;
+			}
+		}
+		return count;
+
+	}
+
+	/**
+	 * Method to write bases into packed words
+	 * @param words The words being written into
+	 * @param n The number of bases already written
+	 * @param codes The codes of the bases, the first base in the highest bits
+	 * @param numBases The number of bases in codes
+	 * @return The number of bases written after this
+	 */
+	private static int put(long[] words, int n, int codes, int numBases) {
+
+		for (int shift = 2 * (numBases - 1); shift >= 0; shift = shift - 2) {
+			words[n >>> 5] |= (long) ((codes >>> shift) & 3) << ((n & 31) << 1);
+			n++;
+		}
+		return n;
+
+	}
+
+}
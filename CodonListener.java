@@ -0,0 +1,23 @@
+/**
+ * An object of a class implementing this interface can be given to CodonScanner.scan() to be told of each Start and Stop codon as it is
+ * found, in the order of their indices. This is how OrfFinder summarizes each part of an mRNA, and how the scanner collects CodonPositions.
+ * @author Prakash
+ *
+ */
+public interface CodonListener {
+
+	/**
+	 * Method called for each Start codon found
+	 * @param frame The frame of the codon: its index mod 3
+	 * @param i Index of the codon in the mRNA
+	 */
+	void startCodon(int frame, long i);
+
+	/**
+	 * Method called for each Stop codon found
+	 * @param frame The frame of the codon: its index mod 3
+	 * @param i Index of the codon in the mRNA
+	 */
+	void stopCodon(int frame, long i);
+
+}
@@ -0,0 +1,132 @@
+/**
+ * This class represents the outcome of scanning an mRNA strand with CodonScanner: the indices of every Start codon and every Stop codon,
+ * for each of the three reading frames.
+ * The indices are kept in int arrays in increasing order. The arrays returned by the accessor methods are the ones kept here, so they
+ * should not be changed.
+ * @author Prakash
+ *
+ */
+public class CodonPositions {
+
+	/**
+	 * The indices of the Start codons in each frame (the index mod 3)
+	 */
+	private final int[][] starts;
+	/**
+	 * The indices of the Stop codons in each frame
+	 */
+	private final int[][] stops;
+
+	/**
+	 * Constructor to initialize the positions found by a scan
+	 * @param starts For each frame, the indices of its Start codons in increasing order
+	 * @param stops For each frame, the indices of its Stop codons in increasing order
+	 */
+	CodonPositions(int[][] starts, int[][] stops) {
+
+		this.starts = starts;
+		this.stops = stops;
+
+	}
+
+	/**
+	 * Accessor method for the Start codons in one frame
+	 * @param frame The frame: 0, 1 or 2
+	 * @return The indices in the mRNA of the Start codons whose index mod 3 is frame, in increasing order
+	 */
+	public int[] getStarts(int frame) {
+
+		return starts[frame];
+
+	}
+
+	/**
+	 * Accessor method for the Stop codons in one frame
+	 * @param frame The frame: 0, 1 or 2
+	 * @return The indices in the mRNA of the Stop codons whose index mod 3 is frame, in increasing order
+	 */
+	public int[] getStops(int frame) {
+
+		return stops[frame];
+
+	}
+
+	/**
+	 * Method to get the Start codons in all frames together
+	 * @return The indices of all the Start codons, in increasing order
+	 */
+	public int[] getAllStarts() {
+
+		return merge(starts);
+
+	}
+
+	/**
+	 * Method to get the Stop codons in all frames together
+	 * @return The indices of all the Stop codons, in increasing order
+	 */
+	public int[] getAllStops() {
+
+		return merge(stops);
+
+	}
+
+	/**
+	 * Method to find the first Stop codon in frame with, and after, a given codon
+	 * @param iCodon The index of the codon, e.g. a Start codon
+	 * @return The index of the Stop codon, or -1 if there is none
+	 */
+	public int nextStopInFrame(int iCodon) {
+
+		int[] frameStops = stops[iCodon % 3];
+		int i = java.util.Arrays.binarySearch(frameStops, iCodon + 1);
+		// binarySearch gives -(insertion point) - 1 when the index itself is not there
+		if (i < 0) i = -i - 1;
+		return (i < frameStops.length) ? frameStops[i] : -1;
+
+	}
+
+	/**
+	 * Method to merge the indices of the three frames into one array in increasing order
+	 * @param byFrame The indices for each frame
+	 * @return The merged indices
+	 */
+	private static int[] merge(int[][] byFrame) {
+
+		int[] merged = new int[byFrame[0].length + byFrame[1].length + byFrame[2].length];
+		int i0 = 0;
+		int i1 = 0;
+		int i2 = 0;
+
+		// Take the smallest index at the front of the three arrays each time. No index is in two frames, so there are no ties
+		for (int n = 0; n < merged.length; n++) {
+			int v0 = (i0 < byFrame[0].length) ? byFrame[0][i0] : Integer.MAX_VALUE;
+			int v1 = (i1 < byFrame[1].length) ? byFrame[1][i1] : Integer.MAX_VALUE;
+			int v2 = (i2 < byFrame[2].length) ? byFrame[2][i2] : Integer.MAX_VALUE;
+			if (v0 < v1 && v0 < v2) {
+				merged[n] = v0;
+				i0++;
+			} else if (v1 < v2) {
+				merged[n] = v1;
+				i1++;
+			} else {
+				merged[n] = v2;
+				i2++;
+			}
+		}
+
+		return merged;
+
+	}
+
+	/**
+	 * A string giving the number of Start and Stop codons in each frame
+	 */
+	public String toString() {
+
+		return "CodonPositions(starts " + starts[0].length + "/" + starts[1].length + "/" + starts[2].length
+				+ ", stops " + stops[0].length + "/" + stops[1].length + "/" + stops[2].length + ")";
+
+	}
+
+}
@@ -0,0 +1,357 @@
+/**
+ * An object of this class finds every Start codon and every Stop codon in an mRNA strand, in all three reading frames, going over the
+ * strand only once.
+ *
+ * Instead of taking a substring at each position and comparing it against each codon (as Main.queueCodons() does), the scanner keeps
+ * the 6-bit number (see TRNAList.codonIndex()) of the last three bases read, shifting each new base into it. The Start and Stop codons are
+ * given as 64-bit masks with one bit for each codon number, so checking a position for every Start and Stop codon at once is two bit tests.
+ * Bases that are not A,C,G or U/T clear the last three bases, so no codon is found across them.
+ * The scanner also finds single codons: the next Start codon from an index, and the next Stop codon in frame with a codon. These are what
+ * TranslationEngine uses to find the gene it translates, and scan() with a CodonListener is what OrfFinder uses to find every ORF.
+ *
+ * Objects of this class are never changed after being created, so one can be shared by many threads.
+ * @author Prakash
+ *
+ */
+public class CodonScanner {
+
+	/**
+	 * The mask of the standard Start codon: AUG
+	 */
+	public static final long standardStartCodons = GeneticCode.standard.getStartCodons();
+	/**
+	 * The mask of the standard Stop codons: UAA, UAG and UGA
+	 */
+	public static final long standardStopCodons = GeneticCode.standard.getStopCodons();
+
+	/**
+	 * Mask with the bit of each codon number that is a Start codon set
+	 */
+	private final long startCodons;
+	/**
+	 * Mask with the bit of each codon number that is a Stop codon set
+	 */
+	private final long stopCodons;
+	/**
+	 * The letters of the only Start codon (AUG in the standard code), or null if there is more than one.
+	 * With a single Start codon, a string can be searched by comparing letters, which is faster than working out every codon's number
+	 */
+	private final String startCodonLetters;
+
+	/**
+	 * The code (see PackedStrand) of each RNA base, indexed by its letter, or -1 for any other character (including T, so the letters
+	 * searched for a single codon are only ever those of an mRNA, the same as when the letters of the only Start codon are compared)
+	 */
+	private static final byte[] rNACodes = new byte[128];
+
+	static {
+
+		java.util.Arrays.fill(rNACodes, (byte) -1);
+		rNACodes['U'] = 0;
+		rNACodes['C'] = 1;
+		rNACodes['A'] = 2;
+		rNACodes['G'] = 3;
+
+	}
+
+	/**
+	 * Constructor to create a scanner for the standard Start and Stop codons
+	 */
+	public CodonScanner() {
+
+		this(standardStartCodons, standardStopCodons);
+
+	}
+
+	/**
+	 * Constructor to create a scanner for the Start and Stop codons of a genetic code
+	 * @param geneticCode The genetic code
+	 */
+	public CodonScanner(GeneticCode geneticCode) {
+
+		this(geneticCode.getStartCodons(), geneticCode.getStopCodons());
+
+	}
+
+	/**
+	 * Constructor to create a scanner for any Start and Stop codons
+	 * @param startCodons Mask with bit n set if the codon with number n is a Start codon
+	 * @param stopCodons Mask with bit n set if the codon with number n is a Stop codon
+	 */
+	public CodonScanner(long startCodons, long stopCodons) {
+
+		this.startCodons = startCodons;
+		this.stopCodons = stopCodons;
+		startCodonLetters = Long.bitCount(startCodons) == 1 ? GeneticCode.listCodons(startCodons, false, "") : null;
+
+	}
+
+	/**
+	 * Method to find the Start and Stop codons in an mRNA strand
+	 * @param mRNA5to3 The mRNA strand (a String, PackedStrand, etc.)
+	 * @return The positions of the Start and Stop codons in each frame
+	 */
+	public CodonPositions scan(CharSequence mRNA5to3) {
+
+		if (mRNA5to3 instanceof PackedStrand) return scan((PackedStrand) mRNA5to3);
+
+		Positions positions = new Positions();
+		int codon = 0;
+		// The number of valid bases in a row up to the current one, up to 3
+		int numValid = 0;
+
+		for (int i = 0; i < mRNA5to3.length(); i++) {
+
+			int base = PackedStrand.encode(mRNA5to3.charAt(i));
+			if (base < 0) {
+				numValid = 0;
+				continue;
+			}
+
+			codon = ((codon << 2) | base) & 63;
+			if (numValid < 3) numValid++;
+			if (numValid == 3) {
+				long bit = 1L << codon;
+				if ((startCodons & bit) != 0) positions.startCodon((i - 2) % 3, i - 2);
+				if ((stopCodons & bit) != 0) positions.stopCodon((i - 2) % 3, i - 2);
+			}
+
+		}
+
+		return positions.toCodonPositions();
+
+	}
+
+	/**
+	 * Method to find the Start and Stop codons in a packed mRNA strand
+	 * @param mRNA5to3 The packed mRNA strand
+	 * @return The positions of the Start and Stop codons in each frame
+	 */
+	public CodonPositions scan(PackedStrand mRNA5to3) {
+
+		Positions positions = new Positions();
+		scan(mRNA5to3, 0, mRNA5to3.size(), positions);
+		return positions.toCodonPositions();
+
+	}
+
+	/**
+	 * Method to find the Start and Stop codons starting in one part of an mRNA stored anywhere (e.g. off the heap), telling a listener of
+	 * each in order
+	 * @param mRNA5to3 The mRNA strand
+	 * @param from Index of the first codon to check
+	 * @param to Index after the last codon to check (codons starting there may end after it)
+	 * @param listener The listener to tell of each Start and Stop codon
+	 */
+	public void scan(Strand mRNA5to3, long from, long to, CodonListener listener) {
+
+		// Codons need 3 bases, so none start in the last 2 bases of the mRNA
+		long end = Math.min(to, mRNA5to3.size() - 2);
+		// The frame is counted instead of dividing each index by 3
+		int frame = (int) (from % 3);
+
+		for (long i = from; i < end; i++) {
+
+			// Every base in a Strand is valid
+			long bit = 1L << mRNA5to3.codonAt(i);
+			if ((startCodons & bit) != 0) listener.startCodon(frame, i);
+			if ((stopCodons & bit) != 0) listener.stopCodon(frame, i);
+
+			frame = (frame == 2) ? 0 : frame + 1;
+
+		}
+
+	}
+
+	/**
+	 * Method to find the first Start codon in an mRNA string, from a given index
+	 * @param mRNA5to3 String representing the mRNA, whose bases are the letters A, C, G and U
+	 * @param from Index to start searching from
+	 * @return The index of the Start codon, or -1 if there is none from that index
+	 */
+	public int nextStart(String mRNA5to3, int from) {
+
+		if (startCodonLetters != null) {
+			char first = startCodonLetters.charAt(0);
+			char second = startCodonLetters.charAt(1);
+			char third = startCodonLetters.charAt(2);
+			for (int i = from; i < mRNA5to3.length() - 2; i++) {
+				if (mRNA5to3.charAt(i) == first && mRNA5to3.charAt(i + 1) == second && mRNA5to3.charAt(i + 2) == third) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		for (int i = from; i < mRNA5to3.length() - 2; i++) {
+			int codon = codonAt(mRNA5to3, i);
+			if (codon >= 0 && ((startCodons >>> codon) & 1) != 0) {
+				return i;
+			}
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Method to find the first Stop codon in an mRNA string that is in frame with, and after, a given codon
+	 * @param mRNA5to3 String representing the mRNA, whose bases are the letters A, C, G and U
+	 * @param iCodon The index of the codon, e.g. a Start codon
+	 * @return The index of the Stop codon, or -1 if there is none
+	 */
+	public int nextStopInFrame(String mRNA5to3, int iCodon) {
+
+		// Check each codon without creating a substring for it
+		for (int i = iCodon + 3; i + 2 < mRNA5to3.length(); i = i + 3) {
+			int codon = codonAt(mRNA5to3, i);
+			if (codon >= 0 && ((stopCodons >>> codon) & 1) != 0) {
+				return i;
+			}
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Method to find the first Start codon in a packed mRNA, from a given index
+	 * @param mRNA5to3 The packed mRNA
+	 * @param from Index to start searching from
+	 * @return The index of the Start codon, or -1 if there is none from that index
+	 */
+	public int nextStart(PackedStrand mRNA5to3, int from) {
+
+		for (int i = from; i < mRNA5to3.length() - 2; i++) {
+			if (((startCodons >>> mRNA5to3.codonAt(i)) & 1) != 0) return i;
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Method to find the first Stop codon in a packed mRNA that is in frame with, and after, a given codon
+	 * @param mRNA5to3 The packed mRNA
+	 * @param iCodon The index of the codon, e.g. a Start codon
+	 * @return The index of the Stop codon, or -1 if there is none
+	 */
+	public int nextStopInFrame(PackedStrand mRNA5to3, int iCodon) {
+
+		for (int i = iCodon + 3; i + 2 < mRNA5to3.length(); i = i + 3) {
+			if (((stopCodons >>> mRNA5to3.codonAt(i)) & 1) != 0) return i;
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Method to find the first Start codon in an mRNA stored anywhere, from a given index
+	 * @param mRNA5to3 The mRNA
+	 * @param from Index to start searching from
+	 * @return The index of the Start codon, or -1 if there is none from that index
+	 */
+	public long nextStart(Strand mRNA5to3, long from) {
+
+		for (long i = from; i < mRNA5to3.size() - 2; i++) {
+			if (((startCodons >>> mRNA5to3.codonAt(i)) & 1) != 0) return i;
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Method to find the first Stop codon in an mRNA stored anywhere that is in frame with, and after, a given codon
+	 * @param mRNA5to3 The mRNA
+	 * @param iCodon The index of the codon, e.g. a Start codon
+	 * @return The index of the Stop codon, or -1 if there is none
+	 */
+	public long nextStopInFrame(Strand mRNA5to3, long iCodon) {
+
+		for (long i = iCodon + 3; i + 2 < mRNA5to3.size(); i = i + 3) {
+			if (((stopCodons >>> mRNA5to3.codonAt(i)) & 1) != 0) return i;
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Method to work out the 6-bit number of the codon starting at an index of an mRNA string
+	 * @param mRNA5to3 The mRNA
+	 * @param i Index of the first base of the codon
+	 * @return The number of the codon, or a negative number if any of its letters is not an RNA base
+	 */
+	private static int codonAt(String mRNA5to3, int i) {
+
+		char first = mRNA5to3.charAt(i);
+		char second = mRNA5to3.charAt(i + 1);
+		char third = mRNA5to3.charAt(i + 2);
+		if ((first | second | third) >= 128) return -1;
+
+		// Any code of -1 makes the whole number negative
+		return (rNACodes[first] << 4) | (rNACodes[second] << 2) | rNACodes[third];
+
+	}
+
+	/**
+	 * This class collects the positions found during one scan
+	 */
+	private static class Positions implements CodonListener {
+
+		/**
+		 * The Start codon indices found so far in each frame
+		 */
+		private final IntQueue[] starts = {new IntQueue(), new IntQueue(), new IntQueue()};
+		/**
+		 * The Stop codon indices found so far in each frame
+		 */
+		private final IntQueue[] stops = {new IntQueue(), new IntQueue(), new IntQueue()};
+
+		/**
+		 * Method to add the index of a Start codon
+		 * @param frame The frame of the codon
+		 * @param i Index of the codon, which fits in an int since it is in a String or PackedStrand
+		 */
+		@Override
+		public void startCodon(int frame, long i) {
+
+			starts[frame].enqueue((int) i);
+
+		}
+
+		/**
+		 * Method to add the index of a Stop codon
+		 * @param frame The frame of the codon
+		 * @param i Index of the codon, which fits in an int since it is in a String or PackedStrand
+		 */
+		@Override
+		public void stopCodon(int frame, long i) {
+
+			stops[frame].enqueue((int) i);
+
+		}
+
+		/**
+		 * Method to copy the indices found into arrays
+		 * @return The positions found
+		 */
+		private CodonPositions toCodonPositions() {
+
+			int[][] startArrays = new int[3][];
+			int[][] stopArrays = new int[3][];
+			for (int f = 0; f < 3; f++) {
+				startArrays[f] = new int[starts[f].size()];
+				starts[f].drain(startArrays[f]);
+				stopArrays[f] = new int[stops[f].size()];
+				stops[f].drain(stopArrays[f]);
+			}
+			return new CodonPositions(startArrays, stopArrays);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,242 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class complements strands of bases stored as bytes (one ASCII letter per base), 8 bases at a time and without any branches
+ * on the bases: DNA to mRNA (transcription), mRNA back to DNA, and DNA to its complementary DNA.
+ *
+ * The if/else chains used elsewhere (e.g. in TranslationEngine.complementToRNA()) branch on every base, and random bases make those
+ * branches impossible for the processor to predict. Here each base is instead changed by XORing it with a mask worked out from two of
+ * its bits, which can be done for the 8 bytes of a long at once:
+ * -Bit 1 (0x02) is set only for C and G, which are swapped by XORing with 0x04
+ * -Bit 4 (0x10) is set only for T and U
+ * -A (0x41) becomes U (0x55) by XORing with 0x14, T (0x54) becomes A by XORing with 0x15, U becomes A with 0x14 and A becomes T with 0x15
+ * Bases left over at the end that do not fill a long are done one at a time the same way.
+ *
+ * The strands must contain only the bases (upper case A, C, G, T or U). Any other byte is changed into another byte that is not a base.
+ * @author Prakash
+ *
+ */
+public class ComplementKernel {
+
+	/**
+	 * A long with each byte set to 0x01, used to take one bit out of each byte
+	 */
+	private static final long lowBits = 0x0101010101010101L;
+	/**
+	 * A long with each byte set to 0x14, the mask that changes A into U
+	 */
+	private static final long maskAToU = 0x1414141414141414L;
+	/**
+	 * A long with each byte set to 0x15, the mask that changes A into T
+	 */
+	private static final long maskAToT = 0x1515151515151515L;
+	/**
+	 * A view of a byte array as longs, used to read and write 8 bases at a time
+	 */
+	private static final VarHandle longsInBytes = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	/**
+	 * Method to transcribe DNA bases into the complementary mRNA bases (A to U, C to G, G to C, T to A)
+	 * @param src The DNA bases
+	 * @param srcOffset Index in src of the first base
+	 * @param dst Where to write the mRNA bases. It may be the same array as src
+	 * @param dstOffset Index in dst to write the first base at
+	 * @param length The number of bases
+	 */
+	public static void dNAToRNA(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+
+		int i = 0;
+		for (; i + 8 <= length; i = i + 8) {
+			long bases = (long) longsInBytes.get(src, srcOffset + i);
+			longsInBytes.set(dst, dstOffset + i, bases ^ dNAToRNAMask(bases));
+		}
+		for (; i < length; i++) {
+			byte base = src[srcOffset + i];
+			dst[dstOffset + i] = (byte) (base ^ dNAToRNAMask(base));
+		}
+
+	}
+
+	/**
+	 * Method to find the DNA bases complementary to mRNA bases (A to T, C to G, G to C, U to A)
+	 * @param src The mRNA bases
+	 * @param srcOffset Index in src of the first base
+	 * @param dst Where to write the DNA bases. It may be the same array as src
+	 * @param dstOffset Index in dst to write the first base at
+	 * @param length The number of bases
+	 */
+	public static void rNAToDNA(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+
+		int i = 0;
+		for (; i + 8 <= length; i = i + 8) {
+			long bases = (long) longsInBytes.get(src, srcOffset + i);
+			longsInBytes.set(dst, dstOffset + i, bases ^ rNAToDNAMask(bases));
+		}
+		for (; i < length; i++) {
+			byte base = src[srcOffset + i];
+			dst[dstOffset + i] = (byte) (base ^ rNAToDNAMask(base));
+		}
+
+	}
+
+	/**
+	 * Method to find the DNA bases complementary to DNA bases (A to T, C to G, G to C, T to A)
+	 * @param src The DNA bases
+	 * @param srcOffset Index in src of the first base
+	 * @param dst Where to write the complementary bases. It may be the same array as src
+	 * @param dstOffset Index in dst to write the first base at
+	 * @param length The number of bases
+	 */
+	public static void complementDNA(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+
+		int i = 0;
+		for (; i + 8 <= length; i = i + 8) {
+			long bases = (long) longsInBytes.get(src, srcOffset + i);
+			longsInBytes.set(dst, dstOffset + i, bases ^ complementDNAMask(bases));
+		}
+		for (; i < length; i++) {
+			byte base = src[srcOffset + i];
+			dst[dstOffset + i] = (byte) (base ^ complementDNAMask(base));
+		}
+
+	}
+
+	/**
+	 * Method to transcribe DNA bases in a buffer (e.g. a memory-mapped file) into mRNA bases in another buffer.
+	 * The bases from the position to the limit of src are read, and written from the position of dst. Both positions are moved past them
+	 * @param src The buffer of DNA bases
+	 * @param dst The buffer to write the mRNA bases to
+	 */
+	public static void dNAToRNA(ByteBuffer src, ByteBuffer dst) {
+
+		int length = src.remaining();
+		int srcStart = src.position();
+		int dstStart = dst.position();
+		if (dst.remaining() < length) throw new IllegalArgumentException("Destination buffer is too small.");
+
+		// Absolute reads and writes of longs use the buffer's byte order, so set both to little-endian and put them back after
+		ByteOrder srcOrder = src.order();
+		ByteOrder dstOrder = dst.order();
+		src.order(ByteOrder.LITTLE_ENDIAN);
+		dst.order(ByteOrder.LITTLE_ENDIAN);
+
+		int i = 0;
+		for (; i + 8 <= length; i = i + 8) {
+			long bases = src.getLong(srcStart + i);
+			dst.putLong(dstStart + i, bases ^ dNAToRNAMask(bases));
+		}
+		for (; i < length; i++) {
+			byte base = src.get(srcStart + i);
+			dst.put(dstStart + i, (byte) (base ^ dNAToRNAMask(base)));
+		}
+
+		src.order(srcOrder);
+		dst.order(dstOrder);
+		src.position(srcStart + length);
+		dst.position(dstStart + length);
+
+	}
+
+	/**
+	 * Method to transcribe a DNA strand string into its mRNA string
+	 * @param dNA3to5 String representing the DNA strand, with only A,C,T and G
+	 * @return String representing the mRNA transcript
+	 */
+	public static String transcribe(String dNA3to5) {
+
+		// The letters are all ASCII so each fits in one byte
+		byte[] bases = dNA3to5.getBytes(StandardCharsets.ISO_8859_1);
+		dNAToRNA(bases, 0, bases, 0, bases.length);
+		return new String(bases, StandardCharsets.ISO_8859_1);
+
+	}
+
+	/**
+	 * Method to find the DNA strand string complementary to an mRNA string
+	 * @param mRNA5to3 String representing the mRNA, with only A,C,U and G
+	 * @return String representing the complementary DNA strand
+	 */
+	public static String toDNA(String mRNA5to3) {
+
+		byte[] bases = mRNA5to3.getBytes(StandardCharsets.ISO_8859_1);
+		rNAToDNA(bases, 0, bases, 0, bases.length);
+		return new String(bases, StandardCharsets.ISO_8859_1);
+
+	}
+
+	/**
+	 * Method to work out the masks that transcribe each byte of a long: 0x04 for C and G, 0x14 for A and 0x15 for T
+	 * @param bases 8 DNA bases
+	 * @return The mask to XOR them with
+	 */
+	private static long dNAToRNAMask(long bases) {
+
+		long bit1 = (bases >>> 1) & lowBits;
+		long bit4 = (bases >>> 4) & lowBits;
+		return maskAToU ^ (bit1 << 4) ^ bit4;
+
+	}
+
+	/**
+	 * Method to work out the masks that change each byte of a long from RNA to complementary DNA: 0x04 for C and G, 0x15 for A and 0x14 for U
+	 * @param bases 8 RNA bases
+	 * @return The mask to XOR them with
+	 */
+	private static long rNAToDNAMask(long bases) {
+
+		long bit1 = (bases >>> 1) & lowBits;
+		long bit4 = (bases >>> 4) & lowBits;
+		return maskAToT ^ (bit1 * 0x11) ^ bit4;
+
+	}
+
+	/**
+	 * Method to work out the masks that complement each byte of a long of DNA: 0x04 for C and G, 0x15 for A and T
+	 * @param bases 8 DNA bases
+	 * @return The mask to XOR them with
+	 */
+	private static long complementDNAMask(long bases) {
+
+		long bit1 = (bases >>> 1) & lowBits;
+		return maskAToT ^ (bit1 * 0x11);
+
+	}
+
+	/**
+	 * Method to work out the mask that transcribes one base
+	 * @param base The DNA base
+	 * @return The mask to XOR it with
+	 */
+	private static int dNAToRNAMask(byte base) {
+
+		return 0x14 ^ (((base >>> 1) & 1) << 4) ^ ((base >>> 4) & 1);
+
+	}
+
+	/**
+	 * Method to work out the mask that changes one base from RNA to complementary DNA
+	 * @param base The RNA base
+	 * @return The mask to XOR it with
+	 */
+	private static int rNAToDNAMask(byte base) {
+
+		return 0x15 ^ (((base >>> 1) & 1) * 0x11) ^ ((base >>> 4) & 1);
+
+	}
+
+	/**
+	 * Method to work out the mask that complements one base of DNA
+	 * @param base The DNA base
+	 * @return The mask to XOR it with
+	 */
+	private static int complementDNAMask(byte base) {
+
+		return 0x15 ^ (((base >>> 1) & 1) * 0x11);
+
+	}
+
+}
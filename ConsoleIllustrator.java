@@ -0,0 +1,142 @@
+/**
+ * An object of this class illustrates the steps of transcription and translation in the console, as a TranslationEngine goes through them.
+ * This is the illustration shown when the simulator is run from Main.
+ * An object of this class remembers the mRNA being translated between notifications, so it should only be used for one run at a time.
+ * @author Prakash
+ *
+ */
+public class ConsoleIllustrator implements TranslationObserver {
+
+	/**
+	 * String representing the mRNA being translated, used when printing all the codons in each step's illustration
+	 */
+	private String mRNA5to3;
+	/**
+	 * The index of the Start codon in the mRNA being translated
+	 */
+	private int iAUG;
+	/**
+	 * The index of the Stop codon in the mRNA being translated
+	 */
+	private int iStop;
+
+	/**
+	 * Method to print the heading of the transcription section
+	 */
+	@Override
+	public void transcriptionStarted(String dNA3to5) {
+
+		System.out.println("\n2) TRANSCRIPTION:\n");
+
+	}
+
+	/**
+	 * Method to illustrate the DNA strand and the complementary mRNA strand that has so far been constructed
+	 */
+	@Override
+	public void baseTranscribed(String dNA3to5, int iBase, CharSequence mRNA5to3SoFar) {
+
+		// Print subheading for this iteration in transcription
+		System.out.println("Adding RNA Base #" + (iBase+1) + ':');
+
+		// Illustrate DNA strand and complementary mRNA strand that has so far been constructed by this iteration
+		System.out.println(Main.DNALabel + "3' " + dNA3to5 + " 5'");
+		System.out.println(Main.mRNALabel + "5' " + mRNA5to3SoFar + " 3'");
+		// If this is not the last iteration, print an extra newline character for spacing in the console
+		if (iBase != dNA3to5.length() - 1) System.out.print('\n');
+
+	}
+
+	/**
+	 * Method to label the spot of the Start codon on the mRNA strand using a ^
+	 */
+	@Override
+	public void startCodonFound(String mRNA5to3, int iAUG) {
+
+		for (int i = 0; i < iAUG - 2 + Main.mRNALabel.length(); i++) {
+			System.out.print(' ');
+		}
+		System.out.print("START^");
+
+	}
+
+	/**
+	 * Method to label the spot of the Stop codon on the mRNA strand, on the same line as the Start codon label
+	 */
+	@Override
+	public void stopCodonFound(String mRNA5to3, int iAUG, int iStop) {
+
+		// Print spaces until the position of the Stop codon
+		for (int i = iAUG; i < iStop - 1; i++) {
+			System.out.print(' ');
+		}
+		// Print label for Stop codon
+		System.out.println("^STOP");
+
+	}
+
+	/**
+	 * Method to print the heading of the translation section and remember the mRNA being translated
+	 */
+	@Override
+	public void translationStarted(String mRNA5to3, int iAUG, int iStop) {
+
+		this.mRNA5to3 = mRNA5to3;
+		this.iAUG = iAUG;
+		this.iStop = iStop;
+
+		System.out.println("\n3) TRANSLATION:\n");
+
+	}
+
+	/**
+	 * Method to illustrate the tRNA in the P site and the amino acid chain growing from it
+	 */
+	@Override
+	public void aminoAcidAdded(int numCodon, TRNAMolecule tRNA, AminoAcidSequence aASeqSoFar) {
+
+		// Position of bases in queue (so increases by 4 each codon, including the space between codons)
+		int position = 4 * numCodon;
+
+		// Print subheading for this iteration in translation
+		System.out.println("Adding Amino Acid #" + numCodon + ':');
+
+		// Illustrate this iteration in translation
+		// Don't use the toString() method of the tRNA. Do it manually so we can show the chain growing
+		/*
+		 * Example:
+		 *     tRNA in P
+		 *   Met-Ala
+		 *       | |
+		 *    3' CGC 5'
+		 *5' AUG GCG GGU AUG UUC CCC GUC GAU CGA 3'
+		 */
+		for (int i = 0; i < position - 1; i++) System.out.print(' ');
+		System.out.println("tRNA in P site");
+		System.out.println("   " + aASeqSoFar.getStrThreeLetter());
+		for (int i = 0; i < position - 1; i++) System.out.print(' ');
+		System.out.println("| |");
+		for (int i = 0; i < position - 4; i++) System.out.print(' ');
+		System.out.println("3' " + tRNA.getAnticodon() + " 5'");
+
+		//Print mRNA (mRNA5to3) spaced out in codons
+		// Label the 5' end
+		System.out.print("5'");
+		// For all codons starting with Start and before Stop
+		for (int i = iAUG; i < iStop; i = i + 3) {
+
+			// Each codon is separated by a space
+			System.out.print(" ");
+			System.out.print(mRNA5to3.substring(i, i+3));
+
+		}
+		// Label the 3' end
+		System.out.println(" 3'");
+
+		// Print a label just to explain what some of the components of the illustration are
+		for (int i = 0; i < position; i++) System.out.print(' ');
+		System.out.println("^Current pair of anticodon(top, in tRNA molecule in P site) and codon(bottom)\n");
+
+	}
+
+}
@@ -0,0 +1,233 @@
+/**
+ * An object of this class checks that DNA strands have only the bases A, C, T and G, going over each strand once and looking each
+ * character up in a table instead of comparing it against each base.
+ *
+ * Unlike Main.checkOnlyACTG(), which stops at the first character that is not a base, the whole strand is always checked and every invalid
+ * character is counted, with the positions and characters of the first ones kept for a ValidationReport. Each character costs the same
+ * table lookup whether it is valid or not (and no more are kept once the limit is reached), so rejecting a strand takes no longer than
+ * accepting one of the same length.
+ *
+ * If normalizing is turned on, lower case bases are changed to upper case and whitespace (e.g. line breaks in pasted input) is removed
+ * in the same pass. A strand that is already normalized is not copied.
+ * Objects of this class are never changed after being created, so one can be shared by many threads.
+ * @author Prakash
+ *
+ */
+public class DNAValidator {
+
+	/**
+	 * Value in the lookup tables for characters that are skipped (whitespace)
+	 */
+	private static final byte skip = 0;
+	/**
+	 * Value in the lookup tables for characters that are not bases
+	 */
+	private static final byte invalid = -1;
+	/**
+	 * A lookup table giving each ASCII character itself if it is an upper case base, and invalid otherwise
+	 */
+	private static final byte[] strictTable = new byte[128];
+	/**
+	 * A lookup table giving each ASCII character that is a base its upper case letter, skip for whitespace, and invalid otherwise
+	 */
+	private static final byte[] normalizingTable = new byte[128];
+
+	static {
+
+		java.util.Arrays.fill(strictTable, invalid);
+		java.util.Arrays.fill(normalizingTable, invalid);
+		for (char base : new char[] {'A', 'C', 'T', 'G'}) {
+			strictTable[base] = (byte) base;
+			normalizingTable[base] = (byte) base;
+			normalizingTable[Character.toLowerCase(base)] = (byte) base;
+		}
+		normalizingTable['\n'] = skip;
+		normalizingTable['\r'] = skip;
+		normalizingTable[' '] = skip;
+		normalizingTable['\t'] = skip;
+
+	}
+
+	/**
+	 * The lookup table used, depending on whether strands are normalized
+	 */
+	private final byte[] table;
+	/**
+	 * The largest number of invalid characters whose positions are kept for the report
+	 */
+	private final int maxReported;
+
+	/**
+	 * Constructor to create a validator that only accepts upper case bases and keeps the positions of up to 20 invalid characters
+	 */
+	public DNAValidator() {
+
+		this(false, 20);
+
+	}
+
+	/**
+	 * Constructor to create a validator
+	 * @param normalize Whether lower case bases should be accepted and changed to upper case, and whitespace removed
+	 * @param maxReported The largest number of invalid characters whose positions are kept for the report
+	 */
+	public DNAValidator(boolean normalize, int maxReported) {
+
+		this.table = normalize ? normalizingTable : strictTable;
+		this.maxReported = Math.max(0, maxReported);
+
+	}
+
+	/**
+	 * Method to check a DNA strand string
+	 * @param dNA3to5 String representing the DNA strand
+	 * @return The report, with the normalized strand if the strand is valid
+	 */
+	public ValidationReport validate(String dNA3to5) {
+
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+		int length = dNA3to5.length();
+		// The normalized strand is only made once a character needs changing or removing, and stops being written once one is invalid
+		char[] normalized = null;
+		int n = 0;
+		Invalids invalids = new Invalids(maxReported);
+
+		for (int i = 0; i < length; i++) {
+
+			char c = dNA3to5.charAt(i);
+			byte mapped = (c < 128) ? table[c] : invalid;
+
+			if (mapped == c) {
+				// An upper case base, copied across as it is
+				if (normalized != null) normalized[n] = c;
+				n++;
+			} else if (mapped == invalid) {
+				invalids.add(i, c);
+			} else {
+				// A lower case base or whitespace. From here on the strand can't be the given string, so start copying it
+				if (normalized == null && invalids.count == 0) {
+					normalized = new char[length];
+					dNA3to5.getChars(0, i, normalized, 0);
+				}
+				if (mapped != skip) {
+					if (normalized != null) normalized[n] = (char) mapped;
+					n++;
+				}
+			}
+
+		}
+
+		String normalizedStr = null;
+		if (invalids.count == 0) normalizedStr = (normalized == null) ? dNA3to5 : new String(normalized, 0, n);
+		StageMetrics.validation.record(startTime, startAllocation, dNA3to5.length());
+		return invalids.toReport(n, normalizedStr);
+
+	}
+
+	/**
+	 * Method to check a DNA strand given as bytes (one ASCII character per base), normalizing it in place if normalizing is turned on
+	 * After normalizing, the bases are at the start of the range, and the report gives how many there are
+	 * @param bases The bytes of the DNA strand
+	 * @param offset Index in the array of the first byte
+	 * @param length The number of bytes
+	 * @return The report. Its positions are counted from offset
+	 */
+	public ValidationReport validate(byte[] bases, int offset, int length) {
+
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+		int n = 0;
+		Invalids invalids = new Invalids(maxReported);
+
+		for (int i = 0; i < length; i++) {
+
+			byte b = bases[offset + i];
+			byte mapped = (b >= 0) ? table[b] : invalid;
+
+			if (mapped == invalid) {
+				invalids.add(i, (char) (b & 0xFF));
+			} else if (mapped != skip) {
+				// n is never past i, so this only ever writes over a byte that has already been read
+				bases[offset + n] = mapped;
+				n++;
+			}
+
+		}
+
+		StageMetrics.validation.record(startTime, startAllocation, length);
+		return invalids.toReport(n, null);
+
+	}
+
+	/**
+	 * This class counts invalid characters while a strand is checked, keeping the positions and characters of the first ones
+	 */
+	private static class Invalids {
+
+		/**
+		 * The largest number of positions kept
+		 */
+		private final int max;
+		/**
+		 * The positions kept so far. It is made longer as needed, up to max
+		 */
+		private long[] positions;
+		/**
+		 * The characters kept so far
+		 */
+		private char[] chars;
+		/**
+		 * The number of invalid characters found so far
+		 */
+		private long count;
+
+		/**
+		 * Constructor to start counting
+		 * @param max The largest number of positions kept
+		 */
+		private Invalids(int max) {
+
+			this.max = max;
+			this.positions = new long[Math.min(max, 8)];
+			this.chars = new char[positions.length];
+			this.count = 0;
+
+		}
+
+		/**
+		 * Method to count an invalid character, keeping it if there is still room
+		 * @param position Its index in the strand
+		 * @param c The character
+		 */
+		private void add(long position, char c) {
+
+			if (count < max) {
+				int i = (int) count;
+				if (i == positions.length) {
+					positions = java.util.Arrays.copyOf(positions, Math.min(max, 2 * i));
+					chars = java.util.Arrays.copyOf(chars, positions.length);
+				}
+				positions[i] = position;
+				chars[i] = c;
+			}
+			count++;
+
+		}
+
+		/**
+		 * Method to make the report once the strand has been checked
+		 * @param length The number of bases after normalizing
+		 * @param normalized The normalized strand, or null
+		 * @return The report
+		 */
+		private ValidationReport toReport(long length, String normalized) {
+
+			int numReported = (int) Math.min(count, max);
+			return new ValidationReport(count, java.util.Arrays.copyOf(positions, numReported), java.util.Arrays.copyOf(chars, numReported), length, normalized);
+
+		}
+
+	}
+
+}
@@ -1,11 +1,41 @@
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * This class represents a doubly linked list.
+ *
+ * Since each node knows the nodes before and after it, a node can be deleted without walking the list to find it, and a whole list can be
+ * spliced into another (or concatenated onto its tail) by relinking the nodes at the two ends. To still tell whether a node is in this list
+ * in constant time, each node points to an owner shared by the nodes of its list. When a list is spliced into another, its owner is
+ * forwarded to the other list's owner rather than every node being updated.
+ *
+ * The list keeps count of its nodes, and of changes made to it so that its iterators fail fast: an iterator throws a
+ * ConcurrentModificationException if the list is changed other than through that iterator while it is in use.
+ * Every method that changes a list first calls checkModifiable() on it (splice() on both lists), so a subclass can stop itself from being
+ * changed (see AminoAcidSequence.freeze()).
  * @author Prakash
  *
  * @param <T> Generic type of element in each list node
  */
 
-public class DoublyLinkedList<T> {
+public class DoublyLinkedList<T> implements Iterable<T> {
+	
+	/**
+	 * The owner of the nodes in a list. A node whose owner has been forwarded is in the list of the owner it is forwarded to
+	 */
+	static final class Owner {
+		
+		/**
+		 * The owner this one has been forwarded to, or null if it is the owner of a list
+		 */
+		private Owner forward;
+		
+	}
 	
 	/**
 	 * The node at the front of the list
@@ -15,6 +45,18 @@ public class DoublyLinkedList<T> {
 	 * The node at the back of the list
 	 */
 	private DoublyLinkedListNode<T> tail;
+	/**
+	 * The owner of the nodes in this list
+	 */
+	private Owner owner;
+	/**
+	 * The number of nodes in the list
+	 */
+	private int size;
+	/**
+	 * The number of times the list has been changed, so iterators can tell it has changed under them
+	 */
+	private int modCount;
 	
 	/**
 	 * Constructor to initialize a doubly linked list.
@@ -24,6 +66,9 @@ public class DoublyLinkedList<T> {
 		
 		front = null;
 		tail = null;
+		owner = new Owner();
+		size = 0;
+		modCount = 0;
 		
 	}
 	
@@ -47,18 +92,68 @@ public class DoublyLinkedList<T> {
 		
 	}
 	
+	/**
+	 * Accessor method for the number of nodes in the list
+	 * @return The number of nodes
+	 */
+	public int size() {
+		
+		return size;
+		
+	}
+	
+	/**
+	 * Method to check whether the list has no nodes
+	 * @return true if the list is empty, false if it is not
+	 */
+	public boolean isEmpty() {
+		
+		return size == 0;
+		
+	}
+	
+	/**
+	 * Method to check whether a node is in this list, without walking the list
+	 * @param node The node
+	 * @return true if the node is in this list, false if it is not
+	 */
+	public boolean contains(DoublyLinkedListNode<T> node) {
+		
+		if (node == null || node.owner == null) return false;
+		
+		// Follow the owner to the one it has been forwarded to, then point every owner on the way (and the node) straight at that one
+		Owner root = node.owner;
+		while (root.forward != null) root = root.forward;
+		Owner current = node.owner;
+		while (current.forward != null) {
+			Owner next = current.forward;
+			current.forward = root;
+			current = next;
+		}
+		node.owner = root;
+		
+		return root == owner;
+		
+	}
+	
 	/**
 	 * Method to insert a node into the list
 	 * @param newNode The node to be inserted into the list
 	 * @param predecessor The node in the list, immediately after which the new node will be inserted
+	 * @throws IllegalArgumentException If the new node is already in a list, or the predecessor is not in this list
 	 */
 	public void insert(DoublyLinkedListNode<T> newNode, DoublyLinkedListNode<T> predecessor) {
 		
+		checkModifiable();
+		if (newNode.owner != null) throw new IllegalArgumentException("The node is already in a list.");
+		if (predecessor != null && !contains(predecessor)) throw new IllegalArgumentException("The predecessor is not in this list.");
+		
 		// If we want to insert this node at the front
 		if (predecessor == null) {
 			
 			// Set the new node's next value as the front
 			newNode.setNext(front);
+			newNode.setPrevious(null);
 			if (front != null) { // If the list was not empty
 				// Set the front's previous value as the new node
 				front.setPrevious(newNode);
@@ -75,74 +170,253 @@ public class DoublyLinkedList<T> {
 			
 		} else { // If we want to insert the node anywhere else
 			
+			// Get the successor before relinking, since it is the predecessor's next node until then
+			DoublyLinkedListNode<T> successor = predecessor.getNext();
+			
 			// Set the next value of the predecessor as this new node
 			predecessor.setNext(newNode);
 			// Set the previous value of the new node as that predecessor
 			newNode.setPrevious(predecessor);
+			newNode.setNext(successor);
 			
-			if (predecessor.equals(tail)) { // If we are adding this to the tail of the list
+			if (successor == null) { // If we are adding this to the tail of the list
 				
 				// Update the tail to be this new node
 				tail = newNode;
 				
 			} else { // If we are inserting this variable in the middle of the list, fix linkage with the successor
 				
-				DoublyLinkedListNode<T> successor = predecessor.getNext();
-				newNode.setNext(successor);
 				successor.setPrevious(newNode);
 				
 			}
 			
 		}
 		
+		newNode.owner = owner;
+		size++;
+		modCount++;
+		
 	}
 	
 	/**
-	 * Method to delete a node from the list
+	 * Method to delete a node from the list in constant time, by linking the nodes before and after it to each other
 	 * @param nodeToDelete The node to be deleted from the list
-	 * @return true if the node was successfully deleted, false if it was not
+	 * @return true if the node was successfully deleted, false if it was not (because it is not in this list)
 	 */
 	public boolean delete(DoublyLinkedListNode<T> nodeToDelete) {
 		
-		// Declare variables for the current node and its predecessor
-		DoublyLinkedListNode<T> current;
-		DoublyLinkedListNode<T> predecessor;
+		checkModifiable();
+		
+		// If the node is not in this list, nothing was successfully deleted so return false
+		if (!contains(nodeToDelete)) {
+			return false;
+		}
+		
+		DoublyLinkedListNode<T> predecessor = nodeToDelete.getPrevious();
+		DoublyLinkedListNode<T> successor = nodeToDelete.getNext();
+		
+		if (predecessor != null) { // If this node was not at the front
+			predecessor.setNext(successor);
+		} else { // If this was the front, then update front
+			front = successor;
+		}
+		
+		if (successor != null) { // If this node was not the tail
+			successor.setPrevious(predecessor);
+		} else { // If this was the tail, then update tail
+			tail = predecessor;
+		}
+		
+		// Detach the node, so it can be inserted into a list again
+		nodeToDelete.setNext(null);
+		nodeToDelete.setPrevious(null);
+		nodeToDelete.owner = null;
+		size--;
+		modCount++;
+		
+		// The node has now been deleted so return true
+		return true;
+		
+	}
+	
+	/**
+	 * Method to move every node of another list into this one, immediately after a node, in constant time. The other list is left empty
+	 * @param other The list whose nodes are moved. It cannot be this list
+	 * @param predecessor The node in this list, immediately after which the other list's nodes will be inserted, or null for the front
+	 * @throws IllegalArgumentException If the other list is this list, or the predecessor is not in this list
+	 */
+	public void splice(DoublyLinkedList<T> other, DoublyLinkedListNode<T> predecessor) {
+		
+		// Both lists are changed, since the other one is emptied
+		checkModifiable();
+		other.checkModifiable();
+		if (other == this) throw new IllegalArgumentException("A list cannot be spliced into itself.");
+		if (predecessor != null && !contains(predecessor)) throw new IllegalArgumentException("The predecessor is not in this list.");
+		if (other.front == null) return;
+		
+		DoublyLinkedListNode<T> otherFront = other.front;
+		DoublyLinkedListNode<T> otherTail = other.tail;
+		DoublyLinkedListNode<T> successor = (predecessor == null) ? front : predecessor.getNext();
+		
+		// Link the other list's front after the predecessor, and its tail before the successor
+		otherFront.setPrevious(predecessor);
+		if (predecessor == null) {
+			front = otherFront;
+		} else {
+			predecessor.setNext(otherFront);
+		}
+		otherTail.setNext(successor);
+		if (successor == null) {
+			tail = otherTail;
+		} else {
+			successor.setPrevious(otherTail);
+		}
+		
+		// The other list's nodes now belong to this list. The other list starts again with a new owner
+		other.owner.forward = owner;
+		size = size + other.size;
+		modCount++;
+		
+		other.front = null;
+		other.tail = null;
+		other.owner = new Owner();
+		other.size = 0;
+		other.modCount++;
+		
+	}
+	
+	/**
+	 * Method to move every node of another list onto the tail of this one, in constant time. The other list is left empty
+	 * @param other The list whose nodes are moved
+	 */
+	public void concat(DoublyLinkedList<T> other) {
+		
+		splice(other, tail);
+		
+	}
+	
+	/**
+	 * Method called before the list is changed, which does nothing here. A subclass that can stop being changed overrides it to throw
+	 * an exception once it can no longer be changed
+	 * @throws UnsupportedOperationException In a subclass, if the list can no longer be changed
+	 */
+	protected void checkModifiable() {
+		
+	}
+	
+	/**
+	 * Method to get an iterator over the data in the list, from front to tail.
+	 * It fails fast, throwing a ConcurrentModificationException if the list is changed other than by its remove()
+	 * @return The iterator
+	 */
+	@Override
+	public Iterator<T> iterator() {
 		
-		// Start by look at the front node
-		current = front;
-		predecessor = null;
+		return new NodeIterator();
+		
+	}
+	
+	/**
+	 * Method to get a spliterator over the data in the list, which knows the size of the list so parallel streams can split it evenly.
+	 * It splits by copying batches of data out of the list, and fails fast like the iterator
+	 * @return The spliterator
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		
+		return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED);
+		
+	}
+	
+	/**
+	 * Method to get a stream of the data in the list
+	 * @return The stream, in order from front to tail
+	 */
+	public Stream<T> stream() {
 		
-		// Until we reach either the node to delete, or the end of the list
-		while ((current != null) && (current != nodeToDelete)) {
+		return StreamSupport.stream(spliterator(), false);
+		
+	}
+	
+	/**
+	 * Method to get a parallel stream of the data in the list
+	 * @return The parallel stream
+	 */
+	public Stream<T> parallelStream() {
+		
+		return StreamSupport.stream(spliterator(), true);
+		
+	}
+	
+	/**
+	 * An iterator going over the nodes of the list from front to tail
+	 */
+	private class NodeIterator implements Iterator<T> {
+		
+		/**
+		 * The node whose data is returned next, or null at the end of the list
+		 */
+		private DoublyLinkedListNode<T> nextNode = front;
+		/**
+		 * The node whose data was returned last, or null if there is none or it has been removed
+		 */
+		private DoublyLinkedListNode<T> lastReturned = null;
+		/**
+		 * The number of changes to the list when this iterator last changed or saw it
+		 */
+		private int expectedModCount = modCount;
+		
+		/**
+		 * Method to check whether there is more data
+		 * @return true if there is another node, false if the tail has been passed
+		 */
+		@Override
+		public boolean hasNext() {
+			
+			return nextNode != null;
 			
-			// Traverse through the list
-			predecessor = current;
-			current = current.getNext();
 		}
 		
-		// If we reached the end of the list without finding the node to delete, it was not there so nothing was successfully deleted so return false
-		if (current == null) {
-			return false;
-		} else { // If we did find the node to delete
-			
-			if (predecessor != null) { // If this node was not at the front
-				if (current.equals(tail)) { // If this node is the tail node
-					tail = predecessor; // Update the tail node
-				}
-				// Change the linkages to delete the former tail node
-				predecessor.setNext(current.getNext());
-				current.getNext().setPrevious(predecessor);
-			}
+		/**
+		 * Method to get the data in the next node
+		 * @return The data
+		 */
+		@Override
+		public T next() {
 			
-			else { // If this was the front, then remove it and update front
-				front = front.getNext();
-				front.setPrevious(null);
-			}
+			checkForChange();
+			if (nextNode == null) throw new NoSuchElementException();
+			
+			lastReturned = nextNode;
+			nextNode = nextNode.getNext();
+			return lastReturned.getData();
+			
+		}
+		
+		/**
+		 * Method to delete the node whose data was returned last, using the list's delete()
+		 */
+		@Override
+		public void remove() {
+			
+			checkForChange();
+			if (lastReturned == null) throw new IllegalStateException("There is no node to remove.");
 			
-			// The node has now been deleted so return true
-			return true;
+			delete(lastReturned);
+			lastReturned = null;
+			expectedModCount = modCount;
+			
+		}
 		
+		/**
+		 * Method to throw an exception if the list has been changed other than by this iterator
+		 */
+		private void checkForChange() {
+			
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			
 		}
+		
 	}
 	
 	/**
@@ -151,26 +425,19 @@ public class DoublyLinkedList<T> {
 	 */
 	public String toString() {
 		
-		// Start at the front node
-		DoublyLinkedListNode<T> current = front;
 		// Start the string with a label of the front
-		String strToReturn = "front";
+		StringBuilder builder = new StringBuilder("front");
 		
-		// For every node
-		while (current != null) {
-			
-			// Append a string representing double linkage and then the toString() value of the current node
-			strToReturn = strToReturn + " <-> " + current;
-			// Update the current node to the next one
-			current = current.getNext();
-			
+		// For every node, append a string representing double linkage and then the toString() value of the node
+		for (DoublyLinkedListNode<T> current = front; current != null; current = current.getNext()) {
+			builder.append(" <-> ").append(current);
 		}
 		
 		// Finish with a label of the tail
-		strToReturn = strToReturn + " tail";
+		builder.append(" tail");
 		
 		// Return the resulting string
-		return strToReturn;
+		return builder.toString();
 		
 	}
 
@@ -21,6 +21,14 @@ public class DoublyLinkedListNode<T> {
 	 * This node's predecessor node. The previous node in the linked list.
 	 */
 	private DoublyLinkedListNode<T> previous;
+	/**
+	 * The owner of the nodes of the list this node is in, or null if it is not in a list. Only DoublyLinkedList changes it
+	 */
+	DoublyLinkedList.Owner owner;
+	/**
+	 * Whether the node is in a list that can no longer be changed (see AminoAcidSequence.freeze()), so its mutator methods throw
+	 */
+	boolean readOnly;
 	
 	/**
 	 * Constructor that initializes this node with null values for data, next, and previous.
@@ -50,6 +58,7 @@ public class DoublyLinkedListNode<T> {
 	 * @param newData The data desired to be stored in the node
 	 */
 	public void setData(T newData) {
+		checkNotReadOnly();
 		data = newData;
 	}
 	
@@ -58,6 +67,7 @@ public class DoublyLinkedListNode<T> {
 	 * @param newNext The node desired to be next
 	 */
 	public void setNext(DoublyLinkedListNode<T> newNext) {
+		checkNotReadOnly();
 		next = newNext;
 	}
 	
@@ -66,6 +76,7 @@ public class DoublyLinkedListNode<T> {
 	 * @param newPrevious The node desired to be previous
 	 */
 	public void setPrevious(DoublyLinkedListNode<T> newPrevious) {
+		checkNotReadOnly();
 		previous = newPrevious;
 	}
 	
@@ -93,6 +104,13 @@ public class DoublyLinkedListNode<T> {
 		return previous;
 	}
 	
+	/**
+	 * Method to throw an exception if the node is read-only, used before changing it
+	 */
+	private void checkNotReadOnly() {
+		if (readOnly) throw new UnsupportedOperationException("This node is in a frozen list and cannot be changed.");
+	}
+	
 	/**
 	 * A string representation of the linked list
 	 */
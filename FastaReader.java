@@ -0,0 +1,399 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An object of this class reads DNA strands from a FASTA file, or from a file with nothing but bases in it, without loading the file
+ * onto the heap.
+ *
+ * The file is memory-mapped in regions of up to 1 GB, so files of several GB can be read. The bases of each record are read straight from
+ * the mapped file into PackedStrand windows of a chosen maximum length: header lines, newlines and other whitespace are skipped as they
+ * are read, so no String or byte array copy of the sequence is ever made.
+ *
+ * Lower case bases are read the same as upper case. Bases that cannot be packed (e.g. N) end the current window and are skipped, so a
+ * record with them in it is read as several windows. The position of each window in its record is given by getWindowStart().
+ *
+ * Usage: call nextRecord() to move to each record, then nextWindow() until it returns null.
+ * @author Prakash
+ *
+ */
+public class FastaReader implements Closeable {
+
+	/**
+	 * The largest region of the file that is mapped at once
+	 */
+	private static final long maxMapSize = 1L << 30;
+	/**
+	 * Code returned by the lookup table for characters that are skipped (whitespace)
+	 */
+	private static final byte skip = -2;
+	/**
+	 * Code returned by the lookup table for characters that are not bases
+	 */
+	private static final byte invalid = -1;
+	/**
+	 * A lookup table giving the 2-bit code (see PackedStrand) of each byte that is a base, or skip or invalid
+	 */
+	private static final byte[] codes = new byte[256];
+
+	static {
+
+		java.util.Arrays.fill(codes, invalid);
+		codes['T'] = 0;
+		codes['t'] = 0;
+		codes['C'] = 1;
+		codes['c'] = 1;
+		codes['A'] = 2;
+		codes['a'] = 2;
+		codes['G'] = 3;
+		codes['g'] = 3;
+		codes['\n'] = skip;
+		codes['\r'] = skip;
+		codes[' '] = skip;
+		codes['\t'] = skip;
+
+	}
+
+	/**
+	 * The channel of the file being read
+	 */
+	private final FileChannel channel;
+	/**
+	 * The size of the file in bytes
+	 */
+	private final long fileSize;
+	/**
+	 * The name of the file, used as the record name if it has no FASTA header
+	 */
+	private final String fileName;
+	/**
+	 * The currently mapped region of the file
+	 */
+	private MappedByteBuffer buffer;
+	/**
+	 * The position in the file of the first byte of the mapped region
+	 */
+	private long bufferStart;
+	/**
+	 * The position in the file of the next byte to be read
+	 */
+	private long position;
+	/**
+	 * Whether nextRecord() has looked at the start of the file for a header yet
+	 */
+	private boolean startChecked;
+
+	/**
+	 * The name of the current record (its header line without the '>')
+	 */
+	private String recordName;
+	/**
+	 * Whether there are possibly more bases to be read in the current record
+	 */
+	private boolean inRecord;
+	/**
+	 * The number of bases (including skipped ones) read so far in the current record
+	 */
+	private long basesReadInRecord;
+	/**
+	 * The position in its record of the first base of the last window returned
+	 */
+	private long windowStart;
+
+	/**
+	 * Constructor to open a file to be read
+	 * @param path The path of the FASTA or plain sequence file
+	 * @throws IOException If the file cannot be opened
+	 */
+	public FastaReader(Path path) throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		fileSize = channel.size();
+		fileName = path.getFileName().toString();
+		bufferStart = 0;
+		position = 0;
+		startChecked = false;
+		inRecord = false;
+
+	}
+
+	/**
+	 * Method to move to the next record, skipping whatever is left of the current one
+	 * @return true if there is another record, false if the end of the file was reached
+	 * @throws IOException If the file cannot be read
+	 */
+	public boolean nextRecord() throws IOException {
+
+		// A file with no header at its start is read as one record named after the file. This is only checked on the first call, so
+		// later calls skip that record rather than starting it again
+		if (!startChecked) {
+
+			startChecked = true;
+			skipWhitespace();
+			if (peek() == -1) return false;
+			// Blank lines before the first header are not a record of their own
+			if (peek() != '>') {
+				startRecord(fileName);
+				return true;
+			}
+
+		}
+
+		// Skip the rest of the current record
+		int b = peek();
+		while (b != -1 && b != '>') {
+			position++;
+			b = peek();
+		}
+
+		if (b == -1) {
+			inRecord = false;
+			return false;
+		}
+
+		// Read the header line, after the '>'
+		position++;
+		StringBuilder header = new StringBuilder();
+		b = peek();
+		while (b != -1 && b != '\n') {
+			if (b != '\r') header.append((char) b);
+			position++;
+			b = peek();
+		}
+
+		startRecord(header.toString().trim());
+		return true;
+
+	}
+
+	/**
+	 * Method to read the next window of bases of the current record
+	 * @param maxBases The most bases to put in the window
+	 * @return The packed DNA strand of the window, or null if there are no more bases in the record
+	 * @throws IOException If the file cannot be read
+	 */
+	public PackedStrand nextWindow(int maxBases) throws IOException {
+
+		if (!inRecord) return null;
+
+		// Skip whitespace and any bases that cannot be packed before the window
+		int b = peek();
+		while (b != -1 && b != '>' && codes[b] < 0) {
+			if (codes[b] == invalid) basesReadInRecord++;
+			position++;
+			b = peek();
+		}
+
+		// If the record has ended, there is no window
+		if (b == -1 || b == '>') {
+			inRecord = false;
+			return null;
+		}
+
+		windowStart = basesReadInRecord;
+
+		// Pack the bases straight into words, growing the array as needed rather than allocating the maximum up front
+		long[] words = new long[Math.min(PackedStrand.wordsFor(maxBases), 1024)];
+		int n = 0;
+
+		while (n < maxBases && b != -1 && b != '>') {
+
+			int code = codes[b];
+			if (code == invalid) break;
+
+			if (code != skip) {
+
+				if ((n >>> 5) == words.length) words = java.util.Arrays.copyOf(words, Math.min(words.length * 2, PackedStrand.wordsFor(maxBases)));
+				words[n >>> 5] |= (long) code << ((n & 31) << 1);
+				n++;
+				basesReadInRecord++;
+
+			}
+
+			position++;
+			b = peek();
+
+		}
+
+		return new PackedStrand(java.util.Arrays.copyOf(words, PackedStrand.wordsFor(n)), n, false);
+
+	}
+
+	/**
+	 * Method to translate every gene in every remaining record, reading each record in windows.
+	 * A gene is found the same way TranslationEngine.run() finds one: from a Start codon up to the first Stop codon in frame with it. After
+	 * each gene, the next one is looked for from the base after its Stop codon. A gene that has no Stop codon by the end of a window is
+	 * carried into the next window with its unfinished codon (as are the last two bases of a window, which could begin a Start codon), so
+	 * genes are found the same however the record is split into windows.
+	 * Bases that cannot be packed (e.g. N) cannot be read through, so they end a gene the same as the end of the record does: it is given
+	 * to the handler with no Stop codon. A record with no Start codon gives nothing.
+	 * While the handler is given a result, getWindowStart() is the position in the record of the DNA strand in the result
+	 * @param engine The engine whose genetic code is used to find and translate genes
+	 * @param windowBases The most bases to read from the file at once
+	 * @param resultHandler Action given the name of each gene's record and its result
+	 * @throws IOException If the file cannot be read
+	 */
+	public void translateAll(TranslationEngine engine, int windowBases,
+			java.util.function.BiConsumer<String, TranslationResult> resultHandler) throws IOException {
+
+		while (nextRecord()) {
+
+			// The bases of the last window still needed, and their position in the record
+			PackedStrand carried = null;
+			long carriedStart = 0;
+
+			PackedStrand window = nextWindow(windowBases);
+			while (window != null) {
+
+				// Handing a result over moves windowStart, so keep the window's own
+				long start = windowStart;
+
+				// If bases were skipped between the windows, nothing carries over them
+				if (carried != null && carriedStart + carried.length() != start) {
+					translateGenes(engine, carried, carriedStart, true, resultHandler);
+					carried = null;
+				}
+
+				PackedStrand dNA3to5 = (carried == null) ? window : carried.concat(window);
+				long dNAStart = (carried == null) ? start : carriedStart;
+				int iKeep = translateGenes(engine, dNA3to5, dNAStart, false, resultHandler);
+				carried = dNA3to5.slice(iKeep, dNA3to5.length());
+				carriedStart = dNAStart + iKeep;
+
+				window = nextWindow(windowBases);
+
+			}
+
+			if (carried != null) translateGenes(engine, carried, carriedStart, true, resultHandler);
+
+		}
+
+	}
+
+	/**
+	 * Method used by translateAll() to translate the genes in a strand of a record, giving each to the handler
+	 * @param engine The engine to find and translate genes with
+	 * @param dNA3to5 The packed DNA strand
+	 * @param dNAStart The position of the strand in its record
+	 * @param isLast Whether no bases follow the strand, so a gene without a Stop codon is given to the handler instead of being kept
+	 * @param resultHandler Action given the name of each gene's record and its result
+	 * @return Index in the strand of the first base still needed with the next window (the length of the strand if isLast)
+	 */
+	private int translateGenes(TranslationEngine engine, PackedStrand dNA3to5, long dNAStart, boolean isLast,
+			java.util.function.BiConsumer<String, TranslationResult> resultHandler) {
+
+		if (dNA3to5.length() == 0) return 0;
+
+		PackedStrand mRNA5to3 = dNA3to5.transcribe();
+		int from = 0;
+
+		while (true) {
+
+			int iAUG = engine.findStartCodon(mRNA5to3, from);
+			if (iAUG == -1) {
+				// Keep the last two bases, in case the next window finishes a Start codon with them
+				return isLast ? dNA3to5.length() : Math.max(from, dNA3to5.length() - 2);
+			}
+
+			int iStop = engine.findStopCodon(mRNA5to3, iAUG);
+			if (iStop == -1) {
+				// Keep the gene, in case the next window has its Stop codon
+				if (!isLast) return iAUG;
+				windowStart = dNAStart;
+				resultHandler.accept(recordName, new TranslationResult(dNA3to5, mRNA5to3, iAUG, -1, null));
+				return dNA3to5.length();
+			}
+
+			windowStart = dNAStart;
+			resultHandler.accept(recordName, new TranslationResult(dNA3to5, mRNA5to3, iAUG, iStop, engine.translate(mRNA5to3, iAUG, iStop)));
+			from = iStop + 3;
+
+		}
+
+	}
+
+	/**
+	 * Accessor method for the name of the current record
+	 * @return The header line of the record without the '>', or the file name if the file has no header
+	 */
+	public String getRecordName() {
+
+		return recordName;
+
+	}
+
+	/**
+	 * Accessor method for the position in its record of the last window returned by nextWindow() (or, while translateAll() is giving a
+	 * result to its handler, of the DNA strand in that result)
+	 * @return The index of the window's first base in the record
+	 */
+	public long getWindowStart() {
+
+		return windowStart;
+
+	}
+
+	/**
+	 * Method to close the file
+	 * @throws IOException If the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+
+		buffer = null;
+		channel.close();
+
+	}
+
+	/**
+	 * Method to set up reading a new record
+	 * @param name The name of the record
+	 */
+	private void startRecord(String name) {
+
+		recordName = name;
+		inRecord = true;
+		basesReadInRecord = 0;
+		windowStart = 0;
+
+	}
+
+	/**
+	 * Method to move past any whitespace
+	 * @throws IOException If the file cannot be read
+	 */
+	private void skipWhitespace() throws IOException {
+
+		int b = peek();
+		while (b != -1 && codes[b] == skip) {
+			position++;
+			b = peek();
+		}
+
+	}
+
+	/**
+	 * Method to get the next byte without moving past it, mapping the next region of the file when the end of the current one is reached
+	 * @return The byte as a value from 0 to 255, or -1 at the end of the file
+	 * @throws IOException If the file cannot be mapped
+	 */
+	private int peek() throws IOException {
+
+		if (position >= fileSize) return -1;
+
+		// If the position is outside the mapped region, map the region starting at it
+		if (buffer == null || position < bufferStart || position - bufferStart >= buffer.limit()) {
+
+			bufferStart = position;
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, bufferStart, Math.min(maxMapSize, fileSize - bufferStart));
+
+		}
+
+		return buffer.get((int) (position - bufferStart)) & 0xFF;
+
+	}
+
+}
@@ -0,0 +1,511 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a genetic code: which amino acid each of the 64 codons codes for, and which codons are Start and Stop codons.
+ * Besides the standard code, mitochondria and some organisms use codes in which a few codons mean something else (e.g. in vertebrate
+ * mitochondria UGA codes for tryptophan, and AGA and AGG are Stop codons).
+ *
+ * Codes are read from a small text definition in the form the NCBI gives its translation tables in. Each table starts with a line
+ * giving its number and name, followed by lines of 64 characters, one for each codon:
+ * -AAs: the one-letter code of the amino acid of each codon, or * for a Stop codon
+ * -Starts: M for each codon that can be a Start codon, anything else for the rest
+ * -Base1, Base2 and Base3: the bases of each codon (T/U, C, A or G). These can be left out if the codons are in the NCBI's order,
+ *  which is the same as the order of the chart used by TRNAList (TTT, TTC, TTA, TTG, TCT, ..., GGG)
+ * Lines starting with # are comments. Several of the NCBI's tables are built in (see get()), and more can be loaded with load().
+ *
+ * When loaded, a code is compiled into an array of 64 amino acids and two 64-bit masks of the Start and Stop codons, all indexed by the
+ * codon's 6-bit number (see TRNAList.codonIndex()), so looking up a codon costs the same whichever code is used.
+ * Objects of this class cannot be changed once created, so one can be shared by many threads.
+ * @author Prakash
+ *
+ * Reference:
+ * National Center for Biotechnology Information. (n.d.). The Genetic Codes. Retrieved from
+ * https://www.ncbi.nlm.nih.gov/Taxonomy/Utils/wprintgc.cgi.
+ *
+ */
+public class GeneticCode {
+
+	/**
+	 * The 6-bit number of the codon AUG, the Start codon in every code
+	 */
+	static final int codonAUG = 0b100011;
+	/**
+	 * Methionine, the amino acid the initiator tRNA carries to every Start codon
+	 */
+	private static final AminoAcid methionine = AminoAcidList.getShared().getAA("Met");
+
+	/**
+	 * The definitions of the built-in codes, with the numbers and names the NCBI gives them.
+	 * The codons are in the NCBI's order, so the Base lines are left out
+	 */
+	private static final String builtInDefinitions =
+			"# The NCBI's table 1 also lets UUG and CUG be Start codons, but the simulator has always started translation at the first AUG\n"
+			+ "1 Standard\n"
+			+ "AAs    = FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = ----------**--*--------------------M----------------------------\n"
+			+ "2 Vertebrate Mitochondrial\n"
+			+ "AAs    = FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSS**VVVVAAAADDEEGGGG\n"
+			+ "Starts = ----------**--------------------MMMM----------**---M------------\n"
+			+ "3 Yeast Mitochondrial\n"
+			+ "AAs    = FFLLSSSSYY**CCWWTTTTPPPPHHQQRRRRIIMMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = ----------**----------------------MM---------------M------------\n"
+			+ "4 Mold, Protozoan, and Coelenterate Mitochondrial and Mycoplasma/Spiroplasma\n"
+			+ "AAs    = FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = --MM------**-------M------------MMMM---------------M------------\n"
+			+ "5 Invertebrate Mitochondrial\n"
+			+ "AAs    = FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSSSSVVVVAAAADDEEGGGG\n"
+			+ "Starts = ---M------**--------------------MMMM---------------M------------\n"
+			+ "6 Ciliate, Dasycladacean and Hexamita Nuclear\n"
+			+ "AAs    = FFLLSSSSYYQQCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = --------------*--------------------M----------------------------\n"
+			+ "9 Echinoderm and Flatworm Mitochondrial\n"
+			+ "AAs    = FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNNKSSSSVVVVAAAADDEEGGGG\n"
+			+ "Starts = -----------------------------------M---------------M------------\n"
+			+ "10 Euplotid Nuclear\n"
+			+ "AAs    = FFLLSSSSYY**CCCWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = -----------------------------------M----------------------------\n"
+			+ "11 Bacterial, Archaeal and Plant Plastid\n"
+			+ "AAs    = FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = ---M------**--*----M------------MMMM---------------M------------\n"
+			+ "12 Alternative Yeast Nuclear\n"
+			+ "AAs    = FFLLSSSSYY**CC*WLLLSPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG\n"
+			+ "Starts = -------------------M---------------M----------------------------\n"
+			+ "13 Ascidian Mitochondrial\n"
+			+ "AAs    = FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSSGGVVVVAAAADDEEGGGG\n"
+			+ "Starts = ---M------------------------------MM---------------M------------\n"
+			+ "14 Alternative Flatworm Mitochondrial\n"
+			+ "AAs    = FFLLSSSSYYY*CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNNKSSSSVVVVAAAADDEEGGGG\n"
+			+ "Starts = -----------------------------------M----------------------------\n";
+
+	/**
+	 * The built-in codes, by number
+	 */
+	private static final Map<Integer, GeneticCode> builtInCodes = new LinkedHashMap<Integer, GeneticCode>();
+
+	static {
+
+		try {
+			for (GeneticCode code : parse(new StringReader(builtInDefinitions))) builtInCodes.put(code.id, code);
+		} catch (IOException e) {
+			// A StringReader never fails to read
+			throw new IllegalStateException(e);
+		}
+
+	}
+
+	/**
+	 * The code used when no other is given, which is also the code get(1) returns: the standard code, with AUG as its only Start codon.
+	 * The NCBI's standard table also lets UUG and CUG be Start codons, but the simulator has always started translation at the first AUG
+	 * (a code with them can be made with withStartCodons())
+	 */
+	public static final GeneticCode standard = get(1);
+
+	/**
+	 * The number of the code, as given by the NCBI
+	 */
+	private final int id;
+	/**
+	 * The name of the code
+	 */
+	private final String name;
+	/**
+	 * The amino acid of each codon, indexed by the codon's 6-bit number. null for Stop codons
+	 */
+	private final AminoAcid[] aminoAcids;
+	/**
+	 * Mask with the bit of each codon number that is a Start codon set
+	 */
+	private final long startCodons;
+	/**
+	 * Mask with the bit of each codon number that is a Stop codon set
+	 */
+	private final long stopCodons;
+
+	/**
+	 * Constructor to create a compiled code
+	 * @param id The number of the code
+	 * @param name The name of the code
+	 * @param aminoAcids The amino acid of each codon, or null for Stop codons
+	 * @param startCodons Mask with bit n set if the codon with number n is a Start codon
+	 * @param stopCodons Mask with bit n set if the codon with number n is a Stop codon
+	 */
+	private GeneticCode(int id, String name, AminoAcid[] aminoAcids, long startCodons, long stopCodons) {
+
+		this.id = id;
+		this.name = name;
+		this.aminoAcids = aminoAcids;
+		this.startCodons = startCodons;
+		this.stopCodons = stopCodons;
+
+	}
+
+	/**
+	 * Method to get one of the built-in codes
+	 * @param id The number the NCBI gives the code, e.g. 2 for the vertebrate mitochondrial code or 11 for the bacterial code
+	 * @return The code
+	 * @throws IllegalArgumentException If there is no built-in code with that number
+	 */
+	public static GeneticCode get(int id) {
+
+		GeneticCode code = builtInCodes.get(id);
+		if (code == null) throw new IllegalArgumentException("There is no built-in genetic code " + id + '.');
+		return code;
+
+	}
+
+	/**
+	 * Method to get all the built-in codes
+	 * @return The codes, in order of their numbers
+	 */
+	public static Collection<GeneticCode> getBuiltIn() {
+
+		return Collections.unmodifiableCollection(builtInCodes.values());
+
+	}
+
+	/**
+	 * Method to load the codes defined in a text file
+	 * @param path The file
+	 * @return The codes, in the order they are defined
+	 * @throws IOException If the file cannot be read
+	 * @throws IllegalArgumentException If a code is not defined correctly
+	 */
+	public static List<GeneticCode> load(Path path) throws IOException {
+
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return parse(reader);
+		}
+
+	}
+
+	/**
+	 * Method to read and compile the codes in a text definition
+	 * @param definitions The definitions of the codes
+	 * @return The codes, in the order they are defined
+	 * @throws IOException If the definitions cannot be read
+	 * @throws IllegalArgumentException If a code is not defined correctly
+	 */
+	public static List<GeneticCode> parse(Reader definitions) throws IOException {
+
+		// The amino acids, looked up by their one-letter codes
+		AminoAcid[] byOneLetter = new AminoAcid[128];
+		AminoAcidList aAList = AminoAcidList.getShared();
+		for (int i = 0; i < aAList.size(); i++) byOneLetter[aAList.getAA(i).getOneLetter()] = aAList.getAA(i);
+
+		List<GeneticCode> codes = new ArrayList<GeneticCode>();
+		BufferedReader reader = new BufferedReader(definitions);
+		// The lines of the code being read, by key. Its number and name are in the "id" and "name" entries
+		Map<String, String> table = null;
+		int lineNumber = 0;
+		String line;
+
+		while ((line = reader.readLine()) != null) {
+
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) continue;
+
+			int iEquals = line.indexOf('=');
+			if (iEquals == -1) {
+
+				// A line without = starts a new code, with its number and then its name
+				if (table != null) codes.add(compile(table, byOneLetter));
+				String[] idAndName = line.split("\\s+", 2);
+				table = new LinkedHashMap<String, String>();
+				table.put("line", Integer.toString(lineNumber));
+				table.put("id", idAndName[0]);
+				table.put("name", (idAndName.length > 1) ? idAndName[1] : "");
+
+			} else {
+
+				if (table == null) throw new IllegalArgumentException("Line " + lineNumber + ": the number and name of the code must come first.");
+				table.put(line.substring(0, iEquals).trim(), line.substring(iEquals + 1).trim());
+
+			}
+
+		}
+		if (table != null) codes.add(compile(table, byOneLetter));
+
+		return codes;
+
+	}
+
+	/**
+	 * Method to compile one code from the lines defining it
+	 * @param table The lines, by key
+	 * @param byOneLetter The amino acids, indexed by their one-letter codes
+	 * @return The code
+	 */
+	private static GeneticCode compile(Map<String, String> table, AminoAcid[] byOneLetter) {
+
+		String where = "Code at line " + table.get("line");
+
+		int id;
+		try {
+			id = Integer.parseInt(table.get("id"));
+		} catch (NumberFormatException nfe) {
+			throw new IllegalArgumentException(where + ": " + table.get("id") + " is not a number.");
+		}
+
+		String aAs = getLine(table, "AAs", "", where);
+		String starts = getLine(table, "Starts", "", where);
+		// Without Base lines, the codons are in the order of the chart. If any Base line is given, all three must be
+		boolean hasBases = table.containsKey("Base1") || table.containsKey("Base2") || table.containsKey("Base3");
+		String base1 = getLine(table, "Base1", hasBases ? "" : null, where);
+		String base2 = getLine(table, "Base2", hasBases ? "" : null, where);
+		String base3 = getLine(table, "Base3", hasBases ? "" : null, where);
+
+		AminoAcid[] aminoAcids = new AminoAcid[64];
+		long startCodons = 0;
+		long stopCodons = 0;
+		// Each codon must be defined exactly once
+		long defined = 0;
+
+		for (int i = 0; i < 64; i++) {
+
+			int codon = i;
+			if (base1 != null) {
+				// T is read as U, since the NCBI gives the bases as DNA
+				codon = TRNAList.codonIndex(toRNA(base1.charAt(i)), toRNA(base2.charAt(i)), toRNA(base3.charAt(i)));
+				if (codon < 0) throw new IllegalArgumentException(where + ": invalid base in codon #" + (i + 1) + '.');
+			}
+			if ((defined & (1L << codon)) != 0) throw new IllegalArgumentException(where + ": codon #" + (i + 1) + " is defined twice.");
+			defined = defined | (1L << codon);
+
+			char aA = aAs.charAt(i);
+			if (aA == '*') {
+				stopCodons = stopCodons | (1L << codon);
+			} else if (aA < 128 && byOneLetter[aA] != null) {
+				aminoAcids[codon] = byOneLetter[aA];
+			} else {
+				throw new IllegalArgumentException(where + ": '" + aA + "' is not the one-letter code of an amino acid.");
+			}
+
+			if (starts.charAt(i) == 'M') startCodons = startCodons | (1L << codon);
+
+		}
+
+		// A Stop codon cannot also start translation
+		if ((startCodons & stopCodons) != 0) throw new IllegalArgumentException(where + ": a Stop codon cannot be a Start codon.");
+
+		return new GeneticCode(id, table.get("name"), aminoAcids, startCodons, stopCodons);
+
+	}
+
+	/**
+	 * Method to get one of the lines defining a code, checking that it has a character for every codon
+	 * @param table The lines, by key
+	 * @param key The key of the line
+	 * @param absent The value to return if there is no such line, or "" if the line must be given
+	 * @param where Where the code is defined, for error messages
+	 * @return The line's 64 characters, or absent if there is no such line
+	 */
+	private static String getLine(Map<String, String> table, String key, String absent, String where) {
+
+		String line = table.get(key);
+		if (line == null) {
+			if (absent != null && absent.isEmpty()) throw new IllegalArgumentException(where + ": the " + key + " line is missing.");
+			return absent;
+		}
+		if (line.length() != 64) throw new IllegalArgumentException(where + ": the " + key + " line has " + line.length() + " characters instead of 64.");
+		return line;
+
+	}
+
+	/**
+	 * Method to read a DNA base as the RNA base with the same code
+	 * @param base The base
+	 * @return U for T, the base itself otherwise
+	 */
+	private static char toRNA(char base) {
+
+		return (base == 'T') ? 'U' : base;
+
+	}
+
+	/**
+	 * Method to get a copy of this code with different Start codons
+	 * @param newStartCodons Mask with bit n set if the codon with number n should be a Start codon
+	 * @return The code with those Start codons
+	 */
+	public GeneticCode withStartCodons(long newStartCodons) {
+
+		if ((newStartCodons & stopCodons) != 0) throw new IllegalArgumentException("A Stop codon cannot be a Start codon.");
+		return new GeneticCode(id, name, aminoAcids, newStartCodons, stopCodons);
+
+	}
+
+	/**
+	 * Accessor method for the number of the code
+	 * @return The number the NCBI gives the code
+	 */
+	public int getId() {
+
+		return id;
+
+	}
+
+	/**
+	 * Accessor method for the name of the code
+	 * @return The name
+	 */
+	public String getName() {
+
+		return name;
+
+	}
+
+	/**
+	 * Method to get the amino acid coded for by a codon
+	 * @param codon The 6-bit number of the codon
+	 * @return The amino acid, or null if the codon is a Stop codon
+	 */
+	public AminoAcid getAminoAcid(int codon) {
+
+		return aminoAcids[codon];
+
+	}
+
+	/**
+	 * Method to get the amino acid of every codon, e.g. to look codons up in a loop without going through this object
+	 * @return A new array of the amino acid of each codon, indexed by the codon's 6-bit number, with null for Stop codons
+	 */
+	public AminoAcid[] getAminoAcids() {
+
+		return aminoAcids.clone();
+
+	}
+
+	/**
+	 * Method to get the amino acid added for a codon when it is the first codon translated. Translation begins with the initiator tRNA,
+	 * which carries methionine to whichever Start codon it pairs with, so a Start codon that codes for another amino acid inside a gene
+	 * (e.g. GUG for valine in the bacterial code) still begins the chain with methionine
+	 * @param codon The 6-bit number of the codon
+	 * @return Methionine if the codon is a Start codon, otherwise the same as getAminoAcid()
+	 */
+	public AminoAcid getStartAminoAcid(int codon) {
+
+		return isStartCodon(codon) ? methionine : aminoAcids[codon];
+
+	}
+
+	/**
+	 * Method to get the amino acid added for every codon when it is the first codon translated (see getStartAminoAcid())
+	 * @return A new array of the amino acid of each codon as the first codon, indexed by the codon's 6-bit number
+	 */
+	public AminoAcid[] getStartAminoAcids() {
+
+		AminoAcid[] startAminoAcids = aminoAcids.clone();
+		for (int codon = 0; codon < 64; codon++) startAminoAcids[codon] = getStartAminoAcid(codon);
+		return startAminoAcids;
+
+	}
+
+	/**
+	 * Accessor method for the Start codons
+	 * @return Mask with bit n set if the codon with number n is a Start codon
+	 */
+	public long getStartCodons() {
+
+		return startCodons;
+
+	}
+
+	/**
+	 * Accessor method for the Stop codons
+	 * @return Mask with bit n set if the codon with number n is a Stop codon
+	 */
+	public long getStopCodons() {
+
+		return stopCodons;
+
+	}
+
+	/**
+	 * Method to check whether a codon is a Start codon
+	 * @param codon The 6-bit number of the codon
+	 * @return true if the codon is a Start codon, false if it is not
+	 */
+	public boolean isStartCodon(int codon) {
+
+		return ((startCodons >>> codon) & 1) != 0;
+
+	}
+
+	/**
+	 * Method to check whether a codon is a Stop codon
+	 * @param codon The 6-bit number of the codon
+	 * @return true if the codon is a Stop codon, false if it is not
+	 */
+	public boolean isStopCodon(int codon) {
+
+		return ((stopCodons >>> codon) & 1) != 0;
+
+	}
+
+	/**
+	 * Method to check whether three RNA bases make up a Stop codon
+	 * @param first The first base of the codon
+	 * @param second The second base of the codon
+	 * @param third The third base of the codon
+	 * @return true if the codon is a Stop codon, false if it is not (including if any of the characters is not an RNA base)
+	 */
+	public boolean isStopCodon(char first, char second, char third) {
+
+		int codon = TRNAList.codonIndex(first, second, third);
+		return codon >= 0 && isStopCodon(codon);
+
+	}
+
+	/**
+	 * Method to list the codons in a mask, e.g. for messages such as "no STOP codon (UAA, UAG, or UGA)"
+	 * @param codons Mask with bit n set for each codon number n to list
+	 * @param asTemplateDNA Whether to list the DNA that is transcribed into each codon (e.g. TAC for AUG) instead of the codon
+	 * @param quote String put before and after each codon, e.g. "'" or ""
+	 * @return The codons in the order of the chart, separated by commas with "or" before the last
+	 */
+	public static String listCodons(long codons, boolean asTemplateDNA, String quote) {
+
+		// The template DNA base of each RNA base is its complement
+		String bases = asTemplateDNA ? "AGTC" : "UCAG";
+		int numCodons = Long.bitCount(codons);
+		StringBuilder list = new StringBuilder();
+		int numListed = 0;
+
+		for (int codon = 0; codon < 64; codon++) {
+
+			if (((codons >>> codon) & 1) == 0) continue;
+
+			if (numListed > 0) list.append(numCodons > 2 ? ", " : " ");
+			if (numListed > 0 && numListed == numCodons - 1) list.append("or ");
+			list.append(quote).append(bases.charAt(codon >>> 4)).append(bases.charAt((codon >>> 2) & 3)).append(bases.charAt(codon & 3)).append(quote);
+			numListed++;
+
+		}
+
+		return list.toString();
+
+	}
+
+	/**
+	 * String giving the number and name of the code
+	 */
+	public String toString() {
+
+		return "GeneticCode(" + id + ' ' + name + ')';
+
+	}
+
+}
@@ -0,0 +1,330 @@
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * An object of this class illustrates transcription and translation like ConsoleIllustrator, but with the amount of output bounded so
+ * long strands can still be illustrated.
+ *
+ * The amount of output is bounded in two ways:
+ * -Only a window of the strands around the current position of RNA polymerase or the ribosome is shown, with "..." where the strands
+ *  go beyond it, so each step prints at most a few lines of the window's width instead of the whole strands
+ * -The verbosity decides which steps are shown: every step, every Nth step (and the last), only the last step of each stage,
+ *  or only a summary line for each stage
+ *
+ * Everything is written through one BufferedWriter. Call flush() once the run is over (and before printing anything else to the
+ * same stream), since output may still be buffered.
+ * An object of this class remembers the mRNA being translated between notifications, so it should only be used for one run at a time.
+ * @author Prakash
+ *
+ */
+public class IllustrationRenderer implements TranslationObserver, Flushable {
+
+	/**
+	 * The levels of detail the illustration can have
+	 */
+	public enum Verbosity {
+		/**
+		 * Every step of transcription and translation is shown
+		 */
+		FULL,
+		/**
+		 * Every Nth step of each stage is shown, as well as the last step
+		 */
+		EVERY_NTH_STEP,
+		/**
+		 * Only the last step of each stage is shown
+		 */
+		FINAL_ONLY,
+		/**
+		 * No steps are shown, only a line summarizing each stage
+		 */
+		SUMMARY
+	}
+
+	/**
+	 * Where the illustration is written
+	 */
+	private final Writer out;
+	/**
+	 * The level of detail of the illustration
+	 */
+	private final Verbosity verbosity;
+	/**
+	 * For EVERY_NTH_STEP, the number of steps between those that are shown
+	 */
+	private final int stepInterval;
+	/**
+	 * The number of bases shown on each side of the current position
+	 */
+	private final int windowRadius;
+
+	/**
+	 * String representing the mRNA being translated
+	 */
+	private String mRNA5to3;
+	/**
+	 * The index of the Start codon in the mRNA being translated
+	 */
+	private int iAUG;
+	/**
+	 * The index of the Stop codon in the mRNA being translated
+	 */
+	private int iStop;
+
+	/**
+	 * Constructor to create a renderer writing to a stream
+	 * @param out The stream to write to, e.g. System.out
+	 * @param verbosity The level of detail of the illustration
+	 * @param stepInterval For EVERY_NTH_STEP, the number of steps between those that are shown
+	 * @param windowRadius The number of bases shown on each side of the current position
+	 */
+	public IllustrationRenderer(OutputStream out, Verbosity verbosity, int stepInterval, int windowRadius) {
+
+		this(new OutputStreamWriter(out), verbosity, stepInterval, windowRadius);
+
+	}
+
+	/**
+	 * Constructor to create a renderer writing to a writer
+	 * @param out The writer to write to. It is wrapped in a BufferedWriter
+	 * @param verbosity The level of detail of the illustration
+	 * @param stepInterval For EVERY_NTH_STEP, the number of steps between those that are shown
+	 * @param windowRadius The number of bases shown on each side of the current position
+	 */
+	public IllustrationRenderer(Writer out, Verbosity verbosity, int stepInterval, int windowRadius) {
+
+		this.out = new BufferedWriter(out, 1 << 16);
+		this.verbosity = verbosity;
+		this.stepInterval = Math.max(1, stepInterval);
+		this.windowRadius = Math.max(3, windowRadius);
+
+	}
+
+	/**
+	 * Method to print the heading of the transcription section
+	 */
+	@Override
+	public void transcriptionStarted(String dNA3to5) {
+
+		write("\n2) TRANSCRIPTION:\n\n");
+
+	}
+
+	/**
+	 * Method to illustrate the window of the DNA strand and the mRNA constructed so far around the base just added, if this step is shown
+	 */
+	@Override
+	public void baseTranscribed(String dNA3to5, int iBase, CharSequence mRNA5to3SoFar) {
+
+		int length = dNA3to5.length();
+		boolean isLast = (iBase == length - 1);
+
+		if (verbosity == Verbosity.SUMMARY) {
+			if (isLast) write("Transcribed " + length + " bases into mRNA.\n");
+			return;
+		}
+		if (!isShown(iBase + 1, isLast)) return;
+
+		// The window goes from windowRadius bases before the new base to windowRadius bases after it
+		int from = Math.max(0, iBase - windowRadius);
+		int to = Math.min(length, iBase + windowRadius + 1);
+		String before = (from > 0) ? "..." : "";
+
+		write("Adding RNA Base #" + (iBase+1) + ":\n");
+		write(Main.DNALabel + "3' " + before);
+		write(dNA3to5, from, to);
+		write((to < length ? "..." : "") + " 5'\n");
+		write(Main.mRNALabel + "5' " + before);
+		write(mRNA5to3SoFar, from, iBase + 1);
+		write(" 3'\n");
+		if (!isLast) write("\n");
+
+	}
+
+	/**
+	 * Method to give the position of the Start codon
+	 */
+	@Override
+	public void startCodonFound(String mRNA5to3, int iAUG) {
+
+		write("START codon (" + mRNA5to3.substring(iAUG, iAUG + 3) + ") at mRNA base #" + (iAUG+1) + ".\n");
+
+	}
+
+	/**
+	 * Method to give the position of the Stop codon
+	 */
+	@Override
+	public void stopCodonFound(String mRNA5to3, int iAUG, int iStop) {
+
+		write("STOP codon (" + mRNA5to3.substring(iStop, iStop + 3) + ") at mRNA base #" + (iStop+1) + ".\n");
+
+	}
+
+	/**
+	 * Method to print the heading of the translation section and remember the mRNA being translated
+	 */
+	@Override
+	public void translationStarted(String mRNA5to3, int iAUG, int iStop) {
+
+		this.mRNA5to3 = mRNA5to3;
+		this.iAUG = iAUG;
+		this.iStop = iStop;
+
+		write("\n3) TRANSLATION:\n\n");
+
+	}
+
+	/**
+	 * Method to illustrate the window of codons around the tRNA in the P site, and the end of the amino acid chain above them,
+	 * if this step is shown
+	 */
+	@Override
+	public void aminoAcidAdded(int numCodon, TRNAMolecule tRNA, AminoAcidSequence aASeqSoFar) {
+
+		int numCodons = (iStop - iAUG) / 3;
+		boolean isLast = (numCodon == numCodons);
+
+		if (verbosity == Verbosity.SUMMARY) {
+			if (isLast) write("Translated " + numCodons + " codons into amino acids.\n");
+			return;
+		}
+		if (!isShown(numCodon, isLast)) return;
+
+		// The window goes from codonRadius codons before the current codon to codonRadius codons after it (numbered from 1)
+		int codonRadius = windowRadius / 3;
+		int firstCodon = Math.max(1, numCodon - codonRadius);
+		int lastCodon = Math.min(numCodons, numCodon + codonRadius);
+		boolean cutBefore = firstCodon > 1;
+
+		// Each codon takes 4 columns, and "..." in front of the window takes the place of one codon
+		int position = 4 * (numCodon - firstCodon + 1) + (cutBefore ? 4 : 0);
+
+		write("Adding Amino Acid #" + numCodon + ":\n");
+		spaces(position - 1);
+		write("tRNA in P site\n");
+
+		// The end of the chain, from the amino acid above the first codon in the window to the newest one
+		write("   " + (cutBefore ? "...-" : ""));
+		writeChainEnd(aASeqSoFar, numCodon - firstCodon + 1);
+		write("\n");
+		spaces(position - 1);
+		write("| |\n");
+		spaces(position - 4);
+		write("3' " + tRNA.getAnticodon() + " 5'\n");
+
+		// The codons in the window
+		write("5'" + (cutBefore ? " ..." : ""));
+		for (int c = firstCodon; c <= lastCodon; c++) {
+			int i = iAUG + 3 * (c - 1);
+			write(" ");
+			write(mRNA5to3, i, i + 3);
+		}
+		write((lastCodon < numCodons ? " ..." : "") + " 3'\n");
+
+		spaces(position);
+		write("^Current pair of anticodon(top, in tRNA molecule in P site) and codon(bottom)\n\n");
+
+	}
+
+	/**
+	 * Method to write out everything still buffered
+	 */
+	@Override
+	public void flush() {
+
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+	}
+
+	/**
+	 * Method to decide whether a step is shown, based on the verbosity
+	 * @param numStep The number of the step in its stage, starting at 1
+	 * @param isLast Whether it is the last step of its stage
+	 * @return true if the step should be illustrated, false if not
+	 */
+	private boolean isShown(int numStep, boolean isLast) {
+
+		switch (verbosity) {
+			case FULL:
+				return true;
+			case EVERY_NTH_STEP:
+				return isLast || numStep % stepInterval == 1 || stepInterval == 1;
+			case FINAL_ONLY:
+				return isLast;
+			default:
+				return false;
+		}
+
+	}
+
+	/**
+	 * Method to write the three-letter codes of the last amino acids in the chain, separated by '-'
+	 * @param aASeq The amino acid chain
+	 * @param count The number of amino acids at the end of the chain to write
+	 */
+	private void writeChainEnd(AminoAcidSequence aASeq, int count) {
+
+		// Walk back from the tail to the first amino acid to write
+		DoublyLinkedListNode<AminoAcid> node = aASeq.getTail();
+		for (int i = 1; i < count && node.getPrevious() != null; i++) {
+			node = node.getPrevious();
+		}
+
+		for (; node != null; node = node.getNext()) {
+			write(node.getData().getThreeLetter());
+			if (node.getNext() != null) write("-");
+		}
+
+	}
+
+	/**
+	 * Method to write a number of spaces
+	 * @param count The number of spaces
+	 */
+	private void spaces(int count) {
+
+		for (int i = 0; i < count; i++) write(" ");
+
+	}
+
+	/**
+	 * Method to write part of a sequence of characters without making a string of it
+	 * @param chars The characters
+	 * @param from Index of the first character to write
+	 * @param to Index after the last character to write
+	 */
+	private void write(CharSequence chars, int from, int to) {
+
+		try {
+			out.append(chars, from, to);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+	}
+
+	/**
+	 * Method to write a string
+	 * @param str The string
+	 */
+	private void write(String str) {
+
+		try {
+			out.write(str);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+	}
+
+}
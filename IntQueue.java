@@ -0,0 +1,124 @@
+/**
+ * This class is a queue of int values, such as codons given as their 6-bit numbers (see TRNAList.codonIndex()).
+ * It works the same way as Queue, with an array used as a ring buffer, but stores the values themselves instead of objects,
+ * so enqueuing a codon does not create an object for it.
+ * @author Prakash
+ *
+ */
+public class IntQueue {
+
+	/**
+	 * The number of values the array can hold when the queue is created
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The array used to implement this queue
+	 */
+	private int[] values;
+	/**
+	 * The index in the array of the value at the front of the queue
+	 */
+	private int front;
+	/**
+	 * The number of values in the queue
+	 */
+	private int size;
+
+	/**
+	 * Constructor to create a queue and initialize its array
+	 */
+	public IntQueue() {
+
+		values = new int[initialCapacity];
+		front = 0;
+		size = 0;
+
+	}
+
+	/**
+	 * Method to add a new value into the queue (at the back)
+	 * @param newValue The new value to be added into the queue
+	 */
+	public void enqueue(int newValue) {
+
+		// If the array is full, move the values into a bigger one first
+		if (size == values.length) grow();
+		// Put the value just after the tail, wrapping around to the start of the array if needed
+		values[(front + size) & (values.length - 1)] = newValue;
+		size++;
+
+	}
+
+	/**
+	 * Method to take off the value that is at the front of the queue
+	 * Since codon numbers are never negative, -1 is returned when the queue is empty, the same way Queue returns null
+	 * @return The value that was just taken off, or -1 if the queue is empty
+	 */
+	public int dequeue() {
+
+		if (size == 0) return -1;
+
+		int value = values[front];
+		front = (front + 1) & (values.length - 1);
+		size--;
+		return value;
+
+	}
+
+	/**
+	 * Method to take off values from the front of the queue, copying them in order into an array
+	 * @param destination The array to copy the values into, starting at index 0
+	 * @return The number of values taken off, which is the smaller of the queue's size and the array's length
+	 */
+	public int drain(int[] destination) {
+
+		int numDrained = Math.min(size, destination.length);
+
+		// Copy the values from the front up to the end of the array, then the ones that had wrapped around to its start
+		int numBeforeWrap = Math.min(numDrained, values.length - front);
+		System.arraycopy(values, front, destination, 0, numBeforeWrap);
+		System.arraycopy(values, 0, destination, numBeforeWrap, numDrained - numBeforeWrap);
+
+		front = (front + numDrained) & (values.length - 1);
+		size = size - numDrained;
+
+		return numDrained;
+
+	}
+
+	/**
+	 * Accessor method for the number of values in the queue
+	 * @return The number of values in the queue
+	 */
+	public int size() {
+
+		return size;
+
+	}
+
+	/**
+	 * Method to check whether the queue has no values
+	 * @return true if the queue is empty, false if it is not
+	 */
+	public boolean isEmpty() {
+
+		return size == 0;
+
+	}
+
+	/**
+	 * Method to replace the array with one twice as long, moving the values so the front is at index 0
+	 */
+	private void grow() {
+
+		int[] newValues = new int[values.length * 2];
+		int numBeforeWrap = values.length - front;
+		System.arraycopy(values, front, newValues, 0, numBeforeWrap);
+		System.arraycopy(values, 0, newValues, numBeforeWrap, front);
+		values = newValues;
+		front = 0;
+
+	}
+
+}
@@ -0,0 +1,317 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An object of this class counts the k-mers (runs of k bases, overlapping, in one direction) of a DNA or RNA strand, and its GC content,
+ * so codon usage, GC content and k-mer spectra can be found without exporting the strands to another tool.
+ *
+ * Each k-mer is numbered by shifting its bases' 2-bit codes (see PackedStrand) into a long, so moving to the next k-mer is one shift and
+ * no substring is ever made. For k up to 12 the counts are kept in a long[] with one slot per possible k-mer (4^k slots, 128 MB for k = 12);
+ * for longer k-mers (up to 32) they are kept in a KmerHashTable, which only holds the k-mers that occur (at most KmerHashTable.maxSize
+ * different ones, about 805 million; counting a strand with more throws an IllegalStateException).
+ *
+ * The strand is split into chunks that are counted in parallel in a ForkJoinPool. For k up to 10 (and for the hash tables) each thread
+ * adds to its own table, so counting never waits on another thread, and the tables are added together once every chunk is done. From
+ * k = 11 an array per thread would take 32 MB or more each (128 MB for k = 12), so all threads add to one shared array instead (unless
+ * the pool has only one thread), with atomic additions; with that many slots two threads rarely add to the same one at once.
+ * Codon usage for an ORF comes from translating it (see OpenReadingFrame.translate() and KmerCounts.fromCodonUsage()), not from here.
+ * Objects of this class are never changed after being created, so one can be shared by many threads.
+ * @author Prakash
+ *
+ */
+public class KmerCounter {
+
+	/**
+	 * The most bases counted by one task before it is split into two
+	 */
+	private static final int chunkSize = 1 << 16;
+	/**
+	 * The longest k-mers counted in an array with one slot per k-mer instead of in a hash table
+	 */
+	public static final int maxDenseK = 12;
+	/**
+	 * The longest k-mers counted in an array of each thread's own. Longer k-mers, up to maxDenseK, are counted in one array shared by
+	 * every thread
+	 */
+	private static final int maxPrivateDenseK = 10;
+	/**
+	 * Handle used to add to a count in the shared array atomically
+	 */
+	private static final VarHandle sharedCount = MethodHandles.arrayElementVarHandle(long[].class);
+	/**
+	 * The longest k-mers that can be counted, since the k-mer number must fit in a long
+	 */
+	public static final int maxK = 32;
+
+	/**
+	 * The number of bases in each k-mer
+	 */
+	private final int k;
+	/**
+	 * The pool the chunks are counted in
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor to create a counter that counts in the common ForkJoinPool
+	 * @param k The number of bases in each k-mer, from 1 to 32
+	 */
+	public KmerCounter(int k) {
+
+		this(k, ForkJoinPool.commonPool());
+
+	}
+
+	/**
+	 * Constructor to create a counter that counts in a given pool
+	 * @param k The number of bases in each k-mer, from 1 to 32
+	 * @param pool The pool to count in
+	 */
+	public KmerCounter(int k, ForkJoinPool pool) {
+
+		if (k < 1 || k > maxK) throw new IllegalArgumentException("k must be from 1 to " + maxK + ", not " + k + '.');
+		this.k = k;
+		this.pool = pool;
+
+	}
+
+	/**
+	 * Accessor method for the number of bases in each k-mer
+	 * @return k
+	 */
+	public int getK() {
+
+		return k;
+
+	}
+
+	/**
+	 * Method to count the k-mers of a strand given as a string
+	 * @param bases String with only A,C,G and T (for DNA) or A,C,G and U (for RNA)
+	 * @return The counts
+	 * @throws IllegalArgumentException If the string has any other character, or has both T and U
+	 */
+	public KmerCounts count(String bases) {
+
+		return count(PackedStrand.fromString(bases));
+
+	}
+
+	/**
+	 * Method to count the k-mers of a strand, packed on or off the heap
+	 * @param strand The strand
+	 * @return The counts
+	 */
+	public KmerCounts count(Strand strand) {
+
+		// For large k, one array of counts is shared by every thread's tally, unless the pool only has one thread to count in
+		boolean isShared = k > maxPrivateDenseK && k <= maxDenseK && pool.getParallelism() > 1;
+		long[] sharedCounts = isShared ? new long[1 << (2 * k)] : null;
+		ConcurrentHashMap<Thread, Tally> tallies = new ConcurrentHashMap<Thread, Tally>();
+		pool.invoke(new CountTask(strand, tallies, sharedCounts, 0, strand.size()));
+
+		// Add the other threads' tallies into one of them
+		Tally total = null;
+		for (Tally tally : tallies.values()) {
+			if (total == null) {
+				total = tally;
+			} else {
+				total.addAll(tally);
+			}
+		}
+		if (total == null) total = new Tally(k, sharedCounts);
+
+		// A strand of n bases has n - k + 1 k-mers
+		long numKmers = Math.max(0, strand.size() - k + 1);
+		return new KmerCounts(k, strand.isRNA(), total.denseCounts, total.sparseCounts, numKmers, strand.size(), total.numGC);
+
+	}
+
+	/**
+	 * The counts made by one thread: the k-mers starting in, and the G and C bases in, the chunks it has counted
+	 */
+	private static class Tally {
+
+		/**
+		 * The count of each k-mer indexed by its number, or null if k is more than maxDenseK
+		 */
+		private final long[] denseCounts;
+		/**
+		 * Whether denseCounts is shared by every thread's tally, so it must be added to atomically
+		 */
+		private final boolean isShared;
+		/**
+		 * The counts of the k-mers if k is more than maxDenseK, or null
+		 */
+		private final KmerHashTable sparseCounts;
+		/**
+		 * The number of bases that are G or C
+		 */
+		private long numGC;
+
+		/**
+		 * Constructor to create a tally with nothing counted
+		 * @param k The number of bases in each k-mer
+		 * @param sharedCounts The array of counts shared by every thread, or null if each thread has its own
+		 */
+		Tally(int k, long[] sharedCounts) {
+
+			isShared = (sharedCounts != null);
+			denseCounts = isShared ? sharedCounts : (k <= maxDenseK) ? new long[1 << (2 * k)] : null;
+			sparseCounts = (k <= maxDenseK) ? null : new KmerHashTable();
+
+		}
+
+		/**
+		 * Method to add the counts of another tally to this one
+		 * @param other The other tally
+		 */
+		void addAll(Tally other) {
+
+			if (isShared) {
+				// The other tally's k-mers were counted in the same array
+			} else if (denseCounts != null) {
+				for (int kmer = 0; kmer < denseCounts.length; kmer++) {
+					denseCounts[kmer] = denseCounts[kmer] + other.denseCounts[kmer];
+				}
+			} else {
+				sparseCounts.addAll(other.sparseCounts);
+			}
+			numGC = numGC + other.numGC;
+
+		}
+
+	}
+
+	/**
+	 * A task that counts the k-mers starting in one part of a strand, splitting itself in two while that part is longer than chunkSize
+	 */
+	private class CountTask extends RecursiveAction {
+
+		/**
+		 * Version of the serialized form, which ForkJoinTask requires even though tasks are never serialized
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The strand being counted
+		 */
+		private final Strand strand;
+		/**
+		 * The tally of each thread that has counted a chunk
+		 */
+		private final ConcurrentHashMap<Thread, Tally> tallies;
+		/**
+		 * The array of counts shared by every thread, or null if each thread has its own
+		 */
+		private final long[] sharedCounts;
+		/**
+		 * Index of the first base of the part
+		 */
+		private final long from;
+		/**
+		 * Index after the last base of the part
+		 */
+		private final long to;
+
+		/**
+		 * Constructor to create a task counting the k-mers starting from index from up to (not including) index to
+		 * @param strand The strand being counted
+		 * @param tallies The tally of each thread that has counted a chunk
+		 * @param sharedCounts The array of counts shared by every thread, or null if each thread has its own
+		 * @param from Index of the first base of the part
+		 * @param to Index after the last base of the part
+		 */
+		CountTask(Strand strand, ConcurrentHashMap<Thread, Tally> tallies, long[] sharedCounts, long from, long to) {
+
+			this.strand = strand;
+			this.tallies = tallies;
+			this.sharedCounts = sharedCounts;
+			this.from = from;
+			this.to = to;
+
+		}
+
+		/**
+		 * Method to count the part of the strand, or split it and count its halves
+		 */
+		@Override
+		protected void compute() {
+
+			if (to - from > chunkSize) {
+
+				long middle = from + (to - from) / 2;
+				invokeAll(new CountTask(strand, tallies, sharedCounts, from, middle), new CountTask(strand, tallies, sharedCounts, middle, to));
+				return;
+
+			}
+
+			Tally tally = tallies.computeIfAbsent(Thread.currentThread(), thread -> new Tally(k, sharedCounts));
+			if (tally.isShared) {
+				countShared(tally);
+				return;
+			}
+
+			long[] denseCounts = tally.denseCounts;
+			KmerHashTable sparseCounts = tally.sparseCounts;
+			// The k-mers starting near the end of the part run into the next part, so bases are read past to (but not counted as G or C)
+			long end = Math.min(to + k - 1, strand.size());
+			long mask = (k == maxK) ? -1L : (1L << (2 * k)) - 1;
+			long kmer = 0;
+			long numGC = 0;
+
+			for (long i = from; i < end; i++) {
+
+				int code = strand.codeAt(i);
+				// C (1) and G (3) are the only bases with odd codes
+				if (i < to) numGC = numGC + (code & 1);
+				kmer = ((kmer << 2) | code) & mask;
+
+				// Once k bases have been read, a k-mer ends at each base
+				if (i - from >= k - 1) {
+					if (denseCounts != null) {
+						denseCounts[(int) kmer]++;
+					} else {
+						sparseCounts.add(kmer, 1);
+					}
+				}
+
+			}
+
+			tally.numGC = tally.numGC + numGC;
+
+		}
+
+		/**
+		 * Method to count the part of the strand into the array shared by every thread, the same way as compute() counts into a thread's
+		 * own table. It is kept apart from compute() so the atomic additions do not slow down the loop counting into a thread's own table
+		 * @param tally The tally of this thread, whose counts are the shared array
+		 */
+		private void countShared(Tally tally) {
+
+			long[] denseCounts = tally.denseCounts;
+			long end = Math.min(to + k - 1, strand.size());
+			// k is at most maxDenseK here, so the k-mer number fits in an int
+			int mask = (1 << (2 * k)) - 1;
+			int kmer = 0;
+			long numGC = 0;
+
+			for (long i = from; i < end; i++) {
+
+				int code = strand.codeAt(i);
+				if (i < to) numGC = numGC + (code & 1);
+				kmer = ((kmer << 2) | code) & mask;
+				if (i - from >= k - 1) sharedCount.getAndAdd(denseCounts, kmer, 1L);
+
+			}
+
+			tally.numGC = tally.numGC + numGC;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,261 @@
+import java.util.function.ObjLongConsumer;
+
+/**
+ * This class holds the number of times each k-mer (each run of k bases) occurs in a strand, as counted by a KmerCounter, along with the
+ * GC content of the strand. With k = 3 counted over the codons of an ORF (see fromCodonUsage()), it is the ORF's codon usage.
+ *
+ * Each k-mer is numbered by packing its bases 2 bits each, first base highest, with the codes of PackedStrand (U/T = 0, C = 1, A = 2, G = 3).
+ * For k = 3 this is the codon's position in the chart used by TRNAList (see TRNAList.codonIndex()).
+ * For k up to 12 the counts are kept in an array with one slot per possible k-mer; for longer k-mers they are in a KmerHashTable.
+ * Objects of this class are not changed once created.
+ * @author Prakash
+ *
+ */
+public class KmerCounts {
+
+	/**
+	 * The letters representing the bases of DNA, indexed by their 2-bit code
+	 */
+	private static final String basesDNA = "TCAG";
+	/**
+	 * The letters representing the bases of RNA, indexed by their 2-bit code
+	 */
+	private static final String basesRNA = "UCAG";
+
+	/**
+	 * The number of bases in each k-mer
+	 */
+	private final int k;
+	/**
+	 * Whether the k-mers were counted in RNA (printed with U) instead of DNA (printed with T)
+	 */
+	private final boolean isRNA;
+	/**
+	 * The count of each k-mer, indexed by its number, or null if the counts are in sparseCounts
+	 */
+	private final long[] denseCounts;
+	/**
+	 * The counts of the k-mers, or null if they are in denseCounts
+	 */
+	private final KmerHashTable sparseCounts;
+	/**
+	 * The number of k-mers counted
+	 */
+	private final long numKmers;
+	/**
+	 * The number of bases in the strand
+	 */
+	private final long numBases;
+	/**
+	 * The number of bases in the strand that are G or C
+	 */
+	private final long numGC;
+
+	/**
+	 * Constructor to wrap counts that have been made
+	 * @param k The number of bases in each k-mer
+	 * @param isRNA Whether the k-mers were counted in RNA
+	 * @param denseCounts The count of each k-mer indexed by its number, or null
+	 * @param sparseCounts The counts of the k-mers if denseCounts is null
+	 * @param numKmers The number of k-mers counted
+	 * @param numBases The number of bases in the strand
+	 * @param numGC The number of bases in the strand that are G or C
+	 */
+	KmerCounts(int k, boolean isRNA, long[] denseCounts, KmerHashTable sparseCounts, long numKmers, long numBases, long numGC) {
+
+		this.k = k;
+		this.isRNA = isRNA;
+		this.denseCounts = denseCounts;
+		this.sparseCounts = sparseCounts;
+		this.numKmers = numKmers;
+		this.numBases = numBases;
+		this.numGC = numGC;
+
+	}
+
+	/**
+	 * Method to make the codon usage of an ORF (or any stretch of mRNA) from the number of times each codon was read, e.g. as filled in by
+	 * TranslationEngine.translate() or OpenReadingFrame.translate(). The GC content is that of the codons read
+	 * @param codonUsage The count of each codon, indexed by its position in the chart used by TRNAList (64 counts). It is copied
+	 * @return The codon usage, as counts of 3-mers of RNA
+	 */
+	public static KmerCounts fromCodonUsage(long[] codonUsage) {
+
+		if (codonUsage.length != 64) throw new IllegalArgumentException("Codon usage must have 64 counts, not " + codonUsage.length + '.');
+
+		long numCodons = 0;
+		long numGC = 0;
+		for (int codon = 0; codon < 64; codon++) {
+			numCodons = numCodons + codonUsage[codon];
+			// C (1) and G (3) are the only bases with odd codes
+			numGC = numGC + codonUsage[codon] * (((codon >>> 4) & 1) + ((codon >>> 2) & 1) + (codon & 1));
+		}
+
+		return new KmerCounts(3, true, codonUsage.clone(), null, numCodons, numCodons * 3, numGC);
+
+	}
+
+	/**
+	 * Accessor method for the number of bases in each k-mer
+	 * @return k
+	 */
+	public int getK() {
+
+		return k;
+
+	}
+
+	/**
+	 * Method to check whether the k-mers were counted in RNA
+	 * @return true if they were counted in RNA, false if in DNA
+	 */
+	public boolean isRNA() {
+
+		return isRNA;
+
+	}
+
+	/**
+	 * Accessor method for the number of k-mers counted, i.e. the number of positions in the strand a k-mer starts at
+	 * @return The number of k-mers counted
+	 */
+	public long getNumKmers() {
+
+		return numKmers;
+
+	}
+
+	/**
+	 * Method to get the number of different k-mers that occur at least once
+	 * @return The number of different k-mers
+	 */
+	public long getNumDistinct() {
+
+		if (sparseCounts != null) return sparseCounts.size();
+
+		long numDistinct = 0;
+		for (long count : denseCounts) {
+			if (count != 0) numDistinct++;
+		}
+		return numDistinct;
+
+	}
+
+	/**
+	 * Accessor method for the number of bases in the strand the k-mers were counted in
+	 * @return The number of bases
+	 */
+	public long getNumBases() {
+
+		return numBases;
+
+	}
+
+	/**
+	 * Method to get the GC content of the strand: the fraction of its bases that are G or C
+	 * @return The GC content, from 0 to 1, or 0 if the strand has no bases
+	 */
+	public double getGCContent() {
+
+		return numBases == 0 ? 0 : (double) numGC / numBases;
+
+	}
+
+	/**
+	 * Method to get the count of a k-mer using its number
+	 * @param kmer The k-mer number (its bases packed 2 bits each, first base highest)
+	 * @return The number of times the k-mer occurs
+	 */
+	public long getCount(long kmer) {
+
+		if (sparseCounts != null) return sparseCounts.get(kmer);
+		return (kmer >= 0 && kmer < denseCounts.length) ? denseCounts[(int) kmer] : 0;
+
+	}
+
+	/**
+	 * Method to get the count of a k-mer using its bases
+	 * @param kmer The k bases of the k-mer (A, C, G and T or U)
+	 * @return The number of times the k-mer occurs
+	 * @throws IllegalArgumentException If it does not have k bases, or has a character that is not a base
+	 */
+	public long getCount(CharSequence kmer) {
+
+		if (kmer.length() != k) throw new IllegalArgumentException("'" + kmer + "' does not have " + k + " bases.");
+
+		long number = 0;
+		for (int i = 0; i < k; i++) {
+			int code = PackedStrand.encode(kmer.charAt(i));
+			if (code < 0) throw new IllegalArgumentException("Invalid base '" + kmer.charAt(i) + "' at index " + i + '.');
+			number = (number << 2) | code;
+		}
+		return getCount(number);
+
+	}
+
+	/**
+	 * Method to get the count of a codon, when these are counts of 3-mers (e.g. codon usage), using the same indexing as TRNAList
+	 * @param first The first base of the codon (U, C, A or G)
+	 * @param second The second base of the codon
+	 * @param third The third base of the codon
+	 * @return The number of times the codon occurs
+	 * @throws IllegalStateException If k is not 3
+	 * @throws IllegalArgumentException If any of the characters is not an RNA base
+	 */
+	public long getCodonCount(char first, char second, char third) {
+
+		if (k != 3) throw new IllegalStateException("These are counts of " + k + "-mers, not codons.");
+
+		int codon = TRNAList.codonIndex(first, second, third);
+		if (codon < 0) throw new IllegalArgumentException("Invalid codon '" + first + second + third + "'.");
+		return getCount(codon);
+
+	}
+
+	/**
+	 * Method to get the bases of a k-mer from its number
+	 * @param kmer The k-mer number
+	 * @return The k bases, with T for DNA or U for RNA
+	 */
+	public String toKmer(long kmer) {
+
+		String bases = isRNA ? basesRNA : basesDNA;
+		char[] letters = new char[k];
+		for (int i = k - 1; i >= 0; i--) {
+			letters[i] = bases.charAt((int) kmer & 3);
+			kmer = kmer >>> 2;
+		}
+		return new String(letters);
+
+	}
+
+	/**
+	 * Method to go over every k-mer that occurs, in increasing order of their numbers (for codons, the order of the chart)
+	 * @param action What to do with each k-mer's bases and its count
+	 */
+	public void forEach(ObjLongConsumer<String> action) {
+
+		if (sparseCounts != null) {
+			for (long kmer : sparseCounts.sortedKeys()) {
+				action.accept(toKmer(kmer), sparseCounts.get(kmer));
+			}
+			return;
+		}
+
+		for (int kmer = 0; kmer < denseCounts.length; kmer++) {
+			if (denseCounts[kmer] != 0) action.accept(toKmer(kmer), denseCounts[kmer]);
+		}
+
+	}
+
+	/**
+	 * String giving k, the number of k-mers counted and the GC content. The counts are not included since there may be millions of them
+	 */
+	public String toString() {
+
+		return "KmerCounts(k=" + k + ", " + numKmers + " k-mers, " + getNumDistinct() + " distinct, GC "
+				+ String.format("%.1f", getGCContent() * 100) + "%)";
+
+	}
+
+}
@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+/**
+ * This class counts k-mers too long to have a slot each in an array (more than 12 bases, so more than 4^12 possible k-mers).
+ * It is a hash table with open addressing: the k-mers (packed 2 bits per base into a long, as in PackedStrand) and their counts are kept
+ * in two parallel arrays of longs, and a k-mer whose slot is taken goes in the next free slot after it. No object is created per k-mer.
+ *
+ * A count of 0 marks a free slot, since every k-mer number (including 0, all U/T) can be a key. The arrays are doubled whenever they
+ * become half full, so the probe sequences stay short, up to 2^30 slots (the largest power of 2 an array can have). At that size the table
+ * is let fill to three quarters, and adding a new k-mer past that throws an IllegalStateException rather than overflowing.
+ * An object of this class should only be used by one thread at a time (KmerCounter gives each thread its own and merges them at the end).
+ * @author Prakash
+ *
+ */
+public class KmerHashTable {
+
+	/**
+	 * The number of slots a new table starts with
+	 */
+	private static final int initialCapacity = 1 << 10;
+	/**
+	 * The most slots a table can have
+	 */
+	private static final int maxCapacity = 1 << 30;
+	/**
+	 * The most different k-mers a table can hold, once it has maxCapacity slots
+	 */
+	static final int maxSize = maxCapacity / 4 * 3;
+
+	/**
+	 * The k-mer in each slot
+	 */
+	private long[] keys;
+	/**
+	 * The count of the k-mer in each slot, or 0 if the slot is free
+	 */
+	private long[] counts;
+	/**
+	 * The number of slots in use
+	 */
+	private int size;
+	/**
+	 * The number of bits taken from the hash to pick a slot, so there are 2^bits slots
+	 */
+	private int bits;
+
+	/**
+	 * Constructor to create an empty table
+	 */
+	public KmerHashTable() {
+
+		keys = new long[initialCapacity];
+		counts = new long[initialCapacity];
+		bits = Integer.numberOfTrailingZeros(initialCapacity);
+
+	}
+
+	/**
+	 * Method to get the slot a k-mer would be put in if it were free.
+	 * The k-mer is multiplied by a large odd constant (from the golden ratio) and the highest bits are taken, so k-mers that only differ
+	 * in their last bases still spread over the whole table
+	 * @param kmer The k-mer number
+	 * @return The index of the slot
+	 */
+	private int slotOf(long kmer) {
+
+		return (int) ((kmer * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+
+	}
+
+	/**
+	 * Method to add to the count of a k-mer
+	 * @param kmer The k-mer number
+	 * @param amount The amount to add. Must be more than 0
+	 * @throws IllegalStateException If the k-mer is new and the table already holds maxSize k-mers
+	 */
+	public void add(long kmer, long amount) {
+
+		int mask = keys.length - 1;
+		int slot = slotOf(kmer);
+
+		while (counts[slot] != 0) {
+			if (keys[slot] == kmer) {
+				counts[slot] = counts[slot] + amount;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (size == maxSize) throw new IllegalStateException("A k-mer table cannot hold more than " + maxSize + " different k-mers.");
+		keys[slot] = kmer;
+		counts[slot] = amount;
+		size++;
+		if ((long) size * 2 > keys.length && keys.length < maxCapacity) grow();
+
+	}
+
+	/**
+	 * Method to get the count of a k-mer
+	 * @param kmer The k-mer number
+	 * @return The number of times the k-mer was added, or 0 if it never was
+	 */
+	public long get(long kmer) {
+
+		int mask = keys.length - 1;
+		int slot = slotOf(kmer);
+
+		while (counts[slot] != 0) {
+			if (keys[slot] == kmer) return counts[slot];
+			slot = (slot + 1) & mask;
+		}
+
+		return 0;
+
+	}
+
+	/**
+	 * Method to add every count in another table to this one
+	 * @param other The other table
+	 */
+	public void addAll(KmerHashTable other) {
+
+		for (int slot = 0; slot < other.keys.length; slot++) {
+			if (other.counts[slot] != 0) add(other.keys[slot], other.counts[slot]);
+		}
+
+	}
+
+	/**
+	 * Accessor method for the number of different k-mers in the table
+	 * @return The number of k-mers with a count
+	 */
+	public int size() {
+
+		return size;
+
+	}
+
+	/**
+	 * Method to get every k-mer in the table, in increasing order of their numbers
+	 * @return The k-mer numbers
+	 */
+	public long[] sortedKeys() {
+
+		long[] sorted = new long[size];
+		int n = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (counts[slot] != 0) sorted[n++] = keys[slot];
+		}
+		Arrays.sort(sorted);
+		return sorted;
+
+	}
+
+	/**
+	 * Method to double the number of slots, putting every k-mer back in its slot in the larger arrays
+	 */
+	private void grow() {
+
+		long[] oldKeys = keys;
+		long[] oldCounts = counts;
+		keys = new long[oldKeys.length * 2];
+		counts = new long[oldCounts.length * 2];
+		bits++;
+		size = 0;
+
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldCounts[slot] != 0) add(oldKeys[slot], oldCounts[slot]);
+		}
+
+	}
+
+}
@@ -21,11 +21,19 @@ import java.io.*;
  * the translation process (an amino acid chain being put together), ending with the sequence of the resulting amino acid chain shown in three ways 
  * (using their one-letter codes, their three-letter codes, and their full names)
  * 
+ * Running the program with "--serve [port] [max request bytes]" instead starts an HTTP server (TranslationServer) that takes DNA strands
+ * as the bodies of POST requests to /transcribe, /translate and /orfs, so the simulator can be kept running as a service.
+ * Running it with "--batch [--workers N] [--format one|three|full] [file ...]" instead translates every DNA strand on stdin or in the
+ * files (one per line, or FASTA records) without prompting, writing one tab-separated line for each in order (see BatchTranslator).
+ * Running it with "--code N" first uses the genetic code the NCBI numbers N (e.g. 2 for vertebrate mitochondria, see GeneticCode)
+ * instead of the standard code. "--code 1" is the standard code itself, which starts translation only at AUG.
+ * 
  * Notes:
  * - There is room for improvements and new features in this program.
  *   - e.g. This program is currently only designed to show synthesis of one amino acid chain from one DNA strand.
  *   - e.g. The use of a queue may not have been necessary since currently all enqueuing happens before all dequeuing, but in a simulation 
  *     in which translation starts before all transcription is done, there may be more advantages to using a queue
+ *     (PipelinedTranslator is such a simulation: its ribosome translates codons from a queue while transcription is still going)
  * 
  * @author Prakash
  *
@@ -42,15 +50,77 @@ public class Main {
 	static final String mRNALabel = "mRNA being Constructed by RNA Polymerase:   ";
 	
 	/**
-	 * Integer that will be used to index a string that represents mRNA
+	 * The longest DNA strand whose transcription and translation are illustrated in full
+	 */
+	static final int maxFullIllustrationLength = 100;
+	/**
+	 * For longer DNA strands, about how many steps of transcription are illustrated
+	 */
+	static final int maxIllustratedSteps = 30;
+	/**
+	 * For longer DNA strands, the number of bases shown on each side of the current position
+	 */
+	static final int windowRadius = 30;
+	
+	/**
+	 * Engine used to run transcription and translation. It keeps no state between runs so one is shared by all the methods here.
+	 * It uses the standard genetic code unless another is chosen with "--code"
+	 */
+	static TranslationEngine engine = new TranslationEngine();
+	/**
+	 * The object used to check that inputted DNA strands have only A,C,T and G
+	 */
+	static final DNAValidator validator = new DNAValidator();
+	
+	/**
+	 * Integer that will be used by queueCodons() to index a string that represents mRNA.
+	 * The main function no longer uses this, since it runs the DNA strand through a TranslationEngine instead
 	 */
 	static int iCodon;
 	
+	/**
+	 * Line describing the command line arguments
+	 */
+	static final String usage = "Usage: java Main [--code N] [--serve [port] [max request bytes] | --batch [--workers N] [--format one|three|full] [file ...]]";
+	
 	/**
 	 * Main function to run the simulator
-	 * @param args Any command line arguments. This is not currently set up to use any.
+	 * @param args Any command line arguments. With "--code N" first, the genetic code numbered N is used. With "--serve" (optionally 
+	 *             followed by a port and a request size limit in bytes), a TranslationServer is run instead of the interactive simulation,
+	 *             with the chosen genetic code as its default
+	 * @throws IOException If the server cannot be started
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		
+		// Use another genetic code if one was chosen. Like the batch options, a bad one ends the program with exit status 2
+		if (args.length > 0 && args[0].equals("--code")) {
+			try {
+				if (args.length < 2) throw new IllegalArgumentException("--code must be followed by the number of a genetic code.");
+				engine = new TranslationEngine(GeneticCode.get(Integer.parseInt(args[1])));
+			} catch (NumberFormatException e) {
+				System.err.println("The number of the genetic code must be a whole number, not '" + args[1] + "'.");
+				System.err.println(usage);
+				System.exit(2);
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				System.err.println(usage);
+				System.exit(2);
+			}
+			args = java.util.Arrays.copyOfRange(args, 2, args.length);
+		}
+		
+		// In batch mode, run transcription and translation on every strand given on stdin or in files instead of prompting for one
+		if (args.length > 0 && args[0].equals("--batch")) {
+			System.exit(BatchTranslator.run(engine, java.util.Arrays.copyOfRange(args, 1, args.length)));
+		}
+		
+		// In server mode, run transcription and translation for HTTP clients instead of prompting for a DNA strand. The chosen genetic code
+		// is the server's default, used by requests that do not ask for one
+		if (args.length > 0 && args[0].equals("--serve")) {
+			int status = TranslationServer.run(java.util.Arrays.copyOfRange(args, 1, args.length), engine);
+			if (status != 0) System.exit(status);
+			return;
+		}
 		
 		// Print title
 		System.out.println("AMINO ACID SYNTHESIS (TRANSCRIPTION AND TRANSLATION) SIMULATOR\n\n");
@@ -61,105 +131,64 @@ public class Main {
 		// Declare variable that will store the inputted (or randomly generated DNA strand string)
 		String dNA3to5Inputted;
 		
-		// Initialize this variable (later used to index mRNA at certain codons)
-		iCodon = -1;
-		// Initialize codon that will hold codons
-		Queue<String> myCodonQueue = new Queue();
-		// Initialize this as well. It will be eventually updated to be the index at which the Start codon occurs in the mRNA
-		int iAUGCodon = -1;
-		// Initialize the string representing the mRNA strand that comes from transcription
-		String mRNA5to3Transcript = "";
-		
-		// Initialize these variables that indicate whether the DNA string is valid (when all three are true)
-		// Whether the string has only the characters A,C,T and G
-		boolean hasOnlyACTG = false;
-		// Whether the string has DNA for a Start codon
-		boolean hasStartCodonDNA = false;
-		// Whether the string has DNA for a Stop codon
-		boolean hasStopCodonDNA = false;
+		// Declare the illustrator that the engine will notify of each step of transcription and translation
+		TranslationObserver illustrator;
+		// Declare the variable that will hold the result of running the DNA strand through the engine
+		TranslationResult result;
 		
 		// Create a scanner to take in input
 		Scanner myScanner = new Scanner(System.in);
 		
 		// Until a valid DNA string has been provided
-		// However, this loop condition won't ever be evaluated as false since I set the loop up to break early once a string is determined to 
-		// be valid. This loop condition was written just in case
-		while (!hasOnlyACTG || !hasStartCodonDNA || !hasStopCodonDNA) {
+		// The loop is broken out of once the engine has found both a Start and a Stop codon
+		while (true) {
 			
 			// Function call to get either an inputted DNA string or a randomly generated one
 			dNA3to5Inputted = takeDNAInput(myScanner);
 			
 			// Function call to check that it is only A,C,T,G
-			hasOnlyACTG = checkOnlyACTG(dNA3to5Inputted);
-			
 			// If it has any other characters, continue to the next iteration (get a new input)
-			if (!hasOnlyACTG) continue;
+			if (!checkOnlyACTG(dNA3to5Inputted)) continue;
 			
 			// Otherwise, keep going
 			
 			// Print the DNA strand, labelled
 			System.out.println("DNA Template Sequence:\n3' " + dNA3to5Inputted + " 5'");
 			
+			// Run transcription and translation on the DNA strand, with the illustrator printing each step
+			illustrator = chooseIllustrator(dNA3to5Inputted.length());
+			result = engine.run(dNA3to5Inputted, illustrator);
+			// A bounded renderer buffers its output, so write it out before printing anything else
+			if (illustrator instanceof IllustrationRenderer) ((IllustrationRenderer) illustrator).flush();
 			
-			// Print heading #2 
-			System.out.println("\n2) TRANSCRIPTION:\n");
-			
-			
-			// Function call to run the transcription process on the DNA strand, to get an mRNA transcript
-			mRNA5to3Transcript = transcribe(dNA3to5Inputted);
-			
-			// Function call to find the index of the start codon in the mRNA transcript
-			iAUGCodon = findStartCodon(mRNA5to3Transcript);
-			
-			// If this is still the initialized value of -1, then it never got updated, meaning a Start codon was never reached
-			if (iAUGCodon == -1) {
+			// If a Start codon was never reached
+			if (!result.hasStartCodon()) {
 				
-				// Print an error message
-				System.out.println("The inputted DNA strand yielded no START codon (AUG).");
-				// This should already be set to false, but set it to false again in case
-				hasStartCodonDNA = false;
-				// Continue onto the next iteration to get a new DNA strand
+				// Print an error message and continue onto the next iteration to get a new DNA strand
+				System.out.println("The inputted DNA strand yielded no START codon (" + listCodons(true, false) + ").");
 				continue;
 				
-			} else { // Otherwise, Start codon DNA was found
+			}
+			
+			// If no Stop codon was reached after the Start codon
+			if (!result.hasStopCodon()) {
 				
-				// So set this to true
-				hasStartCodonDNA = true;
+				// Print an error message and continue onto the next iteration to get a new DNA strand
+				System.out.println("The inputted DNA strand yielded no STOP codon (" + listCodons(false, false) + ").");
+				continue;
 				
 			}
 			
-			// This shouldn't be needed since a continue statement was already written in the if statement above, but this is written too in case
-			if (!hasStartCodonDNA) continue;
-			
-			// Function call to queue all codons into the codon queue
-			myCodonQueue = queueCodons(mRNA5to3Transcript, iAUGCodon);
-			// That function call would make the codon queue null if no Stop codon DNA was reached
-			hasStopCodonDNA = (myCodonQueue != null);
-			
-			// If not Stop codon DNA was reached, continue to the next iteration to get a new DNA strand
-			if (!hasStopCodonDNA) continue;
+			// Otherwise, the DNA strand was valid and has been translated
+			break;
 			
 		}
 		
-		// Now we the valid DNA strand, mRNA transcript, and codons queued ready for translation
-		
 		// Close the scanner object to prevent any data leak. We no longer need to take in input
 		myScanner.close();
 		
-		// The newest value of iCodon is the index at which the Stop codon occurs in the mRNA, since queueCodons() upd
-		int iStopCodon = iCodon;
-		// Print spaces until the position of the Stop codon
-		for (int i = iAUGCodon; i < iStopCodon - 1; i++) {
-			System.out.print(' ');
-		}
-		// Print label for Stop codon
-		System.out.println("^STOP");
-		
-		// Print heading #3
-		System.out.println("\n3) TRANSLATION:\n");
-		
-		// Function call to illustrate translation process and get amino acid sequence
-		AminoAcidSequence ourAASeq = translate(myCodonQueue, iAUGCodon, iStopCodon, mRNA5to3Transcript);
+		// Get the amino acid sequence from the result
+		AminoAcidSequence ourAASeq = result.getAminoAcidSequence();
 		
 		// Print heading #4
 		System.out.println("\n4) FINAL AMINO ACID SEQUENCE:");
@@ -169,6 +198,23 @@ public class Main {
 
 	}
 	
+	/**
+	 * Method used in main function to choose how to illustrate a DNA strand of a given length.
+	 * Illustrating every step in full prints the whole strands at every step, which is too much output for long strands. So for those,
+	 * a renderer showing only every Nth step, and only a window of the strands around the current position, is used instead
+	 * @param length The length of the DNA strand
+	 * @return The illustrator to give the engine
+	 */
+	public static TranslationObserver chooseIllustrator(int length) {
+		
+		// Strands short enough to fit on one line are illustrated in full
+		if (length <= maxFullIllustrationLength) return new ConsoleIllustrator();
+		
+		// Otherwise show about maxIllustratedSteps steps of transcription, and a window of 2*windowRadius+1 bases
+		return new IllustrationRenderer(System.out, IllustrationRenderer.Verbosity.EVERY_NTH_STEP, length / maxIllustratedSteps, windowRadius);
+		
+	}
+	
 	/**
 	 * Method used in main function to get user input to get a DNA strand string
 	 * @param scannerToUse Scanner object used to allow user input
@@ -178,10 +224,15 @@ public class Main {
 		
 		// Print message clearly explaining what a valid DNA strand will look like for this program
 		System.out.println("\nA valid DNA template sequence for this process will contain the following in order:");
-		System.out.println("1) Any sequence of characters with only A,C,T and/or G, that does not contain the subsequence 'TAC'.");
-		System.out.println("2) 'TAC'.");
-		System.out.println("3) Any sequence of triples of characters with only A,C,T and/or G, as long as none of these triples is 'ATT', 'ATC', or 'ACT'.");
-		System.out.println("4) Either 'ATT', 'ATC', or 'ACT'.");
+		// The Start and Stop codon DNA depend on the genetic code (TAC, and ATT, ATC and ACT, in the standard code)
+		String startCodonsDNA = listCodons(true, true);
+		String stopCodonsDNA = listCodons(false, true);
+		boolean oneStartCodon = Long.bitCount(engine.getGeneticCode().getStartCodons()) == 1;
+		System.out.println("1) Any sequence of characters with only A,C,T and/or G, that does not contain the subsequence" + (oneStartCodon ? " " : "s ")
+				+ startCodonsDNA + '.');
+		System.out.println("2) " + startCodonsDNA + '.');
+		System.out.println("3) Any sequence of triples of characters with only A,C,T and/or G, as long as none of these triples is " + stopCodonsDNA + '.');
+		System.out.println("4) " + (Long.bitCount(engine.getGeneticCode().getStopCodons()) > 1 ? "Either " : "") + stopCodonsDNA + '.');
 		System.out.println("5) Any sequence of characters with only A,C,T and/or G.");
 		System.out.println("For example: CGAAATACGAAAACGTCATCTTAAC");
 		System.out.println("             ^    ^  ^        ^  ^");
@@ -197,6 +248,7 @@ public class Main {
 			
 			// Create a DNA generator object for randomly generating a valid DNA string
 			RandomDNAStrandGenerator randDNAGen = new RandomDNAStrandGenerator();
+			randDNAGen.setGeneticCode(engine.getGeneticCode());
 			// Get the default length settings of the generator, to include in the following print statement to inform the user
 			int[] defaultLengths = randDNAGen.getLengthBounds();
 			
@@ -275,6 +327,7 @@ public class Main {
 				
 				// Change the random DNA generator to one that uses these custom settings
 				randDNAGen = new RandomDNAStrandGenerator(numPreStartBases, numCodonsDNA, numPostStopBases);
+				randDNAGen.setGeneticCode(engine.getGeneticCode());
 				
 			}
 			
@@ -287,6 +340,19 @@ public class Main {
 		
 	}
 	
+	/**
+	 * Method used to list the Start or Stop codons of the genetic code being used, e.g. for error messages
+	 * @param startCodons true to list the Start codons, false to list the Stop codons
+	 * @param asTemplateDNA Whether to list the DNA that is transcribed into each codon, in quotes, instead of the codons
+	 * @return The codons, e.g. "UAA, UAG, or UGA" for the standard code's Stop codons
+	 */
+	public static String listCodons(boolean startCodons, boolean asTemplateDNA) {
+		
+		GeneticCode code = engine.getGeneticCode();
+		return GeneticCode.listCodons(startCodons ? code.getStartCodons() : code.getStopCodons(), asTemplateDNA, asTemplateDNA ? "'" : "");
+		
+	}
+	
 	/**
 	 * Method used in main function to check whether the given DNA strand string has only the bases that can be used in DNA (A,C,T, and G).
 	 * In the main function, it is called inside a while loop. If this returns false, another iteration occurs
@@ -295,38 +361,19 @@ public class Main {
 	 */
 	public static boolean checkOnlyACTG(String dNA3to5) {
 		
-		// Declare a variable that will hold a base character
-		char base;
-		// Initialize the boolean that will ultimately be returned by this function
-		boolean hasOnlyACTG = false;
+		// An empty strand has no bases to check, so it does not count as a DNA strand
+		if (dNA3to5.isEmpty()) return false;
 		
-		// For each character in the inputted DNA string
-		for (int i = 0; i < dNA3to5.length(); i++) {
-			
-			// Get the base character at index i
-			base = dNA3to5.charAt(i);
-			// If it is an invalid character
-			if (base != 'A' && base != 'C' && base != 'T' && base != 'G') {
-				
-				// print an error message 
-				System.out.println("Invalid character(s) used: " + dNA3to5);
-				// set the boolean to false
-				hasOnlyACTG = false;
-				// Break from the loop
-				break;
-				
-			}
-			else { // If it is a valid character
-				
-				// set the boolean as true
-				hasOnlyACTG = true;
-				
-			}
-			
+		// Check the whole strand at once, getting the positions of the invalid characters
+		ValidationReport report = validator.validate(dNA3to5);
+		
+		// If there were any invalid characters, print an error message saying which ones and where they are
+		if (!report.isValid()) {
+			System.out.println("Invalid character(s) used: " + report);
 		}
 		
-		// Return the boolean
-		return hasOnlyACTG;
+		// Return whether the strand is valid
+		return report.isValid();
 		
 	}
 	
@@ -337,43 +384,8 @@ public class Main {
 	 */
 	public static String transcribe(String dNA3to5) {
 		
-		// Initialize a string that will represent the mRNA strand from transcription
-		String mRNA5to3 = "";
-		// Declare variable to hold a base in inputted DNA strand
-		char dNABase;
-		// Declare variable to hold base that will be appended to mRNA strand
-		char mRNABaseToAdd;
-		
-		// For each base in DNA strand
-		for (int i = 0; i < dNA3to5.length(); i++) {
-			
-			// Get the base
-			dNABase = dNA3to5.charAt(i);
-			// Based on that base, set the new mRNA base as the complementary one
-			if (dNABase == 'A') {
-				mRNABaseToAdd = 'U';
-			} else if (dNABase == 'C') {
-				mRNABaseToAdd = 'G';
-			} else if (dNABase == 'T') {
-				mRNABaseToAdd = 'A';
-			} else {
-				mRNABaseToAdd = 'C';
-			}
-			// Append the new mRNA base
-			mRNA5to3 = mRNA5to3 + mRNABaseToAdd;
-			
-			// Print subheading for this iteration in transcription
-			System.out.println("Adding RNA Base #" + (i+1) + ':');
-			
-			// Illustrate DNA strand and complementary mRNA strand that has so far been constructed by this iteration
-			System.out.println(DNALabel + "3' " + dNA3to5 + " 5'");
-			System.out.println(mRNALabel + "5' " + mRNA5to3 + " 3'");
-			// If this is the last iteration, print an extra newline character for spacing in the console
-			if (i != dNA3to5.length() - 1) System.out.print('\n');
-		}
-		
-		// Return the fully constructed mRNA string
-		return mRNA5to3;
+		// Run the engine's transcription, with a console illustrator printing each base as it is added
+		return engine.transcribe(dNA3to5, new ConsoleIllustrator());
 		
 	}
 	
@@ -385,24 +397,8 @@ public class Main {
 	 */
 	public static int findStartCodon(String mRNA5to3) {
 		
-		// Initialize the index of the Start codon as -1
-		int iAUG = -1;
-		// For each character in the mRNA, until the loop is broken
-		for (int i = 0; i < mRNA5to3.length() - 2; i++) {
-			// If this character begins the Start codon
-			if (mRNA5to3.charAt(i) == 'A') {
-				if (mRNA5to3.charAt(i+1) == 'U') {
-					if (mRNA5to3.charAt(i+2) == 'G') {
-						// then the current index is the index of the Start codon, so store it and break the loop
-						iAUG = i;
-						break;
-					}
-				}
-			}
-		}
-		
 		// Return the index of the Start codon (or -1 if no Start codon was found)
-		return iAUG;
+		return engine.findStartCodon(mRNA5to3);
 		
 	}
 	
@@ -416,6 +412,10 @@ public class Main {
 	 */
 	public static Queue<String> queueCodons(String mRNA5to3, int iAUG) {
 		
+		// This stage is measured if StageMetrics is enabled
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+		
 		// Initialize the queue that will hold the codons
 		Queue<String> codonQueue = new Queue();
 		// We will start indexing the mRNA at the index of the Start codon
@@ -439,7 +439,7 @@ public class Main {
 			if (iCodon + 2 > mRNA5to3.length() - 1) {
 				
 				// So print an error message
-				System.out.println("The inputted DNA strand yielded no STOP codon (UAA, UAG, or UGA).");
+				System.out.println("The inputted DNA strand yielded no STOP codon (" + listCodons(false, false) + ").");
 				// Set the boolean as false in case, although it already should be
 				hasStopCodonDNA = false;
 				// Set the queue as null. This will later be used to indicate that there was no Stop codon
@@ -449,11 +449,9 @@ public class Main {
 				
 			} else { // If we are not yet at the last codon
 				
-				// Set the codon as the triplet starting at the index specified by iCodon (updated at the end of the loop)
-				codon5to3 = mRNA5to3.substring(iCodon, iCodon + 3);
-				
-				// If this is a Stop codon
-				if (codon5to3.equals("UAA") || codon5to3.equals("UAG") || codon5to3.equals("UGA")) {
+				// If the triplet starting at the index specified by iCodon (updated at the end of the loop) is a Stop codon
+				// Its bases are checked directly, so a substring is only made for codons that are enqueued
+				if (engine.getGeneticCode().isStopCodon(mRNA5to3.charAt(iCodon), mRNA5to3.charAt(iCodon + 1), mRNA5to3.charAt(iCodon + 2))) {
 					
 					// Change the boolean since we found a Stop codon
 					hasStopCodonDNA = true;
@@ -462,7 +460,8 @@ public class Main {
 					
 				} else { // If we have not reached the last codon or a Stop codon
 					
-					// Enqueue this codon
+					// Set the codon as the triplet starting at the index specified by iCodon, and enqueue it
+					codon5to3 = mRNA5to3.substring(iCodon, iCodon + 3);
 					codonQueue.enqueue(codon5to3);
 					
 				}
@@ -474,6 +473,8 @@ public class Main {
 			
 		}
 		
+		StageMetrics.codonQueueing.record(startTime, startAllocation, (iCodon - iAUG) / 3);
+		
 		// Return the queue containing the codons
 		return codonQueue;
 		
@@ -489,8 +490,12 @@ public class Main {
 	 */
 	public static AminoAcidSequence translate(Queue<String> codonQueue, int iAUG, int iStop, String mRNA5to3) {
 		
-		// Initialize an object that will be used to get tRNA objects
-		TRNAList tRNAList = new TRNAList();
+		// This stage is measured if StageMetrics is enabled
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+		
+		// Get the object that will be used to get tRNA objects for the genetic code being used. The engine shares it between translations
+		TRNAList tRNAList = engine.getTRNAList();
 		
 		// Declare a variable to hold the anticodon of a tRNA (complementary to a codon)
 		String anticodon3to5;
@@ -534,6 +539,8 @@ public class Main {
 			
 			// Get the tRNA object that has that anticodon
 			TRNAMolecule tRNACurr = tRNAList.getMolecule(anticodon3to5);
+			// The first codon is the Start codon, which pairs with the initiator tRNA carrying methionine instead
+			if (numCurrCodon == 1) tRNACurr = tRNAList.getInitiator(TRNAList.codonIndex(codon5to3.charAt(0), codon5to3.charAt(1), codon5to3.charAt(2)));
 			// Now we have the tRNA molecule
 			
 			// Create a node with this tRNA's amino acid (the amino acid that will be added to the growing amino acid chain)
@@ -591,6 +598,8 @@ public class Main {
 			
 		}
 		
+		StageMetrics.translation.record(startTime, startAllocation, numCurrCodon - 1);
+		
 		// Return the object of holding the sequence of amino acids
 		return outputAASeq;
 		
@@ -603,6 +612,10 @@ public class Main {
 	 */
 	public static void displayAASequence(AminoAcidSequence aASeq) {
 		
+		// This stage is measured if StageMetrics is enabled
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+		
 		// Print the one-letter codes of the amino acid sequence
 		System.out.println("\nAmino Acid Sequence (1-Letter Codes):");
 		System.out.println(aASeq.getStrOneLetter());
@@ -615,6 +628,8 @@ public class Main {
 		System.out.println("\nAmino Acid Sequence (Full Names):");
 		System.out.println(aASeq.getStrFullName());
 		
+		StageMetrics.display.record(startTime, startAllocation, aASeq.getStrOneLetter().length());
+		
 	}
 
 }
@@ -0,0 +1,415 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * This class represents a DNA or RNA strand packed 2 bits per base like a PackedStrand, but stored off the heap, so strands of whole
+ * chromosomes (more than Integer.MAX_VALUE bases) can be held without a large heap or long garbage collection pauses.
+ *
+ * The packed words are kept in chunks of up to 2^24 longs (2^29 bases, 128 MB each), since one buffer can hold at most 2 GB. Only the
+ * last chunk can be smaller: it starts at what is needed (at least 8 KB) and grows, at least doubling each time, up to the full size, so a
+ * short strand only takes about as much memory as its bases. The chunks are either direct buffers allocated by the JVM (counted against
+ * -XX:MaxDirectMemorySize and freed when the strand is garbage collected), or regions of a memory-mapped file (paged in and out by the
+ * operating system, so the strand can be larger than the memory available).
+ * A mapped file only holds the packed words (and the room left in its last chunk), so the length of the strand must be kept separately
+ * to open it again.
+ *
+ * Strands are built by appending bases to the end; bases already added are never changed. Appending PackedStrands whole words at a time
+ * (e.g. windows from a FastaReader) is fastest when the strand's length is a multiple of 32.
+ * An object of this class should only be appended to by one thread, but once it is built it can be read by many.
+ * @author Prakash
+ *
+ */
+public class OffHeapStrand implements Strand, Closeable {
+
+	/**
+	 * The number of bits in the index of a word within its chunk
+	 */
+	private static final int chunkShift = 24;
+	/**
+	 * The number of words in each chunk but the last, and the most the last one can grow to
+	 */
+	private static final int chunkWords = 1 << chunkShift;
+	/**
+	 * The fewest words a new chunk is given (8 KB), so a strand built a base at a time does not start with tiny chunks
+	 */
+	private static final int minChunkWords = 1 << 10;
+	/**
+	 * A long with every 2-bit base set to binary 10. XORing a word with this gives the complement of all 32 bases in it
+	 */
+	private static final long complementMask = 0xAAAAAAAAAAAAAAAAL;
+
+	/**
+	 * The chunks of words in which the bases are packed. Base i is in word i/32, at bits 2*(i%32) and 2*(i%32)+1
+	 */
+	private final ArrayList<LongBuffer> chunks = new ArrayList<LongBuffer>();
+	/**
+	 * The file the chunks are mapped from, or null if they are direct buffers
+	 */
+	private final FileChannel channel;
+	/**
+	 * Whether this strand is RNA instead of DNA
+	 */
+	private final boolean isRNA;
+	/**
+	 * The number of bases in the strand
+	 */
+	private long length;
+
+	/**
+	 * Constructor to create an empty strand
+	 * @param channel The file to map the chunks from, or null to allocate them as direct buffers
+	 * @param isRNA Whether the strand is RNA instead of DNA
+	 */
+	private OffHeapStrand(FileChannel channel, boolean isRNA) {
+
+		this.channel = channel;
+		this.isRNA = isRNA;
+		this.length = 0;
+
+	}
+
+	/**
+	 * Method to create an empty strand stored in direct buffers
+	 * @param isRNA Whether the strand is RNA instead of DNA
+	 * @return The strand
+	 */
+	public static OffHeapStrand allocate(boolean isRNA) {
+
+		return new OffHeapStrand(null, isRNA);
+
+	}
+
+	/**
+	 * Method to create an empty strand stored in a memory-mapped file. The file is created, or emptied if it exists
+	 * @param path The file
+	 * @param isRNA Whether the strand is RNA instead of DNA
+	 * @return The strand
+	 * @throws IOException If the file cannot be opened
+	 */
+	public static OffHeapStrand create(Path path, boolean isRNA) throws IOException {
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new OffHeapStrand(channel, isRNA);
+
+	}
+
+	/**
+	 * Method to open a strand stored in a memory-mapped file by create(). More bases can be appended to it
+	 * @param path The file
+	 * @param length The number of bases in the strand
+	 * @param isRNA Whether the strand is RNA instead of DNA
+	 * @return The strand
+	 * @throws IOException If the file cannot be opened, or is too short for the length
+	 */
+	public static OffHeapStrand open(Path path, long length, boolean isRNA) throws IOException {
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		OffHeapStrand strand = new OffHeapStrand(channel, isRNA);
+		try {
+			if (channel.size() < wordsFor(length) * 8) throw new IOException("File " + path + " is too short for " + length + " bases.");
+			strand.ensureWords(wordsFor(length));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		strand.length = length;
+		return strand;
+
+	}
+
+	/**
+	 * Method to get the number of words needed to hold a number of bases
+	 * @param numBases The number of bases
+	 * @return The number of words
+	 */
+	static long wordsFor(long numBases) {
+
+		return (numBases + 31) >>> 5;
+
+	}
+
+	/**
+	 * Accessor method for the number of bases in the strand
+	 * @return The number of bases
+	 */
+	@Override
+	public long size() {
+
+		return length;
+
+	}
+
+	/**
+	 * Method to check whether this strand is RNA
+	 * @return true if it is RNA, false if it is DNA
+	 */
+	@Override
+	public boolean isRNA() {
+
+		return isRNA;
+
+	}
+
+	/**
+	 * Method to get the 2-bit code of the base at an index
+	 * @param i Index of the base
+	 * @return The code of the base (U/T = 0, C = 1, A = 2, G = 3)
+	 */
+	@Override
+	public int codeAt(long i) {
+
+		if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+		return (int) (wordAt(i >>> 5) >>> ((i & 31) << 1)) & 3;
+
+	}
+
+	/**
+	 * Method to copy part of the strand onto the heap
+	 * @param from Index of the first base to include
+	 * @param to Index after the last base to include. There can be at most Integer.MAX_VALUE bases from from
+	 * @return The packed strand with the bases from index from up to (not including) index to
+	 */
+	@Override
+	public PackedStrand slice(long from, long to) {
+
+		if (from < 0 || to > length || from > to || to - from > Integer.MAX_VALUE) {
+			throw new IndexOutOfBoundsException("Slice " + from + " to " + to + " out of bounds for length " + length);
+		}
+
+		int n = (int) (to - from);
+		long[] sliceWords = new long[PackedStrand.wordsFor(n)];
+		// Bit offset of the first base within its word
+		int shift = (int) (from & 31) << 1;
+		long firstWord = from >>> 5;
+		long numWords = wordsFor(length);
+
+		for (int w = 0; w < sliceWords.length; w++) {
+			// Take the low part from one word and the high part from the next, since the slice need not start on a word boundary
+			long low = wordAt(firstWord + w) >>> shift;
+			long high = (shift != 0 && firstWord + w + 1 < numWords) ? wordAt(firstWord + w + 1) << (64 - shift) : 0L;
+			sliceWords[w] = low | high;
+		}
+		// Set every bit past the last base to 0
+		int usedBits = (n & 31) << 1;
+		if (usedBits != 0) sliceWords[sliceWords.length - 1] &= (1L << usedBits) - 1;
+
+		return new PackedStrand(sliceWords, n, isRNA);
+
+	}
+
+	/**
+	 * Method to add one base to the end of the strand
+	 * @param code The 2-bit code of the base
+	 * @throws IOException If the strand is mapped and the file cannot be made longer
+	 */
+	public void append(int code) throws IOException {
+
+		ensureWords(wordsFor(length + 1));
+		long w = length >>> 5;
+		setWord(w, wordAt(w) | ((long) (code & 3) << ((length & 31) << 1)));
+		length++;
+
+	}
+
+	/**
+	 * Method to add the bases of a packed strand to the end of this strand.
+	 * If this strand's length is a multiple of 32, whole words are copied
+	 * @param bases The bases to add
+	 * @throws IOException If the strand is mapped and the file cannot be made longer
+	 */
+	public void append(PackedStrand bases) throws IOException {
+
+		int n = bases.length();
+		ensureWords(wordsFor(length + n));
+
+		if ((length & 31) == 0) {
+			long firstWord = length >>> 5;
+			for (int w = 0; w < PackedStrand.wordsFor(n); w++) {
+				setWord(firstWord + w, bases.wordAt(w));
+			}
+			length = length + n;
+		} else {
+			for (int i = 0; i < n; i++) append(bases.codeAt(i));
+		}
+
+	}
+
+	/**
+	 * Method to write the mRNA transcribed from this strand (the complementary strand as RNA) into another strand, 32 bases at a time
+	 * @param destination An empty strand to write the mRNA into
+	 * @throws IOException If the destination is mapped and its file cannot be made longer
+	 */
+	public void transcribeInto(OffHeapStrand destination) throws IOException {
+
+		checkEmpty(destination);
+		long numWords = wordsFor(length);
+		destination.ensureWords(numWords);
+
+		for (long w = 0; w < numWords; w++) {
+			destination.setWord(w, wordAt(w) ^ complementMask);
+		}
+		// Clear the bits past the last base again, since they were flipped too
+		int usedBits = (int) (length & 31) << 1;
+		if (usedBits != 0) destination.setWord(numWords - 1, destination.wordAt(numWords - 1) & ((1L << usedBits) - 1));
+		destination.length = length;
+
+	}
+
+	/**
+	 * Method to write this strand's bases in the opposite order into another strand
+	 * @param destination An empty strand to write the reversed bases into. It may be RNA even if this strand is DNA, or the other way
+	 * @throws IOException If the destination is mapped and its file cannot be made longer
+	 */
+	public void reverseInto(OffHeapStrand destination) throws IOException {
+
+		checkEmpty(destination);
+		destination.ensureWords(wordsFor(length));
+
+		for (long j = 0; j < length; j++) {
+			long i = length - 1 - j;
+			long w = j >>> 5;
+			destination.setWord(w, destination.wordAt(w) | ((long) codeAt(i) << ((j & 31) << 1)));
+		}
+		destination.length = length;
+
+	}
+
+	/**
+	 * Method to get the mRNA transcribed from this strand, stored in direct buffers
+	 * @return The complementary strand as RNA
+	 */
+	public OffHeapStrand transcribe() {
+
+		OffHeapStrand mRNA5to3 = allocate(true);
+		try {
+			transcribeInto(mRNA5to3);
+		} catch (IOException e) {
+			// Direct buffers are never written to a file
+			throw new IllegalStateException(e);
+		}
+		return mRNA5to3;
+
+	}
+
+	/**
+	 * Method to write out any changes to a mapped strand and close its file. A strand in direct buffers is freed once it is garbage collected
+	 * @throws IOException If the file cannot be written or closed
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (channel != null) {
+			channel.force(false);
+			channel.close();
+		}
+
+	}
+
+	/**
+	 * Method to get a word
+	 * @param w Index of the word
+	 * @return The word
+	 */
+	private long wordAt(long w) {
+
+		return chunks.get((int) (w >>> chunkShift)).get((int) (w & (chunkWords - 1)));
+
+	}
+
+	/**
+	 * Method to set a word
+	 * @param w Index of the word
+	 * @param word The new value of the word
+	 */
+	private void setWord(long w, long word) {
+
+		chunks.get((int) (w >>> chunkShift)).put((int) (w & (chunkWords - 1)), word);
+
+	}
+
+	/**
+	 * Method to get the number of words the chunks can hold
+	 * @return The number of words
+	 */
+	private long capacity() {
+
+		if (chunks.isEmpty()) return 0;
+		int last = chunks.size() - 1;
+		return ((long) last << chunkShift) + chunks.get(last).capacity();
+
+	}
+
+	/**
+	 * Method to grow the last chunk, or add chunks, until there are at least a given number of words.
+	 * The last chunk is at least doubled when it grows, so appending one base at a time copies each word only a few times
+	 * @param numWords The number of words needed
+	 * @throws IOException If the strand is mapped and the file cannot be made longer
+	 */
+	private void ensureWords(long numWords) throws IOException {
+
+		while (capacity() < numWords) {
+
+			int last = chunks.size() - 1;
+			if (last >= 0 && chunks.get(last).capacity() < chunkWords) {
+				long needed = numWords - ((long) last << chunkShift);
+				int newWords = (int) Math.min(chunkWords, Math.max(needed, 2L * chunks.get(last).capacity()));
+				chunks.set(last, newChunk(last, newWords, chunks.get(last)));
+			} else {
+				long needed = numWords - ((long) chunks.size() << chunkShift);
+				chunks.add(newChunk(chunks.size(), (int) Math.min(chunkWords, Math.max(needed, minChunkWords)), null));
+			}
+
+		}
+
+	}
+
+	/**
+	 * Method to make a chunk, or a larger copy of the last chunk
+	 * @param index The index of the chunk
+	 * @param numWords The number of words it holds, at most chunkWords
+	 * @param old The chunk it replaces, whose words are kept, or null for a new chunk
+	 * @return The chunk
+	 * @throws IOException If the strand is mapped and the file cannot be made longer
+	 */
+	private LongBuffer newChunk(int index, int numWords, LongBuffer old) throws IOException {
+
+		if (channel == null) {
+			LongBuffer words = ByteBuffer.allocateDirect(numWords * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			if (old != null) words.put(0, old, 0, old.capacity());
+			return words;
+		}
+
+		// Mapping past the end of the file makes it longer. A larger mapping of the same region already has the old chunk's words
+		return channel.map(FileChannel.MapMode.READ_WRITE, ((long) index << chunkShift) * 8, (long) numWords * 8)
+				.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+	}
+
+	/**
+	 * Method to check that a strand is empty before writing into it
+	 * @param destination The strand
+	 */
+	private static void checkEmpty(OffHeapStrand destination) {
+
+		if (destination.length != 0) throw new IllegalArgumentException("The destination strand must be empty.");
+
+	}
+
+	/**
+	 * String giving the length and storage of the strand. The bases are not included since there may be billions of them
+	 */
+	public String toString() {
+
+		return "OffHeapStrand(" + length + (isRNA ? " RNA" : " DNA") + " bases, " + (channel == null ? "direct" : "mapped") + ")";
+
+	}
+
+}
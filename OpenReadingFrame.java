@@ -0,0 +1,148 @@
+/**
+ * This class represents an open reading frame (ORF): a stretch of mRNA from a Start codon up to the first Stop codon in the same frame.
+ * It is found by an OrfFinder, in the mRNA transcribed from either the given DNA strand or the strand complementary to it.
+ * Objects of this class cannot be changed once created.
+ * @author Prakash
+ *
+ */
+public class OpenReadingFrame {
+
+	/**
+	 * The mRNA in which the ORF was found (a PackedStrand, or an OffHeapStrand for very long strands)
+	 */
+	private final Strand mRNA5to3;
+	/**
+	 * Whether the ORF is in the mRNA transcribed from the complementary strand instead of the given strand
+	 */
+	private final boolean isReverse;
+	/**
+	 * Index in the mRNA at which the Start codon occurs
+	 */
+	private final long iStartCodon;
+	/**
+	 * Index in the mRNA at which the Stop codon occurs
+	 */
+	private final long iStopCodon;
+
+	/**
+	 * Constructor to initialize an ORF
+	 * @param mRNA5to3 The mRNA in which the ORF was found
+	 * @param isReverse Whether the mRNA is transcribed from the complementary strand
+	 * @param iStartCodon Index of the Start codon in the mRNA
+	 * @param iStopCodon Index of the Stop codon in the mRNA
+	 */
+	public OpenReadingFrame(Strand mRNA5to3, boolean isReverse, long iStartCodon, long iStopCodon) {
+
+		this.mRNA5to3 = mRNA5to3;
+		this.isReverse = isReverse;
+		this.iStartCodon = iStartCodon;
+		this.iStopCodon = iStopCodon;
+
+	}
+
+	/**
+	 * Accessor method for the mRNA in which the ORF was found
+	 * @return The mRNA (read 5' to 3')
+	 */
+	public Strand getMRNA() {
+
+		return mRNA5to3;
+
+	}
+
+	/**
+	 * Method to check which strand the ORF is on
+	 * @return true if the mRNA is transcribed from the complementary strand, false if it is transcribed from the given strand
+	 */
+	public boolean isReverse() {
+
+		return isReverse;
+
+	}
+
+	/**
+	 * Accessor method for the frame of the ORF
+	 * @return The index of the Start codon modulo 3 (0, 1 or 2)
+	 */
+	public int getFrame() {
+
+		return (int) (iStartCodon % 3);
+
+	}
+
+	/**
+	 * Accessor method for the index of the Start codon
+	 * @return Index of the Start codon in the mRNA
+	 */
+	public long getStartCodonIndex() {
+
+		return iStartCodon;
+
+	}
+
+	/**
+	 * Accessor method for the index of the Stop codon
+	 * @return Index of the Stop codon in the mRNA
+	 */
+	public long getStopCodonIndex() {
+
+		return iStopCodon;
+
+	}
+
+	/**
+	 * Method to get the number of codons that get translated, from the Start codon up to (not including) the Stop codon
+	 * @return The number of amino acids the ORF codes for
+	 */
+	public int getNumCodons() {
+
+		return (int) ((iStopCodon - iStartCodon) / 3);
+
+	}
+
+	/**
+	 * Method to translate the ORF
+	 * @param engine The engine to translate with
+	 * @return The amino acid sequence the ORF codes for
+	 */
+	public AminoAcidSequence translate(TranslationEngine engine) {
+
+		return engine.translate(mRNA5to3, iStartCodon, iStopCodon);
+
+	}
+
+	/**
+	 * Method to translate the ORF and count its codons at the same time
+	 * @param engine The engine to translate with
+	 * @param codonUsage The count of each codon, indexed by its position in the chart used by TRNAList (64 counts), which the codons
+	 * from the Start codon to the Stop codon (both included) are added to. KmerCounts.fromCodonUsage() turns it into codon usage
+	 * @return The amino acid sequence the ORF codes for
+	 */
+	public AminoAcidSequence translate(TranslationEngine engine, long[] codonUsage) {
+
+		return engine.translate(mRNA5to3, iStartCodon, iStopCodon, codonUsage);
+
+	}
+
+	/**
+	 * Method to translate the ORF into a packed sequence, taking one byte per amino acid, e.g. when many proteins are kept in memory
+	 * @param engine The engine to translate with
+	 * @return The amino acid sequence the ORF codes for
+	 */
+	public PackedAminoAcidSequence translatePacked(TranslationEngine engine) {
+
+		return engine.translatePacked(mRNA5to3, iStartCodon, iStopCodon);
+
+	}
+
+	/**
+	 * String representation of the ORF, giving its strand, frame and position
+	 * @return String representation of the ORF
+	 */
+	public String toString() {
+
+		return "ORF(" + (isReverse ? '-' : '+') + getFrame() + ' ' + iStartCodon + ".." + (iStopCodon + 3) + ')';
+
+	}
+
+}
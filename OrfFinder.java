@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An object of this class finds every open reading frame (ORF) in a DNA strand: in all three frames of the mRNA transcribed from the
+ * strand, and in all three frames of the mRNA transcribed from the complementary strand (which is the given strand read backwards).
+ *
+ * Where Main and TranslationEngine translate only from the first Start codon, this finds one ORF for every Stop codon that has a Start
+ * codon in frame before it, beginning at the first Start codon after the previous Stop codon in that frame. ORFs with no Stop codon before
+ * the end of the mRNA are not included, and neither are ORFs with fewer codons than the minimum given.
+ * The Start and Stop codons are those of the genetic code given, or of the standard code.
+ *
+ * The mRNA is split into chunks that are scanned in parallel in a ForkJoinPool. Each chunk is summarized by, for each frame, its first
+ * Stop codon, the first Start codon before that, the first Start codon after its last Stop codon, and the ORFs entirely inside it.
+ * Summaries of neighbouring chunks are then combined, joining a Start codon left open at the end of one chunk with the first Stop codon of
+ * a later chunk, so ORFs crossing chunk boundaries are found the same as any other.
+ * @author Prakash
+ *
+ */
+public class OrfFinder {
+
+	/**
+	 * The most bases scanned by one task before it is split into two
+	 */
+	private static final int chunkSize = 1 << 16;
+
+	/**
+	 * The fewest codons (from the Start codon up to, not including, the Stop codon) an ORF must have to be included
+	 */
+	private final int minCodons;
+	/**
+	 * The scanner finding the Start and Stop codons of the genetic code in each part of an mRNA
+	 */
+	private final CodonScanner scanner;
+	/**
+	 * The pool the chunks are scanned in
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor to create an ORF finder for the standard genetic code that scans in the common ForkJoinPool
+	 * @param minCodons The fewest codons an ORF must have to be included
+	 */
+	public OrfFinder(int minCodons) {
+
+		this(minCodons, GeneticCode.standard, ForkJoinPool.commonPool());
+
+	}
+
+	/**
+	 * Constructor to create an ORF finder for the standard genetic code that scans in a given pool
+	 * @param minCodons The fewest codons an ORF must have to be included
+	 * @param pool The pool to scan in
+	 */
+	public OrfFinder(int minCodons, ForkJoinPool pool) {
+
+		this(minCodons, GeneticCode.standard, pool);
+
+	}
+
+	/**
+	 * Constructor to create an ORF finder for a given genetic code that scans in a given pool
+	 * @param minCodons The fewest codons an ORF must have to be included
+	 * @param geneticCode The genetic code whose Start and Stop codons are looked for
+	 * @param pool The pool to scan in
+	 */
+	public OrfFinder(int minCodons, GeneticCode geneticCode, ForkJoinPool pool) {
+
+		this.minCodons = minCodons;
+		this.scanner = new CodonScanner(geneticCode);
+		this.pool = pool;
+
+	}
+
+	/**
+	 * Method to find every ORF in all six reading frames of a DNA strand
+	 * @param dNA3to5 String representing the DNA strand, with only A,C,T and G
+	 * @return The ORFs, those from the given strand first, each group ordered by the index of the Start codon
+	 */
+	public List<OpenReadingFrame> findAll(String dNA3to5) {
+
+		return findAll(PackedStrand.fromString(dNA3to5));
+
+	}
+
+	/**
+	 * Method to find every ORF in all six reading frames of a packed DNA strand
+	 * @param dNA3to5 The packed DNA strand
+	 * @return The ORFs, those from the given strand first, each group ordered by the index of the Start codon
+	 */
+	public List<OpenReadingFrame> findAll(PackedStrand dNA3to5) {
+
+		// The mRNA of the given strand is its complement. The mRNA of the complementary strand is the complement of that complement
+		// (i.e. the given strand) read in the opposite direction
+		ScanTask forward = new ScanTask(dNA3to5.transcribe(), false, 0, dNA3to5.length());
+		ScanTask reverse = new ScanTask(dNA3to5.reverse().toRNA(), true, 0, dNA3to5.length());
+
+		// Scan both strands at the same time
+		pool.execute(reverse);
+		List<OpenReadingFrame> orfs = pool.invoke(forward).finish();
+		orfs.addAll(reverse.join().finish());
+
+		return orfs;
+
+	}
+
+	/**
+	 * Method to find every ORF in all six reading frames of a DNA strand stored off the heap, which may be longer than
+	 * Integer.MAX_VALUE bases. The two mRNAs scanned are stored in direct buffers, and the ORFs found refer to them
+	 * @param dNA3to5 The DNA strand stored off the heap
+	 * @return The ORFs, those from the given strand first, each group ordered by the index of the Start codon
+	 */
+	public List<OpenReadingFrame> findAll(OffHeapStrand dNA3to5) {
+
+		OffHeapStrand reverseMRNA = OffHeapStrand.allocate(true);
+		try {
+			dNA3to5.reverseInto(reverseMRNA);
+		} catch (IOException e) {
+			// Direct buffers are never written to a file
+			throw new IllegalStateException(e);
+		}
+
+		ScanTask forward = new ScanTask(dNA3to5.transcribe(), false, 0, dNA3to5.size());
+		ScanTask reverse = new ScanTask(reverseMRNA, true, 0, dNA3to5.size());
+
+		pool.execute(reverse);
+		List<OpenReadingFrame> orfs = pool.invoke(forward).finish();
+		orfs.addAll(reverse.join().finish());
+
+		return orfs;
+
+	}
+
+	/**
+	 * Method to find every ORF in the three reading frames of one mRNA
+	 * @param mRNA5to3 The mRNA, packed on or off the heap
+	 * @param isReverse Whether the mRNA is transcribed from the complementary strand, recorded in each ORF found
+	 * @return The ORFs, ordered by the index of the Start codon
+	 */
+	public List<OpenReadingFrame> findAll(Strand mRNA5to3, boolean isReverse) {
+
+		return pool.invoke(new ScanTask(mRNA5to3, isReverse, 0, mRNA5to3.size())).finish();
+
+	}
+
+	/**
+	 * A task that scans the codons starting in one part of an mRNA, splitting itself in two while that part is longer than chunkSize
+	 */
+	private class ScanTask extends RecursiveTask<Summary> {
+
+		/**
+		 * Version of the serialized form, which ForkJoinTask requires even though tasks are never serialized
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The mRNA being scanned
+		 */
+		private final Strand mRNA5to3;
+		/**
+		 * Whether the mRNA is transcribed from the complementary strand
+		 */
+		private final boolean isReverse;
+		/**
+		 * Index of the first codon to scan
+		 */
+		private final long from;
+		/**
+		 * Index after the last codon to scan
+		 */
+		private final long to;
+
+		/**
+		 * Constructor to create a task scanning codons starting from index from up to (not including) index to
+		 * @param mRNA5to3 The mRNA being scanned
+		 * @param isReverse Whether the mRNA is transcribed from the complementary strand
+		 * @param from Index of the first codon to scan
+		 * @param to Index after the last codon to scan
+		 */
+		ScanTask(Strand mRNA5to3, boolean isReverse, long from, long to) {
+
+			this.mRNA5to3 = mRNA5to3;
+			this.isReverse = isReverse;
+			this.from = from;
+			this.to = to;
+
+		}
+
+		/**
+		 * Method to scan the part of the mRNA, or split it and combine the summaries of its halves
+		 * @return The summary of this part of the mRNA
+		 */
+		@Override
+		protected Summary compute() {
+
+			if (to - from > chunkSize) {
+
+				long middle = from + (to - from) / 2;
+				ScanTask left = new ScanTask(mRNA5to3, isReverse, from, middle);
+				ScanTask right = new ScanTask(mRNA5to3, isReverse, middle, to);
+				right.fork();
+				Summary leftSummary = left.compute();
+				return leftSummary.combine(right.join());
+
+			}
+
+			Summary summary = new Summary(mRNA5to3, isReverse);
+			scanner.scan(mRNA5to3, from, to, summary);
+			return summary;
+
+		}
+
+	}
+
+	/**
+	 * The summary of the Start and Stop codons in one part of an mRNA, for each of the three frames
+	 */
+	private class Summary implements CodonListener {
+
+		/**
+		 * The mRNA the part is in
+		 */
+		private final Strand mRNA5to3;
+		/**
+		 * Whether the mRNA is transcribed from the complementary strand
+		 */
+		private final boolean isReverse;
+		/**
+		 * For each frame, index of the first Stop codon in the part, or -1 if there is none
+		 */
+		private final long[] firstStop = {-1, -1, -1};
+		/**
+		 * For each frame, index of the first Start codon before the first Stop codon (or anywhere in the part if there is no Stop codon), or -1
+		 */
+		private final long[] leadingStart = {-1, -1, -1};
+		/**
+		 * For each frame, index of the first Start codon after the last Stop codon, or -1. Only used when there is a Stop codon
+		 */
+		private final long[] trailingStart = {-1, -1, -1};
+		/**
+		 * The ORFs whose Start codon is after the first Stop codon of its frame, and whose Stop codon is in this part
+		 */
+		private final List<OpenReadingFrame> orfs = new ArrayList<OpenReadingFrame>();
+
+		/**
+		 * Constructor to create the summary of a part with no codons yet
+		 * @param mRNA5to3 The mRNA the part is in
+		 * @param isReverse Whether the mRNA is transcribed from the complementary strand
+		 */
+		Summary(Strand mRNA5to3, boolean isReverse) {
+
+			this.mRNA5to3 = mRNA5to3;
+			this.isReverse = isReverse;
+
+		}
+
+		/**
+		 * Method to record a Start codon, scanned in order
+		 * @param frame The frame of the codon
+		 * @param i Index of the codon
+		 */
+		@Override
+		public void startCodon(int frame, long i) {
+
+			if (firstStop[frame] == -1) {
+				if (leadingStart[frame] == -1) leadingStart[frame] = i;
+			} else if (trailingStart[frame] == -1) {
+				trailingStart[frame] = i;
+			}
+
+		}
+
+		/**
+		 * Method to record a Stop codon, scanned in order
+		 * @param frame The frame of the codon
+		 * @param i Index of the codon
+		 */
+		@Override
+		public void stopCodon(int frame, long i) {
+
+			if (firstStop[frame] == -1) {
+				firstStop[frame] = i;
+			} else {
+				addORF(trailingStart[frame], i);
+				trailingStart[frame] = -1;
+			}
+
+		}
+
+		/**
+		 * Method to combine this summary with the summary of the part right after it
+		 * @param right The summary of the part right after this one
+		 * @return This summary, changed to be the summary of both parts
+		 */
+		Summary combine(Summary right) {
+
+			for (int f = 0; f < 3; f++) {
+
+				if (firstStop[f] == -1) {
+
+					// No Stop codon on the left, so a Start codon on the left is the leading one of both
+					if (leadingStart[f] == -1) leadingStart[f] = right.leadingStart[f];
+					firstStop[f] = right.firstStop[f];
+					trailingStart[f] = right.trailingStart[f];
+
+				} else {
+
+					// A Start codon left open at the end of the left part (or else the right part's leading one) ends at the right part's first Stop codon
+					long openStart = (trailingStart[f] != -1) ? trailingStart[f] : right.leadingStart[f];
+					if (right.firstStop[f] == -1) {
+						trailingStart[f] = openStart;
+					} else {
+						addORF(openStart, right.firstStop[f]);
+						trailingStart[f] = right.trailingStart[f];
+					}
+
+				}
+
+			}
+
+			orfs.addAll(right.orfs);
+			return this;
+
+		}
+
+		/**
+		 * Method to add an ORF if there is a Start codon for it and it is long enough
+		 * @param iStart Index of the Start codon, or -1 if there is none
+		 * @param iStop Index of the Stop codon
+		 */
+		private void addORF(long iStart, long iStop) {
+
+			if (iStart != -1 && (iStop - iStart) / 3 >= minCodons) {
+				orfs.add(new OpenReadingFrame(mRNA5to3, isReverse, iStart, iStop));
+			}
+
+		}
+
+		/**
+		 * Method to get the ORFs once this is the summary of the whole mRNA.
+		 * The leading Start codon of each frame is then the first one in the mRNA, so it makes an ORF with the first Stop codon
+		 * @return The ORFs, ordered by the index of the Start codon
+		 */
+		List<OpenReadingFrame> finish() {
+
+			for (int f = 0; f < 3; f++) {
+				if (firstStop[f] != -1) addORF(leadingStart[f], firstStop[f]);
+			}
+
+			orfs.sort(Comparator.comparingLong(OpenReadingFrame::getStartCodonIndex));
+			return orfs;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,386 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class represents the sequence of an amino acid chain with each amino acid stored as one byte: its position in AminoAcidList
+ * (0 to 19), or 20 for a Stop. Where an AminoAcidSequence takes a DoublyLinkedListNode (about 40 bytes) for each amino acid, this takes
+ * one byte in a growable array, so millions of translated proteins can be held in memory and read in order without following pointers.
+ *
+ * Amino acids can only be added to the end, like in translation, which is O(1) (the array doubles in length whenever it is full).
+ * Any amino acid can be read by its index, and parts of the sequence can be copied with slice().
+ * The identifiers of each amino acid are looked up in AminoAcidList when needed, so the three strings representing the sequence are only
+ * made when asked for. A Stop is shown as '*', "Ter" and "Stop".
+ * As a CharSequence, the sequence reads as its one-letter codes.
+ * An object of this class should only be changed by one thread, but once it is complete it can be read by many.
+ * @author Prakash
+ *
+ */
+public class PackedAminoAcidSequence implements CharSequence {
+
+	/**
+	 * The value stored for a Stop, after the positions of the 20 amino acids in AminoAcidList
+	 */
+	public static final byte stop = 20;
+	/**
+	 * The amino acids the stored positions are looked up in
+	 */
+	private static final AminoAcidList aAList = AminoAcidList.getShared();
+	/**
+	 * The one-letter code of each stored position, with '*' for a Stop
+	 */
+	private static final char[] oneLetters = new char[stop + 1];
+	/**
+	 * The number of amino acids a new sequence has room for before its array grows
+	 */
+	private static final int initialCapacity = 16;
+
+	static {
+
+		for (int position = 0; position < stop; position++) oneLetters[position] = aAList.getAA(position).getOneLetter();
+		oneLetters[stop] = '*';
+
+	}
+
+	/**
+	 * The position in AminoAcidList of each amino acid in the sequence (or stop), in the first length bytes
+	 */
+	private byte[] residues;
+	/**
+	 * The number of amino acids in the sequence
+	 */
+	private int length;
+
+	/**
+	 * Constructor to create an empty sequence
+	 */
+	public PackedAminoAcidSequence() {
+
+		this(initialCapacity);
+
+	}
+
+	/**
+	 * Constructor to create an empty sequence with room for a number of amino acids before its array has to grow
+	 * @param capacity The number of amino acids to make room for, e.g. the number of codons being translated
+	 */
+	public PackedAminoAcidSequence(int capacity) {
+
+		residues = new byte[Math.max(capacity, 1)];
+		length = 0;
+
+	}
+
+	/**
+	 * Constructor to wrap positions that have been made
+	 * @param residues The position of each amino acid. It is not copied
+	 * @param length The number of amino acids
+	 */
+	private PackedAminoAcidSequence(byte[] residues, int length) {
+
+		this.residues = residues;
+		this.length = length;
+
+	}
+
+	/**
+	 * Method to pack the amino acids of a linked sequence
+	 * @param aASeq The linked sequence
+	 * @return The packed sequence
+	 */
+	public static PackedAminoAcidSequence fromSequence(AminoAcidSequence aASeq) {
+
+		PackedAminoAcidSequence packed = new PackedAminoAcidSequence();
+		for (DoublyLinkedListNode<AminoAcid> nodeCurr = aASeq.getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+			packed.append(nodeCurr.getData());
+		}
+		return packed;
+
+	}
+
+	/**
+	 * Method to pack a string of one-letter codes, with '*' for a Stop
+	 * @param codes The one-letter codes
+	 * @return The packed sequence
+	 * @throws IllegalArgumentException If a character is not the one-letter code of an amino acid or '*'
+	 */
+	public static PackedAminoAcidSequence fromOneLetter(CharSequence codes) {
+
+		PackedAminoAcidSequence packed = new PackedAminoAcidSequence(codes.length());
+		for (int i = 0; i < codes.length(); i++) {
+			char oneLetter = codes.charAt(i);
+			int position = (oneLetter == '*') ? stop : aAList.indexOf(oneLetter);
+			if (position < 0) throw new IllegalArgumentException("Invalid amino acid '" + oneLetter + "' at index " + i + '.');
+			packed.appendPosition(position);
+		}
+		return packed;
+
+	}
+
+	/**
+	 * Method to get the position in AminoAcidList that an amino acid is stored as.
+	 * It is found by the one-letter code, so amino acids from any AminoAcidList (e.g. one made for a GeneticCode) can be added
+	 * @param aminoAcid The amino acid, or null for a Stop
+	 * @return The position of the amino acid, or stop
+	 * @throws IllegalArgumentException If the amino acid's one-letter code is not in AminoAcidList
+	 */
+	public static byte positionOf(AminoAcid aminoAcid) {
+
+		if (aminoAcid == null) return stop;
+		int position = aAList.indexOf(aminoAcid.getOneLetter());
+		if (position < 0) throw new IllegalArgumentException("Unknown amino acid " + aminoAcid + '.');
+		return (byte) position;
+
+	}
+
+	/**
+	 * Method to add an amino acid to the end of the sequence
+	 * @param aminoAcid The amino acid, or null for a Stop
+	 */
+	public void append(AminoAcid aminoAcid) {
+
+		appendPosition(positionOf(aminoAcid));
+
+	}
+
+	/**
+	 * Method to add an amino acid to the end of the sequence using its position in AminoAcidList, doubling the array if it is full
+	 * @param position The position of the amino acid (0 to 19), or stop
+	 */
+	public void appendPosition(int position) {
+
+		if (position < 0 || position > stop) throw new IllegalArgumentException("Invalid amino acid position " + position + '.');
+		if (length == residues.length) residues = Arrays.copyOf(residues, residues.length * 2);
+		residues[length] = (byte) position;
+		length++;
+
+	}
+
+	/**
+	 * Method to add the amino acids of another packed sequence to the end of this one
+	 * @param other The other sequence
+	 */
+	public void appendAll(PackedAminoAcidSequence other) {
+
+		if (length + other.length > residues.length) residues = Arrays.copyOf(residues, Math.max(residues.length * 2, length + other.length));
+		System.arraycopy(other.residues, 0, residues, length, other.length);
+		length = length + other.length;
+
+	}
+
+	/**
+	 * Accessor method for the number of amino acids in the sequence
+	 * @return The number of amino acids (a Stop counts as one)
+	 */
+	@Override
+	public int length() {
+
+		return length;
+
+	}
+
+	/**
+	 * Method to get the position in AminoAcidList of the amino acid at an index
+	 * @param i Index of the amino acid
+	 * @return The position of the amino acid (0 to 19), or stop
+	 */
+	public int positionAt(int i) {
+
+		if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+		return residues[i];
+
+	}
+
+	/**
+	 * Method to get the amino acid at an index
+	 * @param i Index of the amino acid
+	 * @return The amino acid, or null for a Stop
+	 */
+	public AminoAcid get(int i) {
+
+		int position = positionAt(i);
+		return (position == stop) ? null : aAList.getAA(position);
+
+	}
+
+	/**
+	 * Method to get the one-letter code of the amino acid at an index
+	 * @param i Index of the amino acid
+	 * @return The one-letter code, or '*' for a Stop
+	 */
+	@Override
+	public char charAt(int i) {
+
+		return oneLetters[positionAt(i)];
+
+	}
+
+	/**
+	 * Method to get part of the sequence as a new sequence. The positions are copied, so changing either does not change the other
+	 * @param from Index of the first amino acid to include
+	 * @param to Index after the last amino acid to include
+	 * @return The sequence with the amino acids from index from up to (not including) index to
+	 */
+	public PackedAminoAcidSequence slice(int from, int to) {
+
+		if (from < 0 || to > length || from > to) {
+			throw new IndexOutOfBoundsException("Slice " + from + " to " + to + " out of bounds for length " + length);
+		}
+		return new PackedAminoAcidSequence(Arrays.copyOfRange(residues, from, Math.max(to, from + 1)), to - from);
+
+	}
+
+	/**
+	 * Method to get part of the sequence, as required by CharSequence
+	 * @param from Index of the first amino acid to include
+	 * @param to Index after the last amino acid to include
+	 * @return The sequence with the amino acids from index from up to (not including) index to
+	 */
+	@Override
+	public PackedAminoAcidSequence subSequence(int from, int to) {
+
+		return slice(from, to);
+
+	}
+
+	/**
+	 * Method to make a linked sequence with the same amino acids, e.g. to show it the same way as a sequence from TranslationEngine.
+	 * A linked sequence has no Stops, so translation must have ended at one; a Stop here throws an exception
+	 * @return The linked sequence
+	 * @throws IllegalStateException If the sequence has a Stop
+	 */
+	public AminoAcidSequence toSequence() {
+
+		AminoAcidSequence aASeq = new AminoAcidSequence();
+		for (int i = 0; i < length; i++) {
+			if (residues[i] == stop) throw new IllegalStateException("A linked sequence cannot hold the Stop at index " + i + '.');
+			aASeq.insert(new DoublyLinkedListNode<AminoAcid>(aAList.getAA(residues[i])), aASeq.getTail());
+		}
+		return aASeq;
+
+	}
+
+	/**
+	 * Method to get the string of one-letter codes of the amino acids in the sequence
+	 * @return String of one-letter codes
+	 */
+	public String getStrOneLetter() {
+
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) chars[i] = oneLetters[residues[i]];
+		return new String(chars);
+
+	}
+
+	/**
+	 * Method to get the string of three-letter codes of the amino acids in the sequence, separated by '-'
+	 * @return String of three-letter codes
+	 */
+	public String getStrThreeLetter() {
+
+		StringBuilder builder = new StringBuilder(length * 4);
+		try {
+			writeThreeLetter(builder);
+		} catch (IOException e) {
+			// A StringBuilder never throws one
+			throw new IllegalStateException(e);
+		}
+		return builder.toString();
+
+	}
+
+	/**
+	 * Method to get the string of full names of the amino acids in the sequence, separated by '-'
+	 * @return String of full names
+	 */
+	public String getStrFullName() {
+
+		StringBuilder builder = new StringBuilder(length * 10);
+		try {
+			writeFullName(builder);
+		} catch (IOException e) {
+			// A StringBuilder never throws one
+			throw new IllegalStateException(e);
+		}
+		return builder.toString();
+
+	}
+
+	/**
+	 * Method to write the one-letter codes of the sequence, without making a string of them all
+	 * @param out Where to write the codes
+	 * @throws IOException If writing fails
+	 */
+	public void writeOneLetter(Appendable out) throws IOException {
+
+		for (int i = 0; i < length; i++) out.append(oneLetters[residues[i]]);
+
+	}
+
+	/**
+	 * Method to write the three-letter codes of the sequence, separated by '-'
+	 * @param out Where to write the codes
+	 * @throws IOException If writing fails
+	 */
+	public void writeThreeLetter(Appendable out) throws IOException {
+
+		for (int i = 0; i < length; i++) {
+			if (i > 0) out.append('-');
+			out.append(residues[i] == stop ? "Ter" : aAList.getAA(residues[i]).getThreeLetter());
+		}
+
+	}
+
+	/**
+	 * Method to write the full names of the sequence, separated by '-'
+	 * @param out Where to write the names
+	 * @throws IOException If writing fails
+	 */
+	public void writeFullName(Appendable out) throws IOException {
+
+		for (int i = 0; i < length; i++) {
+			if (i > 0) out.append('-');
+			out.append(residues[i] == stop ? "Stop" : aAList.getAA(residues[i]).getFullName());
+		}
+
+	}
+
+	/**
+	 * Method to check whether another object is a packed sequence with the same amino acids
+	 * @param other The object to compare with
+	 * @return true if they are equal, false if they are not
+	 */
+	@Override
+	public boolean equals(Object other) {
+
+		if (this == other) return true;
+		if (!(other instanceof PackedAminoAcidSequence)) return false;
+		PackedAminoAcidSequence sequence = (PackedAminoAcidSequence) other;
+		return Arrays.equals(residues, 0, length, sequence.residues, 0, sequence.length);
+
+	}
+
+	/**
+	 * Method to get a hash code consistent with equals()
+	 * @return The hash code
+	 */
+	@Override
+	public int hashCode() {
+
+		int hash = 1;
+		for (int i = 0; i < length; i++) hash = 31 * hash + residues[i];
+		return hash;
+
+	}
+
+	/**
+	 * Method to get the one-letter codes of the sequence
+	 * @return String of one-letter codes
+	 */
+	@Override
+	public String toString() {
+
+		return getStrOneLetter();
+
+	}
+
+}
@@ -0,0 +1,442 @@
+/**
+ * This class represents a DNA or RNA strand with each base packed into 2 bits, so 32 bases are stored in each long.
+ * This takes an eighth of the memory of a String with the same bases, which matters for very long strands.
+ *
+ * The bases are encoded in the same order as the chart of codons used by TRNAList: U (or T in DNA) = 0, C = 1, A = 2, G = 3.
+ * With this encoding:
+ * -The complementary base is found by flipping the higher bit (U/T <-> A, C <-> G)
+ * -The 6-bit number made from the three bases of a codon is the codon's position in that chart
+ *
+ * Objects of this class cannot be changed once created. Operations such as complement() and slice() return new strands.
+ * As a Strand, it can be read the same way as strands stored off the heap (see OffHeapStrand).
+ * @author Prakash
+ *
+ */
+public class PackedStrand implements CharSequence, Strand {
+
+	/**
+	 * The letters representing the bases of DNA, indexed by their 2-bit code
+	 */
+	private static final String basesDNA = "TCAG";
+	/**
+	 * The letters representing the bases of RNA, indexed by their 2-bit code
+	 */
+	private static final String basesRNA = "UCAG";
+	/**
+	 * A long with every 2-bit base set to binary 10. XORing a word with this gives the complement of all 32 bases in it
+	 */
+	private static final long complementMask = 0xAAAAAAAAAAAAAAAAL;
+
+	/**
+	 * The words in which the bases are packed. Base i is in word i/32, at bits 2*(i%32) and 2*(i%32)+1
+	 */
+	private final long[] words;
+	/**
+	 * The number of bases in the strand
+	 */
+	private final int length;
+	/**
+	 * Whether this strand is RNA (printed with U) instead of DNA (printed with T)
+	 */
+	private final boolean isRNA;
+
+	/**
+	 * Constructor to wrap already packed words. Any bits past the last base must be 0
+	 * @param words The words in which the bases are packed
+	 * @param length The number of bases in the strand
+	 * @param isRNA Whether the strand is RNA instead of DNA
+	 */
+	PackedStrand(long[] words, int length, boolean isRNA) {
+
+		this.words = words;
+		this.length = length;
+		this.isRNA = isRNA;
+
+	}
+
+	/**
+	 * Method to pack a string of bases into a strand
+	 * @param bases String with only A,C,G and T (for DNA) or A,C,G and U (for RNA)
+	 * @return The packed strand. It is RNA if the string had any U in it and DNA otherwise
+	 * @throws IllegalArgumentException If the string has any other character, or has both T and U
+	 */
+	public static PackedStrand fromString(CharSequence bases) {
+
+		int n = bases.length();
+		long[] words = new long[wordsFor(n)];
+		// Keep track of whether any T or U was seen, so the type of strand is known
+		boolean seenT = false;
+		boolean seenU = false;
+
+		for (int i = 0; i < n; i++) {
+
+			char base = bases.charAt(i);
+			int code = encode(base);
+			if (code < 0) {
+				throw new IllegalArgumentException("Invalid base '" + base + "' at index " + i + '.');
+			}
+			if (base == 'T') seenT = true;
+			if (base == 'U') seenU = true;
+
+			words[i >>> 5] |= (long) code << ((i & 31) << 1);
+
+		}
+
+		if (seenT && seenU) {
+			throw new IllegalArgumentException("A strand cannot have both T and U.");
+		}
+
+		return new PackedStrand(words, n, seenU);
+
+	}
+
+	/**
+	 * Method to get the 2-bit code of a base
+	 * @param base The letter of the base (A, C, G, T or U)
+	 * @return The code of the base, or -1 if it is not a base
+	 */
+	public static int encode(char base) {
+
+		switch (base) {
+			case 'T':
+			case 'U':
+				return 0;
+			case 'C':
+				return 1;
+			case 'A':
+				return 2;
+			case 'G':
+				return 3;
+			default:
+				return -1;
+		}
+
+	}
+
+	/**
+	 * Method to get the number of words needed to hold a number of bases
+	 * @param numBases The number of bases
+	 * @return The number of longs needed
+	 */
+	static int wordsFor(int numBases) {
+
+		return (int) (((long) numBases + 31) >>> 5);
+
+	}
+
+	/**
+	 * Accessor method for the number of bases in the strand
+	 * @return The number of bases
+	 */
+	@Override
+	public int length() {
+
+		return length;
+
+	}
+
+	/**
+	 * Accessor method for the number of bases in the strand, as a Strand
+	 * @return The number of bases
+	 */
+	@Override
+	public long size() {
+
+		return length;
+
+	}
+
+	/**
+	 * Method to check whether this strand is RNA
+	 * @return true if it is RNA, false if it is DNA
+	 */
+	@Override
+	public boolean isRNA() {
+
+		return isRNA;
+
+	}
+
+	/**
+	 * Method to get the 2-bit code of the base at an index
+	 * @param i Index of the base
+	 * @return The code of the base (U/T = 0, C = 1, A = 2, G = 3)
+	 */
+	public int codeAt(int i) {
+
+		if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+		return (int) (words[i >>> 5] >>> ((i & 31) << 1)) & 3;
+
+	}
+
+	/**
+	 * Method to get the 2-bit code of the base at an index given as a long, as a Strand
+	 * @param i Index of the base
+	 * @return The code of the base (U/T = 0, C = 1, A = 2, G = 3)
+	 */
+	@Override
+	public int codeAt(long i) {
+
+		if (i < 0 || i >= length) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+		return codeAt((int) i);
+
+	}
+
+	/**
+	 * Method to get the letter of the base at an index
+	 * @param i Index of the base
+	 * @return The letter of the base
+	 */
+	@Override
+	public char charAt(int i) {
+
+		return (isRNA ? basesRNA : basesDNA).charAt(codeAt(i));
+
+	}
+
+	/**
+	 * Method to get the codon starting at an index, as its position in the codon chart (0 to 63) used by TRNAList.
+	 * The first base of the codon is in the highest 2 bits
+	 * @param i Index of the first base of the codon
+	 * @return The 6-bit number of the codon
+	 */
+	public int codonAt(int i) {
+
+		if (i < 0 || i + 3 > length) throw new IndexOutOfBoundsException("Codon at " + i + " out of bounds for length " + length);
+		return (codeAt(i) << 4) | (codeAt(i + 1) << 2) | codeAt(i + 2);
+
+	}
+
+	/**
+	 * Method to get the codon starting at an index given as a long, as a Strand
+	 * @param i Index of the first base of the codon
+	 * @return The 6-bit number of the codon
+	 */
+	@Override
+	public int codonAt(long i) {
+
+		if (i < 0 || i + 3 > length) throw new IndexOutOfBoundsException("Codon at " + i + " out of bounds for length " + length);
+		return codonAt((int) i);
+
+	}
+
+	/**
+	 * Method to get one of the words the bases are packed in, e.g. to copy whole words into another strand
+	 * @param w Index of the word. Base i is in word i/32
+	 * @return The word
+	 */
+	long wordAt(int w) {
+
+		return words[w];
+
+	}
+
+	/**
+	 * Method to get the strand complementary to this one, of the same type (DNA or RNA).
+	 * Whole words of 32 bases are complemented at once
+	 * @return The complementary strand
+	 */
+	public PackedStrand complement() {
+
+		return complement(isRNA);
+
+	}
+
+	/**
+	 * Method to get the mRNA that would be transcribed from this strand, i.e. the complementary strand as RNA
+	 * @return The complementary RNA strand
+	 */
+	public PackedStrand transcribe() {
+
+		return complement(true);
+
+	}
+
+	/**
+	 * Method to get the complementary strand of a given type
+	 * @param asRNA Whether the complementary strand should be RNA
+	 * @return The complementary strand
+	 */
+	private PackedStrand complement(boolean asRNA) {
+
+		long[] complementWords = new long[words.length];
+		for (int w = 0; w < words.length; w++) {
+			complementWords[w] = words[w] ^ complementMask;
+		}
+		// Clear the bits past the last base again, since they were flipped too
+		clearTail(complementWords, length);
+
+		return new PackedStrand(complementWords, length, asRNA);
+
+	}
+
+	/**
+	 * Method to get the strand with its bases in the opposite order, of the same type (DNA or RNA)
+	 * @return The reversed strand
+	 */
+	public PackedStrand reverse() {
+
+		long[] reverseWords = new long[words.length];
+		for (int i = 0; i < length; i++) {
+			int j = length - 1 - i;
+			reverseWords[j >>> 5] |= (long) codeAt(i) << ((j & 31) << 1);
+		}
+
+		return new PackedStrand(reverseWords, length, isRNA);
+
+	}
+
+	/**
+	 * Method to get the same bases as an RNA strand (T read as U). The bases are shared, not copied, since neither strand can change
+	 * @return The strand as RNA
+	 */
+	public PackedStrand toRNA() {
+
+		return isRNA ? this : new PackedStrand(words, length, true);
+
+	}
+
+	/**
+	 * Method to get part of the strand as a new strand
+	 * @param from Index of the first base to include
+	 * @param to Index after the last base to include
+	 * @return The strand with the bases from index from up to (not including) index to
+	 */
+	public PackedStrand slice(int from, int to) {
+
+		if (from < 0 || to > length || from > to) {
+			throw new IndexOutOfBoundsException("Slice " + from + " to " + to + " out of bounds for length " + length);
+		}
+
+		int n = to - from;
+		long[] sliceWords = new long[wordsFor(n)];
+		// Bit offset of the first base within its word
+		int shift = (from & 31) << 1;
+		int firstWord = from >>> 5;
+
+		for (int w = 0; w < sliceWords.length; w++) {
+			// Take the low part from one word and the high part from the next, since the slice need not start on a word boundary
+			long low = words[firstWord + w] >>> shift;
+			long high = (shift != 0 && firstWord + w + 1 < words.length) ? words[firstWord + w + 1] << (64 - shift) : 0L;
+			sliceWords[w] = low | high;
+		}
+		clearTail(sliceWords, n);
+
+		return new PackedStrand(sliceWords, n, isRNA);
+
+	}
+
+	/**
+	 * Method to get part of the strand as a new strand, with the indices given as longs, as a Strand
+	 * @param from Index of the first base to include
+	 * @param to Index after the last base to include
+	 * @return The strand with the bases from index from up to (not including) index to
+	 */
+	@Override
+	public PackedStrand slice(long from, long to) {
+
+		if (from < 0 || to > length || from > to) {
+			throw new IndexOutOfBoundsException("Slice " + from + " to " + to + " out of bounds for length " + length);
+		}
+		return slice((int) from, (int) to);
+
+	}
+
+	/**
+	 * Method to get this strand followed by another as a new strand, e.g. to join windows read one after the other.
+	 * Whole words of the other strand are shifted into place, rather than one base at a time
+	 * @param other The strand to put after this one, of the same type (DNA or RNA)
+	 * @return The joined strand
+	 * @throws IllegalArgumentException If one strand is DNA and the other RNA, or the joined strand would be too long
+	 */
+	public PackedStrand concat(PackedStrand other) {
+
+		if (other.isRNA != isRNA) throw new IllegalArgumentException("A DNA strand cannot be joined with an RNA strand.");
+		if ((long) length + other.length > Integer.MAX_VALUE) throw new IllegalArgumentException("The joined strand would be too long.");
+
+		int n = length + other.length;
+		long[] joinedWords = java.util.Arrays.copyOf(words, wordsFor(n));
+		// Bit offset within its word of the first base of the other strand
+		int shift = (length & 31) << 1;
+		int firstWord = length >>> 5;
+
+		for (int w = 0; w < wordsFor(other.length); w++) {
+			// The low part of each word goes after the last base of this strand, and the high part into the next word
+			joinedWords[firstWord + w] |= other.words[w] << shift;
+			if (shift != 0 && firstWord + w + 1 < joinedWords.length) joinedWords[firstWord + w + 1] = other.words[w] >>> (64 - shift);
+		}
+
+		return new PackedStrand(joinedWords, n, isRNA);
+
+	}
+
+	/**
+	 * Method to get part of the strand, as required by CharSequence
+	 * @param from Index of the first base to include
+	 * @param to Index after the last base to include
+	 * @return The strand with the bases from index from up to (not including) index to
+	 */
+	@Override
+	public PackedStrand subSequence(int from, int to) {
+
+		return slice(from, to);
+
+	}
+
+	/**
+	 * Method to set every bit past the last base to 0
+	 * @param words The words of a strand
+	 * @param numBases The number of bases in the strand
+	 */
+	private static void clearTail(long[] words, int numBases) {
+
+		int usedBits = (numBases & 31) << 1;
+		if (usedBits != 0) {
+			words[words.length - 1] &= (1L << usedBits) - 1;
+		}
+
+	}
+
+	/**
+	 * Method to check whether another object is a strand of the same type with the same bases
+	 * @param other The object to compare with
+	 * @return true if they are equal, false if they are not
+	 */
+	@Override
+	public boolean equals(Object other) {
+
+		if (this == other) return true;
+		if (!(other instanceof PackedStrand)) return false;
+		PackedStrand strand = (PackedStrand) other;
+		return length == strand.length && isRNA == strand.isRNA && java.util.Arrays.equals(words, strand.words);
+
+	}
+
+	/**
+	 * Method to get a hash code consistent with equals()
+	 * @return The hash code
+	 */
+	@Override
+	public int hashCode() {
+
+		return 31 * java.util.Arrays.hashCode(words) + length + (isRNA ? 1 : 0);
+
+	}
+
+	/**
+	 * Method to unpack the strand into a string of its bases
+	 * @return String with the letter of each base
+	 */
+	@Override
+	public String toString() {
+
+		String bases = isRNA ? basesRNA : basesDNA;
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = bases.charAt((int) (words[i >>> 5] >>> ((i & 31) << 1)) & 3);
+		}
+		return new String(chars);
+
+	}
+
+}
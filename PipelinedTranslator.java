@@ -0,0 +1,225 @@
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An object of this class runs transcription and translation at the same time, the way a ribosome can start translating an mRNA before
+ * RNA polymerase has finished making it.
+ *
+ * The calling thread is the transcription stage: it adds bases to the mRNA one at a time and, from the Start codon on, puts each
+ * codon it completes (as its 6-bit number) into a bounded queue. A ribosome task running in another thread takes the codons from the
+ * queue and adds their amino acids to the chain as they arrive. This is the advantage of using a queue mentioned in Main's notes.
+ *
+ * Codons are passed in blocks so the threads do not have to hand over every codon separately. If the ribosome falls behind, the queue
+ * fills up and transcription waits for it. Both stages stop passing codons at the Stop codon: the ribosome finishes the chain there,
+ * while transcription carries on to the end of the DNA so the whole mRNA is in the result.
+ *
+ * An object of this class can be shared by many threads. Each call to run() uses its own queue. Translators created without an executor
+ * all run their ribosomes on one shared pool (see SharedRibosomes), which is never shut down.
+ * @author Prakash
+ *
+ */
+public class PipelinedTranslator {
+
+	/**
+	 * The block passed to the ribosome to tell it the mRNA ended without a Stop codon
+	 */
+	private static final int[] endOfMRNA = new int[0];
+
+	/**
+	 * Executor running the ribosome tasks
+	 */
+	private final ExecutorService ribosomes;
+	/**
+	 * The most blocks of codons that can be waiting in the queue before transcription has to wait
+	 */
+	private final int queueCapacity;
+	/**
+	 * The number of codons in each block passed to the ribosome
+	 */
+	private final int blockSize;
+	/**
+	 * The genetic code used to find and translate codons
+	 */
+	private final GeneticCode geneticCode;
+
+	/**
+	 * Holder of the pool shared by every translator created without an executor. The JVM creates it the first time such a translator is
+	 * created, and only once, even if many threads create one at the same time.
+	 * The pool is never shut down. It has a thread for every run() in progress (a thread per run is needed, so it is not bounded), its
+	 * threads are daemon threads so they never keep the JVM running, and a thread left idle for a minute ends
+	 */
+	private static class SharedRibosomes {
+
+		/**
+		 * The number of ribosome threads started so far, used to name them
+		 */
+		private static final AtomicInteger numThreads = new AtomicInteger();
+
+		/**
+		 * The shared pool
+		 */
+		static final ExecutorService pool = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "ribosome-" + numThreads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	}
+
+	/**
+	 * Constructor to create a pipelined translator that runs its ribosomes on the shared pool, with default queue and block sizes
+	 */
+	public PipelinedTranslator() {
+
+		this(SharedRibosomes.pool, 64, 256);
+
+	}
+
+	/**
+	 * Constructor to create a pipelined translator for the standard genetic code
+	 * @param ribosomes Executor that will run the ribosome tasks. It needs a thread free for every run() in progress
+	 * @param queueCapacity The most blocks of codons that can be waiting for the ribosome
+	 * @param blockSize The number of codons in each block
+	 */
+	public PipelinedTranslator(ExecutorService ribosomes, int queueCapacity, int blockSize) {
+
+		this(ribosomes, queueCapacity, blockSize, GeneticCode.standard);
+
+	}
+
+	/**
+	 * Constructor to create a pipelined translator for a given genetic code
+	 * @param ribosomes Executor that will run the ribosome tasks. It needs a thread free for every run() in progress
+	 * @param queueCapacity The most blocks of codons that can be waiting for the ribosome
+	 * @param blockSize The number of codons in each block
+	 * @param geneticCode The genetic code
+	 */
+	public PipelinedTranslator(ExecutorService ribosomes, int queueCapacity, int blockSize, GeneticCode geneticCode) {
+
+		this.ribosomes = ribosomes;
+		this.queueCapacity = queueCapacity;
+		this.blockSize = blockSize;
+		this.geneticCode = geneticCode;
+
+	}
+
+	/**
+	 * Method to run transcription and translation on a DNA strand, with translation overlapping transcription
+	 * @param dNA3to5 String representing the DNA strand, with only A,C,T and G
+	 * @return The result, including the mRNA, the indices of the Start and Stop codons, and the amino acid sequence
+	 * @throws InterruptedException If the thread is interrupted while waiting for the ribosome
+	 */
+	public TranslationResult run(String dNA3to5) throws InterruptedException {
+
+		BlockingQueue<int[]> codonQueue = new ArrayBlockingQueue<int[]>(queueCapacity);
+		// The ribosome is only started once there is a Start codon, so it does not wait on strands without one
+		Future<AminoAcidSequence> ribosome = null;
+
+		char[] mRNA5to3 = new char[dNA3to5.length()];
+		int iAUG = -1;
+		int iStop = -1;
+		int[] block = new int[blockSize];
+		int numInBlock = 0;
+
+		try {
+
+			for (int i = 0; i < mRNA5to3.length; i++) {
+
+				// Add the next base to the mRNA
+				mRNA5to3[i] = TranslationEngine.complementToRNA(dNA3to5.charAt(i));
+
+				// Once the Stop codon has been passed on, there is nothing more for the ribosome
+				if (iStop != -1 || i < 2) continue;
+
+				// The codon made by the last three bases
+				int codon = TRNAList.codonIndex(mRNA5to3[i-2], mRNA5to3[i-1], mRNA5to3[i]);
+
+				if (iAUG == -1) {
+
+					// Until the Start codon is found, check whether the last three bases are it
+					if (!geneticCode.isStartCodon(codon)) continue;
+					iAUG = i - 2;
+					ribosome = ribosomes.submit(() -> translate(codonQueue));
+
+				} else if ((i - iAUG) % 3 != 2) {
+
+					// The last three bases are not a whole codon in frame with the Start codon
+					continue;
+
+				}
+
+				// Pass the codon just completed on to the ribosome
+				block[numInBlock++] = codon;
+				if (geneticCode.isStopCodon(codon)) {
+
+					// Hand over what is left in the block right away, since it ends the chain
+					iStop = i - 2;
+					codonQueue.put(Arrays.copyOf(block, numInBlock));
+
+				} else if (numInBlock == blockSize) {
+
+					codonQueue.put(block);
+					block = new int[blockSize];
+					numInBlock = 0;
+
+				}
+
+			}
+
+			// If there was a Start codon but no Stop codon, hand over the last codons and tell the ribosome the mRNA has ended
+			if (iAUG != -1 && iStop == -1) {
+				if (numInBlock > 0) codonQueue.put(Arrays.copyOf(block, numInBlock));
+				codonQueue.put(endOfMRNA);
+			}
+
+			AminoAcidSequence aASeq = (ribosome == null) ? null : ribosome.get();
+			return new TranslationResult(dNA3to5, new String(mRNA5to3), iAUG, iStop, (iStop == -1) ? null : aASeq);
+
+		} catch (ExecutionException e) {
+
+			throw new IllegalStateException("The ribosome failed.", e.getCause());
+
+		} finally {
+
+			// If transcription stopped early, the ribosome would otherwise be left waiting for codons
+			if (ribosome != null) ribosome.cancel(true);
+
+		}
+
+	}
+
+	/**
+	 * Method run by the ribosome, adding the amino acid of each codon taken from the queue until the Stop codon
+	 * @param codonQueue The queue codons are passed in
+	 * @return The amino acid sequence, or null if the mRNA ended without a Stop codon
+	 * @throws InterruptedException If the ribosome is cancelled while waiting for codons
+	 */
+	private AminoAcidSequence translate(BlockingQueue<int[]> codonQueue) throws InterruptedException {
+
+		AminoAcidSequence outputAASeq = new AminoAcidSequence();
+
+		while (true) {
+
+			int[] block = codonQueue.take();
+			if (block == endOfMRNA) return null;
+
+			for (int codon : block) {
+
+				if (geneticCode.isStopCodon(codon)) return outputAASeq;
+				// The first codon is the Start codon, which always adds methionine
+				AminoAcid aminoAcid = outputAASeq.isEmpty() ? geneticCode.getStartAminoAcid(codon) : geneticCode.getAminoAcid(codon);
+				outputAASeq.insert(new DoublyLinkedListNode<AminoAcid>(aminoAcid), outputAASeq.getTail());
+
+			}
+
+		}
+
+	}
+
+}
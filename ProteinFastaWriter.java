@@ -0,0 +1,297 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An object of this class writes translated proteins to a FASTA file, and optionally also to a tab-separated (TSV) file with one line per
+ * protein: its name, its number of amino acids and its one-letter codes.
+ *
+ * Where Main.displayAASequence() prints strings of the whole sequence, the one-letter codes are written here straight from the nodes of
+ * the AminoAcidSequence into a byte buffer, breaking the FASTA lines at the chosen width as they go. Every character written is ASCII, so
+ * no character encoder is needed either. The buffer is written to the file (or stream) each time it fills, so the number of proteins
+ * written is limited only by the speed of the disk.
+ *
+ * Call close() (or flush()) once everything is written, since output may still be buffered.
+ * @author Prakash
+ *
+ */
+public class ProteinFastaWriter implements Closeable, Flushable {
+
+	/**
+	 * The size in bytes of each output's buffer
+	 */
+	private static final int bufferSize = 1 << 16;
+
+	/**
+	 * Where the FASTA records are written
+	 */
+	private final Output fasta;
+	/**
+	 * Where the TSV lines are written, or null if there is no TSV output
+	 */
+	private final Output tsv;
+	/**
+	 * The most amino acids on each line of a FASTA record, or 0 to write each record's sequence on one line
+	 */
+	private final int lineWidth;
+
+	/**
+	 * Constructor to create a writer writing to streams
+	 * @param fastaOut The stream to write the FASTA records to
+	 * @param tsvOut The stream to write the TSV lines to, or null for no TSV output
+	 * @param lineWidth The most amino acids on each line of a FASTA record, or 0 for no line breaks
+	 */
+	public ProteinFastaWriter(OutputStream fastaOut, OutputStream tsvOut, int lineWidth) {
+
+		this(Channels.newChannel(fastaOut), (tsvOut == null) ? null : Channels.newChannel(tsvOut), lineWidth);
+
+	}
+
+	/**
+	 * Constructor to create a writer writing to channels, e.g. FileChannels
+	 * @param fastaChannel The channel to write the FASTA records to
+	 * @param tsvChannel The channel to write the TSV lines to, or null for no TSV output
+	 * @param lineWidth The most amino acids on each line of a FASTA record, or 0 for no line breaks
+	 */
+	public ProteinFastaWriter(WritableByteChannel fastaChannel, WritableByteChannel tsvChannel, int lineWidth) {
+
+		if (lineWidth < 0) throw new IllegalArgumentException("Invalid line width: " + lineWidth + '.');
+
+		this.fasta = new Output(fastaChannel);
+		this.tsv = (tsvChannel == null) ? null : new Output(tsvChannel);
+		this.lineWidth = lineWidth;
+
+	}
+
+	/**
+	 * Method to create a writer writing to files, which are created or emptied first
+	 * @param fastaPath The FASTA file
+	 * @param tsvPath The TSV file, or null for no TSV output
+	 * @param lineWidth The most amino acids on each line of a FASTA record, or 0 for no line breaks
+	 * @return The writer
+	 * @throws IOException If a file cannot be opened
+	 */
+	public static ProteinFastaWriter open(Path fastaPath, Path tsvPath, int lineWidth) throws IOException {
+
+		FileChannel fastaChannel = openForWriting(fastaPath);
+		FileChannel tsvChannel = null;
+		try {
+			if (tsvPath != null) tsvChannel = openForWriting(tsvPath);
+		} catch (IOException e) {
+			fastaChannel.close();
+			throw e;
+		}
+		return new ProteinFastaWriter(fastaChannel, tsvChannel, lineWidth);
+
+	}
+
+	/**
+	 * Method to write the amino acid sequence of a translation result, if there is one
+	 * @param name The name for the protein's header line
+	 * @param result The result of running a DNA strand through the engine
+	 * @return true if a protein was written, false if the result had no amino acid sequence (no Start or Stop codon)
+	 * @throws IOException If writing fails
+	 */
+	public boolean write(String name, TranslationResult result) throws IOException {
+
+		if (result.getAminoAcidSequence() == null) return false;
+		write(name, result.getAminoAcidSequence());
+		return true;
+
+	}
+
+	/**
+	 * Method to write one protein as a FASTA record, and as a TSV line if there is TSV output
+	 * @param name The name for the protein's header line. Line breaks and tabs in it are written as spaces
+	 * @param aASeq The amino acid sequence of the protein
+	 * @throws IOException If writing fails
+	 */
+	public void write(String name, AminoAcidSequence aASeq) throws IOException {
+
+		// The header line
+		fasta.write('>');
+		fasta.writeName(name);
+		fasta.write('\n');
+
+		// The one-letter codes, with a line break after every lineWidth of them
+		int numOnLine = 0;
+		int numAminoAcids = 0;
+		for (DoublyLinkedListNode<AminoAcid> nodeCurr = aASeq.getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+			if (numOnLine == lineWidth && lineWidth != 0) {
+				fasta.write('\n');
+				numOnLine = 0;
+			}
+			fasta.write(nodeCurr.getData().getOneLetter());
+			numOnLine++;
+			numAminoAcids++;
+		}
+		fasta.write('\n');
+
+		if (tsv != null) {
+			tsv.writeName(name);
+			tsv.write('\t');
+			tsv.writeNumber(numAminoAcids);
+			tsv.write('\t');
+			for (DoublyLinkedListNode<AminoAcid> nodeCurr = aASeq.getFront(); nodeCurr != null; nodeCurr = nodeCurr.getNext()) {
+				tsv.write(nodeCurr.getData().getOneLetter());
+			}
+			tsv.write('\n');
+		}
+
+	}
+
+	/**
+	 * Method to write out everything still buffered
+	 * @throws IOException If writing fails
+	 */
+	@Override
+	public void flush() throws IOException {
+
+		fasta.flush();
+		if (tsv != null) tsv.flush();
+
+	}
+
+	/**
+	 * Method to write out everything still buffered and close the outputs
+	 * @throws IOException If writing or closing fails
+	 */
+	@Override
+	public void close() throws IOException {
+
+		try {
+			fasta.close();
+		} finally {
+			if (tsv != null) tsv.close();
+		}
+
+	}
+
+	/**
+	 * Method to open a file for writing, creating it or emptying it first
+	 * @param path The file
+	 * @return The channel to write to it with
+	 * @throws IOException If the file cannot be opened
+	 */
+	private static FileChannel openForWriting(Path path) throws IOException {
+
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+	}
+
+	/**
+	 * This class is one output of the writer: a channel and the buffer of bytes waiting to be written to it
+	 */
+	private static class Output {
+
+		/**
+		 * The channel written to
+		 */
+		private final WritableByteChannel channel;
+		/**
+		 * The bytes waiting to be written
+		 */
+		private final byte[] buffer = new byte[bufferSize];
+		/**
+		 * The buffer as a ByteBuffer, for writing it to the channel
+		 */
+		private final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+		/**
+		 * The number of bytes in the buffer
+		 */
+		private int size = 0;
+
+		/**
+		 * Constructor to create an output writing to a channel
+		 * @param channel The channel
+		 */
+		private Output(WritableByteChannel channel) {
+
+			this.channel = channel;
+
+		}
+
+		/**
+		 * Method to add one ASCII character to the buffer, writing the buffer out first if it is full
+		 * @param c The character
+		 * @throws IOException If writing fails
+		 */
+		private void write(char c) throws IOException {
+
+			if (size == buffer.length) flush();
+			buffer[size++] = (byte) c;
+
+		}
+
+		/**
+		 * Method to add a name to the buffer. Characters that would break the line or TSV column are written as spaces,
+		 * and characters that are not ASCII as '?'
+		 * @param name The name
+		 * @throws IOException If writing fails
+		 */
+		private void writeName(String name) throws IOException {
+
+			for (int i = 0; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if (c == '\n' || c == '\r' || c == '\t') {
+					c = ' ';
+				} else if (c >= 128) {
+					c = '?';
+				}
+				write(c);
+			}
+
+		}
+
+		/**
+		 * Method to add a number that is not negative to the buffer, in decimal
+		 * @param number The number
+		 * @throws IOException If writing fails
+		 */
+		private void writeNumber(int number) throws IOException {
+
+			// Find the place value of the first digit, then write the digits from there down
+			int placeValue = 1;
+			while (number / placeValue >= 10) placeValue = placeValue * 10;
+			for (; placeValue > 0; placeValue = placeValue / 10) {
+				write((char) ('0' + (number / placeValue) % 10));
+			}
+
+		}
+
+		/**
+		 * Method to write everything in the buffer to the channel
+		 * @throws IOException If writing fails
+		 */
+		private void flush() throws IOException {
+
+			byteBuffer.clear().limit(size);
+			while (byteBuffer.hasRemaining()) channel.write(byteBuffer);
+			size = 0;
+
+		}
+
+		/**
+		 * Method to write everything in the buffer and close the channel
+		 * @throws IOException If writing or closing fails
+		 */
+		private void close() throws IOException {
+
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+
+		}
+
+	}
+
+}
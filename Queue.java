@@ -5,90 +5,168 @@
  * -I admittedly felt a brief need to test my knowledge regarding this data structure
  * -Only certain methods were needed for the purpose in this project
  * -It meant I would already be familiar with how to use it
+ *
+ * The items are stored in an array used as a ring buffer: the front moves forward as items are dequeued and the tail wraps around to
+ * the start of the array when it reaches the end. This makes enqueuing and dequeuing take constant time, where the earlier linked list
+ * version had to walk the whole list to find the tail on every enqueue. When the array is full, it is replaced by one twice as long.
  * @author Prakash
  *
  * @param <T> The generic type of data stored in an item in the queue
  */
 public class Queue<T> {
-	
+
+	/**
+	 * The number of items the array can hold when the queue is created
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The array used to implement this queue
+	 */
+	private Object[] items;
 	/**
-	 * The linked list used to implement this queue
+	 * The index in the array of the item at the front of the queue
 	 */
-	private SinglyLinkedList<T> list;
-	
+	private int front;
 	/**
-	 * Constructor to create a queue and initialize its list
+	 * The number of items in the queue
+	 */
+	private int size;
+
+	/**
+	 * Constructor to create a queue and initialize its array
 	 */
 	public Queue() {
-		
-		list = new SinglyLinkedList();
-		
+
+		items = new Object[initialCapacity];
+		front = 0;
+		size = 0;
+
 	}
-	
+
 	/**
 	 * Method to add a new item into the queue (at the back)
 	 * @param newItem The new item to be added into the queue
 	 * @return The data stored in the new item. Usually not used
 	 */
 	public T enqueue(T newItem) {
-		
-		// Create a node with newItem as its data
-		SinglyLinkedListNode<T> newNode = new SinglyLinkedListNode(newItem);
-		// Insert this node at the tail of the list
-		list.insert(newNode, list.findTail());
-		// Normally this method would not return anything. I set it to return the node in case that would be useful and since it seemed to pose no significant risk
-		return newNode.getData();
-		
+
+		// If the array is full, move the items into a bigger one first
+		if (size == items.length) grow();
+		// Put the item just after the tail, wrapping around to the start of the array if needed
+		items[(front + size) & (items.length - 1)] = newItem;
+		size++;
+		// Normally this method would not return anything. I set it to return the data in case that would be useful and since it seemed to pose no significant risk
+		return newItem;
+
 	}
-	
+
 	/**
 	 * Method to take off the item that is at the front of the queue. Its data is returned
-	 * @return The data stored in the item that was just taken off
+	 * @return The data stored in the item that was just taken off, or null if the queue is empty
 	 */
+	@SuppressWarnings("unchecked")
 	public T dequeue() {
-		
-		// Get the node from the front of the list
-		SinglyLinkedListNode<T> nodeToDelete = list.getFront();
-		
-		// If the list is empty (i.e. the queue is empty), return null
-		if (nodeToDelete == null) return null;
-		
-		//Otherwise
-		// Get the data of the node
-		T dataToDelete = nodeToDelete.getData();
-		// Delete the node from the list (so the next node will now be at the front of the queue)
-		list.delete(list.getFront());
-		// Return the data of the node we dequeued
+
+		// If the queue is empty, return null
+		if (size == 0) return null;
+
+		// Otherwise, get the item at the front and clear its spot so the array does not keep it from being garbage collected
+		T dataToDelete = (T) items[front];
+		items[front] = null;
+		// The next item is now at the front
+		front = (front + 1) & (items.length - 1);
+		size--;
+		// Return the data of the item we dequeued
 		return dataToDelete;
-		
+
 	}
-	
+
+	/**
+	 * Method to take off every item in the queue, in order from front to tail, giving each to an action
+	 * @param action The action to perform on each item
+	 * @return The number of items taken off
+	 */
+	@SuppressWarnings("unchecked")
+	public int drain(java.util.function.Consumer<? super T> action) {
+
+		int numDrained = size;
+
+		// Go through the items from the front, wrapping around the array, clearing each spot
+		for (int i = 0; i < numDrained; i++) {
+
+			int iItem = (front + i) & (items.length - 1);
+			T item = (T) items[iItem];
+			items[iItem] = null;
+			action.accept(item);
+
+		}
+
+		// The queue is now empty
+		front = 0;
+		size = 0;
+
+		return numDrained;
+
+	}
+
+	/**
+	 * Accessor method for the number of items in the queue
+	 * @return The number of items in the queue
+	 */
+	public int size() {
+
+		return size;
+
+	}
+
+	/**
+	 * Method to check whether the queue has no items
+	 * @return true if the queue is empty, false if it is not
+	 */
+	public boolean isEmpty() {
+
+		return size == 0;
+
+	}
+
+	/**
+	 * Method to replace the array with one twice as long, moving the items so the front is at index 0
+	 * The length of the array is always a power of 2, so wrapping an index around can be done with a bitwise AND
+	 */
+	private void grow() {
+
+		Object[] newItems = new Object[items.length * 2];
+		// Copy the items from the front to the end of the old array, then the ones that had wrapped around to its start
+		int numBeforeWrap = items.length - front;
+		System.arraycopy(items, front, newItems, 0, numBeforeWrap);
+		System.arraycopy(items, 0, newItems, numBeforeWrap, front);
+		items = newItems;
+		front = 0;
+
+	}
+
 	/**
 	 * A string representation of the whole queue
 	 */
 	public String toString() {
-		
-		// This method will add onto an empty string for every node
+
 		// Start by labelling the front
-		String str1 = "Front -> ";
-		
-		// Get the front node
-		SinglyLinkedListNode<T> current = list.getFront();
-		// For all nodes in the list
-		// (If current is null, then there are no nodes and the following loop is not entered)
-		while (current != null && current.getNext() != null) {
-			
-			// Append a string representing a queue item containing the data of this node
-			str1 = str1 + " -> QueueItem(" + current.getData() + ')';
-			
+		StringBuilder str1 = new StringBuilder("Front");
+
+		// For all items in the queue, append a string representing a queue item containing its data
+		for (int i = 0; i < size; i++) {
+
+			str1.append(" -> QueueItem(").append(items[(front + i) & (items.length - 1)]).append(')');
+
 		}
-		
+
 		// Finish by labelling the tail
-		str1 = str1 + " -> Tail";
-		
+		str1.append(" -> Tail");
+
 		// Return the resulting string
-		return str1;
-		
+		return str1.toString();
+
 	}
 
 }
@@ -6,6 +6,7 @@ import java.util.Random;
  * This DNA strand will be usable in the transcription and translation simulation.
  * To ensure that, it will include a Start codon, non-Stop codons, and a stop codon
  * The lengths of different parts of the strand can either be default or custom, depending which constructor is used.
+ * The Start and Stop codons are those of the standard genetic code, unless another code is set.
  * @author Prakash
  *
  */
@@ -33,9 +34,30 @@ public class RandomDNAStrandGenerator {
 	 */
 	private static final String possBasesDNA = "ACTG";
 	/**
-	 * A string representing the Start codon
+	 * The letters of the DNA bases, indexed by their 2-bit code (see PackedStrand)
 	 */
-	private static final String startCodon = "AUG";
+	private static final String basesByCode = "TCAG";
+	
+	/**
+	 * The genetic code whose Start and Stop codons are used
+	 */
+	private GeneticCode geneticCode;
+	/**
+	 * Mask with the bit of the packed code (see PackedStrand) of each Start codon DNA triple set, e.g. TAC in the standard code
+	 */
+	private long startCodonsDNAMask;
+	/**
+	 * Strings representing the DNA that would be transcribed into the Start codons, e.g. TAC for AUG
+	 */
+	private String[] startCodonsDNA;
+	/**
+	 * Strings representing the DNA that would be transcribed into the Stop codons, e.g. ATT, ATC and ACT for UAA, UAG and UGA
+	 */
+	private String[] stopCodonsDNA;
+	/**
+	 * For each state of the last two bases before the Start codon DNA, the codes of the bases that can come next without making Start codon DNA
+	 */
+	private int[][] preStartBases;
 	
 	/**
 	 * The default minimum number of bases before the Start codon DNA
@@ -81,6 +103,7 @@ public class RandomDNAStrandGenerator {
 	public RandomDNAStrandGenerator() {
 		
 		randNumGen= new Random();
+		setGeneticCode(GeneticCode.standard);
 		
 		numPreStartBases = numPreStartBasesMin + randNumGen.nextInt(numPreStartBasesMax - numPreStartBasesMin + 1);
 		numCodonsDNA = numCodonsDNAMin + randNumGen.nextInt(numCodonsDNAMax - numCodonsDNAMin + 1);
@@ -97,6 +120,7 @@ public class RandomDNAStrandGenerator {
 	public RandomDNAStrandGenerator(int numPreStartBases, int numCodonsDNA, int numPostStopBases) {
 		
 		randNumGen= new Random();
+		setGeneticCode(GeneticCode.standard);
 		
 		this.numPreStartBases = numPreStartBases;
 		this.numCodonsDNA = numCodonsDNA;
@@ -104,79 +128,105 @@ public class RandomDNAStrandGenerator {
 		
 	}
 	
+	/**
+	 * Mutator method to set the genetic code whose Start and Stop codons are used
+	 * @param newGeneticCode The genetic code
+	 * @throws IllegalArgumentException If the code has no Start codon, or every triple is a Stop codon
+	 */
+	public void setGeneticCode(GeneticCode newGeneticCode) {
+		
+		if (newGeneticCode.getStartCodons() == 0 || newGeneticCode.getStopCodons() == -1L) {
+			throw new IllegalArgumentException(newGeneticCode + " cannot make strands with a Start and a Stop codon.");
+		}
+		
+		geneticCode = newGeneticCode;
+		startCodonsDNAMask = BulkDNAStrandGenerator.toTemplateDNA(geneticCode.getStartCodons());
+		startCodonsDNA = toDNAStrings(startCodonsDNAMask);
+		stopCodonsDNA = toDNAStrings(BulkDNAStrandGenerator.toTemplateDNA(geneticCode.getStopCodons()));
+		preStartBases = BulkDNAStrandGenerator.basesAvoidingStart(startCodonsDNAMask);
+		
+	}
+	
+	/**
+	 * Accessor method for the genetic code whose Start and Stop codons are used
+	 * @return The genetic code
+	 */
+	public GeneticCode getGeneticCode() {
+		
+		return geneticCode;
+		
+	}
+	
 	/**
 	 * Method to generator a random DNA strand using the generator.
 	 * It does not return the strand. It updates the instance variable for the strand, which can be accessed using its accessor method
 	 */
 	public void generateStrandDNA() {
 		
-		// Initialize the DNA strand string as an empty string
-		strandDNA = "";
+		// Initialize a builder for the DNA strand, so appending a base does not copy everything appended before it
+		StringBuilder builder = new StringBuilder();
 		
-		// 1) Append 5-10 random bases. non-START!!!
+		// Declare a string representing the Start codon DNA, which is chosen once the bases before it are known
+		String startCodonDNA = null;
 		
-		String startCodonDNA = mRNAToDNA(startCodon);
-		
-		// Append the custom or default number of characters representing bases
-		for (int i = 0; i < numPreStartBases; i++) {
+		// In the standard code this loop runs once. In a few other codes no Start codon DNA fits after some bases, and then they are generated again
+		while (startCodonDNA == null) {
 			
-			// Get a random number to decide which base to append
-			iBase = randNumGen.nextInt(4);
-			// Use that as an index to get the base
-			base = possBasesDNA.charAt(iBase);
+			builder.setLength(0);
 			
-			// This block is meant to ensure we don't introduce a Start codon yet
-			// This will be executed for any and all iterations 3rd onwards, 
-			// since that is the point starting at which it is possible to accidentally append a Start codon
-			if (i > 1) {
+			// 1) Append 5-10 random bases. non-START!!!
+			
+			// The state of the last two bases appended (see BulkDNAStrandGenerator.nextState()), used to know which bases can come next
+			int state = BulkDNAStrandGenerator.noBases;
+			
+			// Append the custom or default number of characters representing bases
+			for (int i = 0; i < numPreStartBases; i++) {
+				
+				// If no base can come next, such a long strand cannot be made with this code
+				if (preStartBases[state].length == 0) {
+					throw new IllegalStateException(geneticCode + " cannot make " + numPreStartBases + " bases without Start codon DNA.");
+				}
 				
-				// Get a string from concatenating the previous two characters and the most recent randomly generated base, being considering to be appended
-				String potentialStartCodonDNA = "" + strandDNA.charAt(i-2) + strandDNA.charAt(i-1) + base;
-				// If this string is the DNA complementary to the Start codon (TAC, complementary to AUG), we generate a different base repeatedly until it is not
-				while (potentialStartCodonDNA.equals(startCodonDNA)) {
+				// Get a random number to decide which base to append
+				iBase = randNumGen.nextInt(4);
+				// Use that as an index to get the base
+				base = possBasesDNA.charAt(iBase);
+				
+				// This loop is meant to ensure we don't introduce a Start codon yet
+				// If the base would make Start codon DNA with the previous two bases (e.g. TAC, complementary to AUG), we generate a different base 
+				// repeatedly until it does not
+				while (!canFollow(state, PackedStrand.encode(base))) {
 					// Get a random number to decide which base to append
 					iBase = randNumGen.nextInt(4);
 					// Use that as an index to get the base
 					base = possBasesDNA.charAt(iBase);
-					// Get a string from concatenating the previous two characters and the most recent randomly generated base, being considering to be appended
-					potentialStartCodonDNA = "" + strandDNA.charAt(i-2) + strandDNA.charAt(i-1) + base;
 				}
 				
+				// Append this codon DNA to the DNA strand
+				builder.append(base);
+				state = BulkDNAStrandGenerator.nextState(state, PackedStrand.encode(base));
+				
 			}
 			
-			// Append this codon DNA to the DNA strand
-			strandDNA = strandDNA + base;
+			// 2) Choose start codon DNA that does not make other Start codon DNA with the last bases
+			
+			startCodonDNA = chooseStartCodonDNA(state);
 			
 		}
 		
-		// 2) Append start codon DNA
-		
-		strandDNA = strandDNA + startCodonDNA;
+		// Append start codon DNA
+		builder.append(startCodonDNA);
 		
 		// 3) Append 5-15 triplets of random non-STOP codon DNA 
 		
-		// Here are strings (in an array) representing the Stop codons
-		String[] stopCodons = {"", "", ""};
-		stopCodons[0] = "UAA";
-		stopCodons[1] = "UAG";
-		stopCodons[2] = "UGA";
-		
-		// Use those to make an array of strings representing the DNA that would be transribed into Stop codons
-		String[] stopCodonsDNA = {"", "", ""};
-		for (int i = 0; i < 3; i++) {
-			
-			stopCodonsDNA[i] = mRNAToDNA(stopCodons[i]);
-			
-		}
-		
 		// Append a custom or default number of triplets of bases (complementary to non-Stop codons)
 		for (int i = 0; i < numCodonsDNA; i++) {
 			// Initialize a string representing the codon DNA to be appended, as a stop codon so that the following while loop will be entered
 			String codonDNA = stopCodonsDNA[0];
-			// STOP codons: UAA, UAG, UGA
+			// STOP codons: UAA, UAG, UGA in the standard code
 			// DNA:         ATT, ATC, ACT
 			// This while loop is meant to make sure we don't introduce a STOP codon
-			while (codonDNA.equals(stopCodonsDNA[0]) || codonDNA.equals(stopCodonsDNA[1]) || codonDNA.equals(stopCodonsDNA[2])) {
+			while (java.util.Arrays.asList(stopCodonsDNA).contains(codonDNA)) {
 				// Now initialize the codon DNA string as an empty string (to which bases will get appended)
 				codonDNA = "";
 				// 3 times
@@ -193,16 +243,16 @@ public class RandomDNAStrandGenerator {
 				// The loop will repeat if this codon DNA string is currently a Stop codon
 			}
 			// Append the codon DNA string to the DNA strand
-			strandDNA = strandDNA + codonDNA;
+			builder.append(codonDNA);
 		}
 		
 		// 4) Append STOP codon DNA
 		
-		// Randomly choose one of the three Stop codons
-		int iSTOP = randNumGen.nextInt(3);
+		// Randomly choose one of the Stop codons (three in the standard code)
+		int iSTOP = randNumGen.nextInt(stopCodonsDNA.length);
 		String stopCodonDNA = stopCodonsDNA[iSTOP];
 		// Append that Stop codon DNA to the DNA string
-		strandDNA = strandDNA + stopCodonDNA;
+		builder.append(stopCodonDNA);
 		
 		// 5) Append 0-9 random bases
 		
@@ -211,10 +261,66 @@ public class RandomDNAStrandGenerator {
 			
 			iBase = randNumGen.nextInt(4);
 			base = possBasesDNA.charAt(iBase);
-			strandDNA = strandDNA + base;
+			builder.append(base);
 			
 		}
 		
+		// Now the DNA strand is complete
+		strandDNA = builder.toString();
+		
+	}
+	
+	/**
+	 * Method to check whether a base can be appended before the Start codon DNA
+	 * @param state The state of the last two bases appended
+	 * @param code The code of the base
+	 * @return true if the base is one of those that can come next, false if it is not
+	 */
+	private boolean canFollow(int state, int code) {
+		
+		for (int allowed : preStartBases[state]) {
+			if (allowed == code) return true;
+		}
+		return false;
+		
+	}
+	
+	/**
+	 * Method to randomly choose Start codon DNA that does not make other Start codon DNA with the bases before it
+	 * @param state The state of the last two bases before it
+	 * @return String representing the Start codon DNA, or null if none fits
+	 */
+	private String chooseStartCodonDNA(int state) {
+		
+		// Collect the Start codon DNA that fits
+		java.util.ArrayList<String> fitting = new java.util.ArrayList<String>();
+		for (String codonDNA : startCodonsDNA) {
+			int packed = (PackedStrand.encode(codonDNA.charAt(0)) << 4) | (PackedStrand.encode(codonDNA.charAt(1)) << 2) | PackedStrand.encode(codonDNA.charAt(2));
+			if (BulkDNAStrandGenerator.fitsAfter(state, packed, startCodonsDNAMask)) fitting.add(codonDNA);
+		}
+		
+		if (fitting.isEmpty()) return null;
+		// The standard code has only one, TAC
+		return (fitting.size() == 1) ? fitting.get(0) : fitting.get(randNumGen.nextInt(fitting.size()));
+		
+	}
+	
+	/**
+	 * Method to get strings representing the DNA triples in a mask
+	 * @param codonsDNA Mask with the bit of the packed code of each triple set
+	 * @return The triples, in the order of their packed codes
+	 */
+	private static String[] toDNAStrings(long codonsDNA) {
+		
+		String[] triples = new String[Long.bitCount(codonsDNA)];
+		int iTriple = 0;
+		for (int codon = 0; codon < 64; codon++) {
+			if (((codonsDNA >>> codon) & 1) != 0) {
+				triples[iTriple++] = "" + basesByCode.charAt(codon >>> 4) + basesByCode.charAt((codon >>> 2) & 3) + basesByCode.charAt(codon & 3);
+			}
+		}
+		return triples;
+		
 	}
 	
 	/**
@@ -0,0 +1,363 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * An object of this class measures one stage of the amino acid synthesis process (validation, transcription, finding the Start and Stop
+ * codons, queueing codons, translation and display): how many times it ran, how many units (bases, codons or amino acids) it processed,
+ * how long it took, and how much memory it allocated.
+ *
+ * Measuring is turned on by starting the JVM with -Dsimulator.metrics=true. It is then:
+ * -Exposed over JMX, one MBean per stage (see StageMetricsMXBean)
+ * -Printed as text to System.err when the JVM exits
+ * When measuring is off, enabled is a constant false, so the JIT compiler removes the measuring code from the stages altogether.
+ *
+ * The times of the runs are kept in a histogram with one bucket per power of 2 of nanoseconds, so percentiles are only known to within
+ * a factor of 2, but recording a time is a single atomic increment.
+ * Every stage is measured as:
+ *     long startTime = StageMetrics.startTime();
+ *     long startAllocation = StageMetrics.startAllocation();
+ *     ...
+ *     StageMetrics.transcription.record(startTime, startAllocation, numBases);
+ * The counters can be updated by many threads at the same time.
+ * @author Prakash
+ *
+ */
+public class StageMetrics implements StageMetricsMXBean {
+
+	/**
+	 * Whether stages are being measured, set by the system property simulator.metrics
+	 */
+	public static final boolean enabled = Boolean.getBoolean("simulator.metrics");
+
+	/**
+	 * Checking that DNA strands have only bases
+	 */
+	public static final StageMetrics validation = new StageMetrics("Validation", "bases");
+	/**
+	 * Transcribing DNA into mRNA
+	 */
+	public static final StageMetrics transcription = new StageMetrics("Transcription", "bases");
+	/**
+	 * Finding the Start codon in the mRNA
+	 */
+	public static final StageMetrics startCodonSearch = new StageMetrics("StartCodonSearch", "bases");
+	/**
+	 * Finding the Stop codon in frame with the Start codon
+	 */
+	public static final StageMetrics stopCodonSearch = new StageMetrics("StopCodonSearch", "codons");
+	/**
+	 * Putting the codons into a queue (Main.queueCodons())
+	 */
+	public static final StageMetrics codonQueueing = new StageMetrics("CodonQueueing", "codons");
+	/**
+	 * Translating codons into the amino acid chain
+	 */
+	public static final StageMetrics translation = new StageMetrics("Translation", "codons");
+	/**
+	 * Displaying the amino acid sequence
+	 */
+	public static final StageMetrics display = new StageMetrics("Display", "amino acids");
+
+	/**
+	 * Every stage, in the order of the process
+	 */
+	private static final StageMetrics[] all = {validation, transcription, startCodonSearch, stopCodonSearch, codonQueueing, translation, display};
+
+	/**
+	 * The JVM's thread bean if it can measure the bytes allocated by each thread, or null if it cannot
+	 */
+	private static final com.sun.management.ThreadMXBean allocationCounter = enabled ? findAllocationCounter() : null;
+
+	static {
+
+		if (enabled) {
+			for (StageMetrics stage : all) stage.register();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.err), "metrics-dump"));
+		}
+
+	}
+
+	/**
+	 * The name of the stage
+	 */
+	private final String name;
+	/**
+	 * What the stage's units are
+	 */
+	private final String unitName;
+
+	/**
+	 * The number of times the stage has run
+	 */
+	private final LongAdder count = new LongAdder();
+	/**
+	 * The total number of units processed
+	 */
+	private final LongAdder totalUnits = new LongAdder();
+	/**
+	 * The total time spent, in nanoseconds
+	 */
+	private final LongAdder totalNanos = new LongAdder();
+	/**
+	 * The total number of bytes allocated
+	 */
+	private final LongAdder allocatedBytes = new LongAdder();
+	/**
+	 * The longest time taken, in nanoseconds
+	 */
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	/**
+	 * The number of runs whose time in nanoseconds had its highest set bit at each position (bucket 0 also holds times of 0)
+	 */
+	private final AtomicLongArray histogram = new AtomicLongArray(64);
+
+	/**
+	 * Constructor to create the metrics of a stage
+	 * @param name The name of the stage
+	 * @param unitName What the stage's units are
+	 */
+	private StageMetrics(String name, String unitName) {
+
+		this.name = name;
+		this.unitName = unitName;
+
+	}
+
+	/**
+	 * Method to get the time at the start of a stage
+	 * @return The current time in nanoseconds, or 0 if measuring is off
+	 */
+	public static long startTime() {
+
+		return enabled ? System.nanoTime() : 0;
+
+	}
+
+	/**
+	 * Method to get the number of bytes the current thread has allocated, at the start of a stage
+	 * @return The number of bytes, or 0 if measuring is off or the JVM cannot measure it
+	 */
+	public static long startAllocation() {
+
+		return (enabled && allocationCounter != null) ? allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+
+	}
+
+	/**
+	 * Method to record a run of the stage that has just finished
+	 * @param startTime The time returned by startTime() when the stage started
+	 * @param startAllocation The number returned by startAllocation() when the stage started
+	 * @param units The number of units the stage processed
+	 */
+	public void record(long startTime, long startAllocation, long units) {
+
+		if (!enabled) return;
+
+		long nanos = System.nanoTime() - startTime;
+		if (allocationCounter != null) {
+			allocatedBytes.add(allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId()) - startAllocation);
+		}
+
+		count.increment();
+		totalUnits.add(units);
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+
+	}
+
+	/**
+	 * Method to print the metrics of every stage as a table
+	 * @param out The print stream to print to
+	 */
+	public static void dump(PrintStream out) {
+
+		out.printf("%-18s %10s %14s %12s %12s %12s %16s %14s%n", "Stage", "Runs", "Units", "Median ns", "p99 ns", "Max ns", "Units/s", "Bytes alloc");
+		for (StageMetrics stage : all) {
+			out.printf("%-18s %10d %14d %12d %12d %12d %16.4g %14d  (%s)%n", stage.name, stage.getCount(), stage.getTotalUnits(),
+					stage.getMedianNanos(), stage.getP99Nanos(), stage.getMaxNanos(), stage.getUnitsPerSecond(), stage.getAllocatedBytes(), stage.unitName);
+		}
+
+	}
+
+	/**
+	 * Accessor method for the name of the stage
+	 * @return The name of the stage, which is also the name its MBean is registered under
+	 */
+	@Override
+	public String getName() {
+
+		return name;
+
+	}
+
+	/**
+	 * Accessor method for what the stage's units are
+	 * @return The name of the units, e.g. "bases"
+	 */
+	@Override
+	public String getUnitName() {
+
+		return unitName;
+
+	}
+
+	/**
+	 * Accessor method for the number of times the stage has run
+	 * @return The number of runs recorded since the last reset
+	 */
+	@Override
+	public long getCount() {
+
+		return count.sum();
+
+	}
+
+	/**
+	 * Accessor method for the total number of units processed by the stage
+	 * @return The total number of units since the last reset
+	 */
+	@Override
+	public long getTotalUnits() {
+
+		return totalUnits.sum();
+
+	}
+
+	/**
+	 * Accessor method for the total time spent in the stage
+	 * @return The total time in nanoseconds since the last reset
+	 */
+	@Override
+	public long getTotalNanos() {
+
+		return totalNanos.sum();
+
+	}
+
+	/**
+	 * Accessor method for the rate the stage processes units at
+	 * @return The total number of units divided by the total time, per second, or 0 if no time has been recorded
+	 */
+	@Override
+	public double getUnitsPerSecond() {
+
+		long nanos = totalNanos.sum();
+		return (nanos == 0) ? 0 : totalUnits.sum() * 1e9 / nanos;
+
+	}
+
+	/**
+	 * Accessor method for the total number of bytes allocated by the stage
+	 * @return The total number of bytes, or -1 if the JVM cannot measure the bytes allocated by a thread
+	 */
+	@Override
+	public long getAllocatedBytes() {
+
+		return (allocationCounter == null) ? -1 : allocatedBytes.sum();
+
+	}
+
+	/**
+	 * Accessor method for the longest time a run of the stage has taken
+	 * @return The longest time in nanoseconds since the last reset
+	 */
+	@Override
+	public long getMaxNanos() {
+
+		return maxNanos.get();
+
+	}
+
+	/**
+	 * Accessor method for the median time of a run of the stage, estimated from the histogram
+	 * @return The median time in nanoseconds (see percentileNanos())
+	 */
+	@Override
+	public long getMedianNanos() {
+
+		return percentileNanos(0.5);
+
+	}
+
+	/**
+	 * Accessor method for the 99th percentile time of a run of the stage, estimated from the histogram
+	 * @return The 99th percentile time in nanoseconds (see percentileNanos())
+	 */
+	@Override
+	public long getP99Nanos() {
+
+		return percentileNanos(0.99);
+
+	}
+
+	/**
+	 * Method to set all the counters and the histogram back to zero
+	 */
+	@Override
+	public void reset() {
+
+		count.reset();
+		totalUnits.reset();
+		totalNanos.reset();
+		allocatedBytes.reset();
+		maxNanos.reset();
+		for (int i = 0; i < histogram.length(); i++) histogram.set(i, 0);
+
+	}
+
+	/**
+	 * Method to estimate a percentile of the times from the histogram
+	 * @param fraction The fraction of runs that took at most the time returned, e.g. 0.99
+	 * @return The upper end of the bucket holding that percentile (or the longest time, if less), in nanoseconds, or 0 if the stage has not run
+	 */
+	private long percentileNanos(double fraction) {
+
+		long total = 0;
+		for (int i = 0; i < histogram.length(); i++) total = total + histogram.get(i);
+		if (total == 0) return 0;
+
+		long target = (long) Math.ceil(total * fraction);
+		long seen = 0;
+		for (int i = 0; i < histogram.length(); i++) {
+			seen = seen + histogram.get(i);
+			// No run took longer than the longest time, even if the bucket goes higher
+			if (seen >= target) return (i == 63) ? maxNanos.get() : Math.min((1L << (i + 1)) - 1, maxNanos.get());
+		}
+		return maxNanos.get();
+
+	}
+
+	/**
+	 * Method to register the stage's MBean with the JVM's MBean server
+	 */
+	private void register() {
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("TranscriptionTranslationSimulator:type=Stage,name=" + name));
+		} catch (JMException e) {
+			System.err.println("Could not register metrics for stage " + name + ": " + e);
+		}
+
+	}
+
+	/**
+	 * Method to get the JVM's thread bean, if it can measure the bytes allocated by each thread
+	 * @return The thread bean, or null if it cannot
+	 */
+	private static com.sun.management.ThreadMXBean findAllocationCounter() {
+
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			if (threads.isThreadAllocatedMemorySupported()) return threads;
+		}
+		return null;
+
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * This interface is what JMX clients (e.g. JConsole) can see of a StageMetrics object.
+ * Each StageMetrics is registered as an MBean named "TranscriptionTranslationSimulator:type=Stage,name=(the stage's name)".
+ * @author Prakash
+ *
+ */
+public interface StageMetricsMXBean {
+
+	/**
+	 * Accessor method for the name of the stage
+	 * @return The name of the stage
+	 */
+	String getName();
+
+	/**
+	 * Accessor method for what the stage's units are
+	 * @return The name of the units, e.g. "bases"
+	 */
+	String getUnitName();
+
+	/**
+	 * Accessor method for the number of times the stage has run
+	 * @return The number of runs
+	 */
+	long getCount();
+
+	/**
+	 * Accessor method for the total number of units processed by the stage
+	 * @return The total number of units
+	 */
+	long getTotalUnits();
+
+	/**
+	 * Accessor method for the total time spent in the stage
+	 * @return The total time in nanoseconds
+	 */
+	long getTotalNanos();
+
+	/**
+	 * Accessor method for the rate the stage processes units at
+	 * @return The total number of units divided by the total time, per second
+	 */
+	double getUnitsPerSecond();
+
+	/**
+	 * Accessor method for the total number of bytes allocated by the stage, if the JVM can measure it
+	 * @return The total number of bytes, or -1 if it cannot be measured
+	 */
+	long getAllocatedBytes();
+
+	/**
+	 * Accessor method for the longest time a run of the stage has taken
+	 * @return The longest time in nanoseconds
+	 */
+	long getMaxNanos();
+
+	/**
+	 * Accessor method for the median time of a run of the stage
+	 * @return The median time in nanoseconds, rounded up to one less than a power of 2
+	 */
+	long getMedianNanos();
+
+	/**
+	 * Accessor method for the 99th percentile time of a run of the stage
+	 * @return The 99th percentile time in nanoseconds, rounded up to one less than a power of 2
+	 */
+	long getP99Nanos();
+
+	/**
+	 * Method to set all the counters back to zero
+	 */
+	void reset();
+
+}
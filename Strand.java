@@ -0,0 +1,51 @@
+/**
+ * This interface represents a DNA or RNA strand whose bases are read as 2-bit codes, wherever they are stored: on the heap in a
+ * PackedStrand, or off the heap in an OffHeapStrand.
+ *
+ * Indices are longs so strands can have more than Integer.MAX_VALUE bases (e.g. whole chromosomes). Parts of a strand short enough to
+ * fit on the heap can be copied into a PackedStrand with slice().
+ * The codes are the same as in PackedStrand: U (or T in DNA) = 0, C = 1, A = 2, G = 3.
+ * @author Prakash
+ *
+ */
+public interface Strand {
+
+	/**
+	 * Accessor method for the number of bases in the strand
+	 * @return The number of bases
+	 */
+	long size();
+
+	/**
+	 * Method to check whether this strand is RNA
+	 * @return true if it is RNA, false if it is DNA
+	 */
+	boolean isRNA();
+
+	/**
+	 * Method to get the 2-bit code of the base at an index
+	 * @param i Index of the base
+	 * @return The code of the base (U/T = 0, C = 1, A = 2, G = 3)
+	 */
+	int codeAt(long i);
+
+	/**
+	 * Method to get the codon starting at an index, as its position in the codon chart (0 to 63) used by TRNAList
+	 * @param i Index of the first base of the codon
+	 * @return The 6-bit number of the codon
+	 */
+	default int codonAt(long i) {
+
+		return (codeAt(i) << 4) | (codeAt(i + 1) << 2) | codeAt(i + 2);
+
+	}
+
+	/**
+	 * Method to copy part of the strand onto the heap
+	 * @param from Index of the first base to include
+	 * @param to Index after the last base to include. There can be at most Integer.MAX_VALUE bases from from
+	 * @return The packed strand with the bases from index from up to (not including) index to
+	 */
+	PackedStrand slice(long from, long to);
+
+}
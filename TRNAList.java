@@ -1,6 +1,8 @@
 /**
  * An object of this class will be used to create a TRNAMolecule object with a given anticodon
- * The class implements a chart of anticodons and amino acids for tRNA molecules from the reference cited below.
+ * The class implements a chart of anticodons and amino acids for tRNA molecules, built from a genetic code (see GeneticCode).
+ * By default this is the standard code, as in the chart from the reference cited below.
+ * A list never changes once created, so the list for the standard code is created once and shared (see getShared()).
  * @author Prakash
  * 
  * Reference:
@@ -13,195 +15,234 @@
 public class TRNAList {
 	
 	/**
-	 * An array which will store the tRNA molecules
+	 * An array which will store the tRNA molecules.
+	 * They are stored in the order of the chart, so the tRNA that pairs with a codon is at the codon's 6-bit number (see codonIndex()).
+	 * No tRNA pairs with a Stop codon, so those are null
 	 */
-	private TRNAMolecule[] moleculeArray;
+	private final TRNAMolecule[] moleculeArray;
 	/**
-	 * An object used to get amino acids when given their three-letter codes 
+	 * The initiator tRNA molecules, carrying methionine, that pair with each Start codon at the beginning of translation, indexed by the
+	 * codon's 6-bit number. The other codons are null
 	 */
-	private AminoAcidList aAList;
+	private final TRNAMolecule[] initiatorArray;
+	/**
+	 * The genetic code the tRNA molecules were made for
+	 */
+	private final GeneticCode geneticCode;
 	
 	/**
-	 * Constructor to create the TRNAList object, containing all possible the tRNA molecules
+	 * The anticodon (3' to 5') of the tRNA that pairs with each codon, indexed by the codon's 6-bit number.
+	 * These are the same for every genetic code, so they are made once and shared by every TRNAList
+	 */
+	private static final String[] anticodons = new String[64];
+	
+	static {
+		
+		// String containing the possible bases that can be in anticodons (RNA), in the order of the chart
+		String possibleBases = "UCAG";
+		char[] anticodon3to5 = new char[3];
+		
+		for (int codon = 0; codon < 64; codon++) {
+			
+			// Each anticodon base is complementary to the codon base in the same position. Flipping the higher bit of a base's code gives its complement
+			anticodon3to5[0] = possibleBases.charAt((codon >>> 4) ^ 2);
+			anticodon3to5[1] = possibleBases.charAt(((codon >>> 2) & 3) ^ 2);
+			anticodon3to5[2] = possibleBases.charAt((codon & 3) ^ 2);
+			anticodons[codon] = new String(anticodon3to5);
+			
+		}
+		
+	}
+	
+	/**
+	 * Holder of the list for the standard genetic code shared by the whole program. The JVM creates it the first time getShared() is
+	 * called, and only once, even if many threads call getShared() at the same time
+	 */
+	private static class SharedHolder {
+		
+		/**
+		 * The shared list
+		 */
+		static final TRNAList instance = new TRNAList(GeneticCode.standard);
+		
+	}
+	
+	/**
+	 * Constructor to create the TRNAList object, containing all possible the tRNA molecules of the standard genetic code
 	 */
 	public TRNAList() {
 		
-		// Create an AminoAcidList object that will be used to get AminoAcid objects from their three-letter codes
-		aAList = new AminoAcidList();
+		this(GeneticCode.standard);
 		
-		// String containing the possible bases that can be in anticodons (RNA)
-		String possibleBases = "UCAG";
-		// Declare string representing the codon complementary to the anticodon of a given tRNA
-		String codon5to3;
-		// Declare string that is the three-letter code of a amino acid of a given tRNA
-		String aA3L;
-		// Declare string representing the anticodon of a given tRNA
-		String anticodon3to5;
-		// Initialize variable used to index into the array in which the tRNA objects will be stored
-		int iMoleculeArray = 0;
+	}
+	
+	/**
+	 * Constructor to create the TRNAList object, containing all possible the tRNA molecules of a given genetic code
+	 * @param geneticCode The genetic code, giving the amino acid of each codon
+	 */
+	public TRNAList(GeneticCode geneticCode) {
+		
+		this.geneticCode = geneticCode;
 		
 		// Initialize array in which the tRNA objects will be stored
 		moleculeArray = new TRNAMolecule[64];
 		
-		// Initialize variables holding the three letters representing the bases in a codon
-		char firstLetterCodon;
-		char secondLetterCodon;
-		char thirdLetterCodon;
-		
-		// For each of the 4 possible first letters of codons
-		for (int i = 0; i < 4; i++) {
-			// For each of the 4 possible second letters of codons
-			for (int j = 0; j < 4; j++) {
-				// For each of the 4 possible third letters of codons
-				for (int k = 0; k < 4; k++) {
-					
-					// Initialize the codon as an empty string
-					codon5to3 = "";
-					
-					// Get the codon for this iteration of nested nested for loop
-					firstLetterCodon = possibleBases.charAt(i);
-					secondLetterCodon = possibleBases.charAt(j);
-					thirdLetterCodon = possibleBases.charAt(k);
-					codon5to3 = codon5to3 + firstLetterCodon + secondLetterCodon + thirdLetterCodon;
-					
-					// Implement the chart from the cited resource, to get the three-letter code of the correct amino acid for this codon
-					// Each row of the chart has an if/else statement here, nested if/else statements in those for each column, 
-					// and possibly nested if/else statements within those for each codon
-					if (firstLetterCodon == 'U') {
-						if (secondLetterCodon == 'U') {
-							if (thirdLetterCodon == 'U' || thirdLetterCodon == 'C') {
-								aA3L = "Phe";
-							} else {
-								aA3L = "Leu";
-							}
-						} else if (secondLetterCodon == 'C') {
-							aA3L = "Ser";
-						} else if (secondLetterCodon == 'A') {
-							// Assume stop codon is not given.
-							// Can assume this since the queue in Main only enqueues up to there
-							aA3L = "Tyr";
-						} else {
-							if (thirdLetterCodon == 'U' || thirdLetterCodon == 'C') {
-								aA3L = "Cys";
-							} else {
-								// Assume stop codon is not given.
-								// Can assume this since the queue in Main only enqueues up to there
-								aA3L = "Trp";
-							}
-						}
-					} else if (firstLetterCodon == 'C') {
-						if (secondLetterCodon == 'U') {
-							aA3L = "Leu";
-						} else if (secondLetterCodon == 'C') {
-							aA3L = "Pro";
-						} else if (secondLetterCodon == 'A') {
-							if (thirdLetterCodon == 'U' || thirdLetterCodon == 'C') {
-								aA3L = "His";
-							} else {
-								aA3L = "Gln";
-							}
-						} else {
-							aA3L = "Arg";
-						}
-					} else if (firstLetterCodon == 'A') {
-						if (secondLetterCodon == 'U') {
-							if (thirdLetterCodon == 'G') {
-								aA3L = "Met";	
-							} else {
-								aA3L = "Ile";
-							}
-						} else if (secondLetterCodon == 'C') {
-							aA3L = "Thr";
-						} else if (secondLetterCodon == 'A') {
-							if (thirdLetterCodon == 'U' || thirdLetterCodon == 'C') {
-								aA3L = "Asn";
-							} else {
-								aA3L = "Lys";
-							}
-						} else {
-							if (thirdLetterCodon == 'U' || thirdLetterCodon == 'C') {
-								aA3L = "Ser";
-							} else {
-								aA3L = "Arg";
-							}
-						}
-					} else {
-						if (secondLetterCodon == 'U') {
-							aA3L = "Val";
-						} else if (secondLetterCodon == 'C') {
-							aA3L = "Ala";
-						} else if (secondLetterCodon == 'A') {
-							if (thirdLetterCodon == 'U' || thirdLetterCodon == 'C') {
-								aA3L = "Asp";
-							} else {
-								aA3L = "Glu";
-							}
-						} else {
-							aA3L = "Gly";
-						}
-					}
-					
-					// So now the amino acid name has been determined for this tRNA
-					// Convert the codon to the anticodon, since we prefer to use the anticodon to identify the tRNA
-					
-					// Declare character variable that will hold a character(base) from the codon
-					char charCurrCodon;
-					// Initialize string representing anticodon, as empty string
-					anticodon3to5 = "";
-					
-					// For each base in the codon, append the complementary base to the anticodon string
-					for (int l = 0; l < 3; l++) {
-						charCurrCodon = codon5to3.charAt(l);
-						if (charCurrCodon == 'U') {
-							anticodon3to5 = anticodon3to5 + 'A';
-						} else if (charCurrCodon == 'C') {
-							anticodon3to5 = anticodon3to5 + 'G';
-						} else if (charCurrCodon == 'A') {
-							anticodon3to5 = anticodon3to5 + 'U';
-						} else {
-							anticodon3to5 = anticodon3to5 + 'C';
-						}
-					}
-					
-					// Get the amino acid object with the three-letter code of this iteration
-					AminoAcid aminoAcidCurr = aAList.getAA(aA3L);
-					// Create a tRNA object with this amino acid object and the anticodon of this iteration, and put it into the tRNA array
-					moleculeArray[iMoleculeArray] = new TRNAMolecule(anticodon3to5, aminoAcidCurr);
-					// Update the number at which to index the tRNA array for the next iteration
-					iMoleculeArray++;
-					
-				}
-			}
+		// For each codon, in the order of the chart
+		for (int codon = 0; codon < 64; codon++) {
+			
+			// Get the amino acid the code gives this codon. A Stop codon has none, and no tRNA
+			AminoAcid aminoAcidCurr = geneticCode.getAminoAcid(codon);
+			if (aminoAcidCurr == null) continue;
+			
+			// Create a tRNA object with this amino acid object and the shared anticodon, and put it into the tRNA array
+			moleculeArray[codon] = new TRNAMolecule(anticodons[codon], aminoAcidCurr);
+			
 		}
 		
+		// The initiator tRNA has the anticodon of each Start codon but always carries methionine
+		initiatorArray = new TRNAMolecule[64];
+		for (int codon = 0; codon < 64; codon++) {
+			if (geneticCode.isStartCodon(codon)) initiatorArray[codon] = new TRNAMolecule(anticodons[codon], geneticCode.getStartAminoAcid(codon));
+		}
+		
+	}
+	
+	/**
+	 * Method to get the list for the standard genetic code shared by the whole program, so its tRNA molecules are only created once.
+	 * The list never changes, so it is safe to use from any thread
+	 * @return The shared list
+	 */
+	public static TRNAList getShared() {
+		
+		return SharedHolder.instance;
+		
+	}
+	
+	/**
+	 * Method to get a list for a genetic code: the shared one for the standard code, or a new one for any other code
+	 * @param geneticCode The genetic code
+	 * @return The list
+	 */
+	public static TRNAList of(GeneticCode geneticCode) {
+		
+		return (geneticCode == GeneticCode.standard) ? getShared() : new TRNAList(geneticCode);
+		
+	}
+	
+	/**
+	 * Accessor method for the genetic code the tRNA molecules were made for
+	 * @return The genetic code
+	 */
+	public GeneticCode getGeneticCode() {
+		
+		return geneticCode;
+		
 	}
 	
 	/**
 	 * Method to get a TRNA object using only its anticodon
+	 * The tRNA is found directly from the codon complementary to the anticodon, instead of by comparing with every anticodon
 	 * @param anticodon3to5 Anticodon of the desired tRNA
-	 * @return tRNA object with the given anticodon
+	 * @return tRNA object with the given anticodon, or null if it is not a valid anticodon or pairs with a Stop codon
 	 */
 	public TRNAMolecule getMolecule(String anticodon3to5) {
 		
-		// Declare a variable that will represent the current tRNA
-		TRNAMolecule tRNACurr;
+		// If the string is not three bases long, it cannot be an anticodon
+		if (anticodon3to5.length() != 3) {
+			System.out.println("Error: Invalid anticodon.");
+			return null;
+		}
 		
-		// For each tRNA (until the desired tRNA if it gets reached)
-		for (int i = 0; i < 64; i++) {
-			
-			// Update the current tRNA
-			tRNACurr = moleculeArray[i];
-			// If it is the desired tRNA based on the given anticodon, return it
-			if (tRNACurr.getAnticodon().equals(anticodon3to5)) {
-				return tRNACurr;
-			}
-			
+		// Each codon base is complementary to the anticodon base in the same position. Flipping the higher bit of a base's code gives its complement
+		int first = PackedStrand.encode(anticodon3to5.charAt(0));
+		int second = PackedStrand.encode(anticodon3to5.charAt(1));
+		int third = PackedStrand.encode(anticodon3to5.charAt(2));
+		
+		// If any of them is not an RNA base, print an error message and return null
+		if (first < 0 || second < 0 || third < 0 || anticodon3to5.indexOf('T') != -1) {
+			System.out.println("Error: Invalid anticodon.");
+			return null;
+		}
+		
+		return moleculeArray[((first << 4) | (second << 2) | third) ^ 0b101010];
+		
+	}
+	
+	/**
+	 * Method to get a TRNA object using the bases of the codon it pairs with, without building any string
+	 * @param first The first base of the codon (U, C, A or G)
+	 * @param second The second base of the codon
+	 * @param third The third base of the codon
+	 * @return tRNA object that pairs with the codon, or null if any of the characters is not an RNA base or the codon is a Stop codon
+	 */
+	public TRNAMolecule getMolecule(char first, char second, char third) {
+		
+		int codon = codonIndex(first, second, third);
+		
+		// If any of them is not an RNA base, print an error message and return null
+		if (codon < 0) {
+			System.out.println("Error: Invalid codon.");
+			return null;
 		}
 		
-		//If nothing has been returned
-		// print an error message and return null
-		System.out.println("Error: Invalid anticodon.");
-		return null;
+		return moleculeArray[codon];
+		
+	}
+	
+	/**
+	 * Method to get a TRNA object using the position of the codon it pairs with in the chart (0 to 63)
+	 * This is the 6-bit number made from the bases' codes, as given by codonIndex() or PackedStrand.codonAt()
+	 * @param codon The 6-bit number of the codon
+	 * @return tRNA object that pairs with the codon, or null if it is a Stop codon
+	 */
+	public TRNAMolecule getMolecule(int codon) {
+		
+		return moleculeArray[codon];
+		
+	}
+	
+	/**
+	 * Method to get the tRNA that pairs with the first codon translated, using the position of the codon in the chart (0 to 63)
+	 * @param codon The 6-bit number of the codon
+	 * @return The initiator tRNA, carrying methionine, if the codon is a Start codon, otherwise the same as getMolecule()
+	 */
+	public TRNAMolecule getInitiator(int codon) {
+		
+		return (initiatorArray[codon] != null) ? initiatorArray[codon] : moleculeArray[codon];
+		
+	}
+	
+	/**
+	 * Method to get the amino acid coded for by a codon, using the position of the codon in the chart (0 to 63)
+	 * @param codon The 6-bit number of the codon
+	 * @return Amino acid coded for by the codon, or null if it is a Stop codon
+	 */
+	public AminoAcid getAminoAcid(int codon) {
+		
+		return geneticCode.getAminoAcid(codon);
+		
+	}
+	
+	/**
+	 * Method to get the position of a codon in the chart (0 to 63) from its bases.
+	 * The bases are ordered U, C, A, G as in the chart, and the first base is the most significant
+	 * @param first The first base of the codon (U, C, A or G)
+	 * @param second The second base of the codon
+	 * @param third The third base of the codon
+	 * @return The 6-bit number of the codon, or -1 if any of the characters is not an RNA base
+	 */
+	public static int codonIndex(char first, char second, char third) {
+		
+		// T is not an RNA base, even though it has the same code as U
+		if (first == 'T' || second == 'T' || third == 'T') return -1;
+		
+		int codeFirst = PackedStrand.encode(first);
+		int codeSecond = PackedStrand.encode(second);
+		int codeThird = PackedStrand.encode(third);
+		
+		if (codeFirst < 0 || codeSecond < 0 || codeThird < 0) return -1;
+		
+		return (codeFirst << 4) | (codeSecond << 2) | codeThird;
 		
 	}
 
@@ -2,6 +2,7 @@
  * This class represents a molecule of tRNA. For the purpose of this project, a tRNA molecule has two features:
  * -Its anticodon which binds with a codon on mRNA
  * -Its amino acid which gets added to a growing chain of amino acids
+ * A tRNA molecule never changes once created, since the molecules of a TRNAList are shared (see TRNAList.getShared()).
  * @author Prakash
  *
  */
@@ -10,11 +11,11 @@ public class TRNAMolecule {
 	/**
 	 * The anticodon is represented by a String of 3 characters, each representing one base
 	 */
-	private String anticodon;
+	private final String anticodon;
 	/**
 	 * The amino acid of this tRNA, which would get added to an amino acid chain
 	 */
-	private AminoAcid aminoAcidTRNA;
+	private final AminoAcid aminoAcidTRNA;
 	
 	/**
 	 * Constructor to initialize a tRNA molecule
@@ -28,26 +29,6 @@ public class TRNAMolecule {
 		
 	}
 	
-	/**
-	 * Mutator method for anticodon
-	 * @param newAnticodon The new desired anticodon for this tRNA
-	 */
-	public void setAnticodon(String newAnticodon) {
-		
-		anticodon = newAnticodon;
-		
-	}
-
-	/**
-	 * Mutator method for amino acid
-	 * @param newAminoAcid The new desired amino acid for this tRNA
-	 */
-	public void setAminoAcid(AminoAcid newAminoAcid) {
-		
-		aminoAcidTRNA = newAminoAcid;
-		
-	}
-	
 	/**
 	 * Accessor method for anticodon
 	 * @return Anticodon of this tRNA
@@ -0,0 +1,270 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An object of this class sits in front of a TranslationEngine, remembering the results of recent runs so a DNA strand that has already
+ * been run is not transcribed and translated again.
+ *
+ * Results are looked up by a 64-bit hash of the DNA strand. Each entry also keeps a second, independent 64-bit hash and the strand itself,
+ * and a result is only returned if both hashes and then the strand match, so two strands with the same hash can never be given each
+ * other's result. When a strand's hash is already used by a different strand, the strand is run but its result is not cached.
+ *
+ * The cache is bounded both by the number of results and by their total weight (the total number of bases in their strands), and when
+ * either bound is passed the least recently used results are evicted first.
+ *
+ * The amino acid sequences of cached results are frozen, nodes included (see AminoAcidSequence.freeze()), since one result is given to
+ * every caller running the same strand, so no caller can change what the others read. All methods can be called by many threads at the same time. The engine runs outside of the lock, so two
+ * threads missing on the same strand at once may both run it.
+ * @author Prakash
+ *
+ */
+public class TranslationCache {
+
+	/**
+	 * The engine used to run strands that are not cached
+	 */
+	private final TranslationEngine engine;
+	/**
+	 * The most results kept
+	 */
+	private final int maxEntries;
+	/**
+	 * The most bases kept in total across all results' strands
+	 */
+	private final long maxWeight;
+
+	/**
+	 * The cached results by the first hash of their strand, from least to most recently used
+	 */
+	private final LinkedHashMap<Long, Entry> entries;
+	/**
+	 * The total number of bases in the strands of the cached results
+	 */
+	private long weight;
+
+	/**
+	 * The number of runs answered from the cache
+	 */
+	private long numHits;
+	/**
+	 * The number of runs that had to use the engine
+	 */
+	private long numMisses;
+	/**
+	 * The number of results evicted to stay within the bounds
+	 */
+	private long numEvictions;
+	/**
+	 * The number of runs whose strand had the same first hash as a different, cached strand
+	 */
+	private long numCollisions;
+
+	/**
+	 * Constructor to create an empty cache
+	 * @param engine The engine used to run strands that are not cached
+	 * @param maxEntries The most results kept
+	 * @param maxWeight The most bases kept in total across all results' strands
+	 */
+	public TranslationCache(TranslationEngine engine, int maxEntries, long maxWeight) {
+
+		if (maxEntries < 1 || maxWeight < 1) throw new IllegalArgumentException("Invalid cache bounds: " + maxEntries + ", " + maxWeight + '.');
+
+		this.engine = engine;
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+		// With access order, each lookup moves the entry to the end, so the least recently used entry is always first
+		this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+		this.weight = 0;
+
+	}
+
+	/**
+	 * Method to get the result of running a DNA strand, from the cache if it has been run recently
+	 * @param dNA3to5 String representing the DNA strand, with only A,C,T and G
+	 * @return The result. Its amino acid sequence, if it has one, is frozen and read-only down to its nodes
+	 */
+	public TranslationResult run(String dNA3to5) {
+
+		long hash1 = hash(dNA3to5, 0xCBF29CE484222325L, 0x100000001B3L);
+		long hash2 = hash(dNA3to5, 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL);
+
+		synchronized (this) {
+			Entry entry = entries.get(hash1);
+			if (entry != null) {
+				if (entry.hash2 == hash2 && entry.dNA3to5.equals(dNA3to5)) {
+					numHits++;
+					return entry.result;
+				}
+				numCollisions++;
+			}
+			numMisses++;
+		}
+
+		TranslationResult result = engine.run(dNA3to5);
+		if (result.getAminoAcidSequence() != null) result.getAminoAcidSequence().freeze();
+
+		synchronized (this) {
+			// Only cache the result if its hash is free (another thread may have cached it already) and it fits at all
+			if (!entries.containsKey(hash1) && dNA3to5.length() <= maxWeight) {
+				entries.put(hash1, new Entry(dNA3to5, hash2, result));
+				weight = weight + dNA3to5.length();
+				evict();
+			}
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * Method to remove every result from the cache. The counters are not reset
+	 */
+	public synchronized void clear() {
+
+		entries.clear();
+		weight = 0;
+
+	}
+
+	/**
+	 * Accessor method for the number of results in the cache
+	 * @return The number of cached results
+	 */
+	public synchronized int size() {
+
+		return entries.size();
+
+	}
+
+	/**
+	 * Accessor method for the total weight of the cached results
+	 * @return The total number of bases in the strands of the cached results
+	 */
+	public synchronized long getWeight() {
+
+		return weight;
+
+	}
+
+	/**
+	 * Accessor method for the number of hits
+	 * @return The number of runs answered from the cache
+	 */
+	public synchronized long getNumHits() {
+
+		return numHits;
+
+	}
+
+	/**
+	 * Accessor method for the number of misses
+	 * @return The number of runs that had to use the engine
+	 */
+	public synchronized long getNumMisses() {
+
+		return numMisses;
+
+	}
+
+	/**
+	 * Accessor method for the number of evictions
+	 * @return The number of results evicted to stay within the bounds
+	 */
+	public synchronized long getNumEvictions() {
+
+		return numEvictions;
+
+	}
+
+	/**
+	 * Accessor method for the number of hash collisions
+	 * @return The number of runs whose strand had the same hash as a different, cached strand
+	 */
+	public synchronized long getNumCollisions() {
+
+		return numCollisions;
+
+	}
+
+	/**
+	 * A string giving the size of the cache and its counters
+	 */
+	public synchronized String toString() {
+
+		return "TranslationCache(" + entries.size() + " results, " + weight + " bases, " + numHits + " hits, " + numMisses + " misses, "
+				+ numEvictions + " evictions, " + numCollisions + " collisions)";
+
+	}
+
+	/**
+	 * Method to evict the least recently used results until the cache is within both bounds. Must be called holding the lock
+	 */
+	private void evict() {
+
+		Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+			Entry eldest = iterator.next().getValue();
+			iterator.remove();
+			weight = weight - eldest.dNA3to5.length();
+			numEvictions++;
+		}
+
+	}
+
+	/**
+	 * Method to hash a strand to 64 bits, the same way as FNV-1a. Different seeds and multipliers give hashes independent enough to be
+	 * used together as one 128-bit hash
+	 * @param dNA3to5 The strand
+	 * @param seed The value the hash starts at
+	 * @param multiplier The odd number the hash is multiplied by after each base
+	 * @return The hash
+	 */
+	private static long hash(String dNA3to5, long seed, long multiplier) {
+
+		long h = seed ^ dNA3to5.length();
+		for (int i = 0; i < dNA3to5.length(); i++) {
+			h = (h ^ dNA3to5.charAt(i)) * multiplier;
+		}
+		// Mix the bits so every bit of the result depends on every base (the finalizer of MurmurHash3)
+		h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+
+	}
+
+	/**
+	 * This class is one cached result, with what is needed to check it is for the strand being looked up
+	 */
+	private static class Entry {
+
+		/**
+		 * The strand that was run
+		 */
+		private final String dNA3to5;
+		/**
+		 * The second hash of the strand
+		 */
+		private final long hash2;
+		/**
+		 * The result of running it
+		 */
+		private final TranslationResult result;
+
+		/**
+		 * Constructor to create an entry
+		 * @param dNA3to5 The strand that was run
+		 * @param hash2 The second hash of the strand
+		 * @param result The result of running it
+		 */
+		private Entry(String dNA3to5, long hash2, TranslationResult result) {
+
+			this.dNA3to5 = dNA3to5;
+			this.hash2 = hash2;
+			this.result = result;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,487 @@
+/**
+ * An object of this class runs the whole amino acid synthesis process (transcription and translation) on a DNA strand,
+ * without printing anything to the console.
+ *
+ * It keeps no state between runs other than its genetic code and tRNA molecules, which are only ever read, so one engine can be created
+ * once and then shared and used by many threads at the same time.
+ * The genetic code decides which codons are Start and Stop codons and which amino acid each codon codes for. The standard code is used
+ * unless another is given (see GeneticCode).
+ * If the steps should be illustrated, a TranslationObserver (e.g. a ConsoleIllustrator) can be given to run(), and it will be notified
+ * of each step as it happens.
+ * @author Prakash
+ *
+ */
+public class TranslationEngine {
+
+	/**
+	 * The genetic code used to find and translate codons
+	 */
+	private final GeneticCode geneticCode;
+	/**
+	 * An object used to get tRNA molecules, for illustrating translation. It is only read from after being constructed
+	 */
+	private final TRNAList tRNAList;
+	/**
+	 * The amino acid of each codon in the genetic code, indexed by the codon's 6-bit number, so translating a codon is one array read
+	 */
+	private final AminoAcid[] aminoAcids;
+	/**
+	 * The position in AminoAcidList of the amino acid of each codon (or PackedAminoAcidSequence.stop), indexed by the codon's 6-bit number
+	 */
+	private final byte[] aminoAcidPositions;
+	/**
+	 * The amino acid of each codon when it is the first codon translated, which is methionine for every Start codon (see
+	 * GeneticCode.getStartAminoAcid()), indexed by the codon's 6-bit number
+	 */
+	private final AminoAcid[] startAminoAcids;
+	/**
+	 * The position in AminoAcidList of the amino acid of each codon when it is the first codon translated, indexed by the codon's 6-bit number
+	 */
+	private final byte[] startAminoAcidPositions;
+	/**
+	 * The scanner used to find the Start and Stop codons of the genetic code
+	 */
+	private final CodonScanner codonScanner;
+
+	/**
+	 * Constructor to create a translation engine for the standard genetic code, and its tRNA molecules
+	 */
+	public TranslationEngine() {
+
+		this(GeneticCode.standard);
+
+	}
+
+	/**
+	 * Constructor to create a translation engine for a given genetic code, and its tRNA molecules
+	 * @param geneticCode The genetic code
+	 */
+	public TranslationEngine(GeneticCode geneticCode) {
+
+		this.geneticCode = geneticCode;
+		tRNAList = TRNAList.of(geneticCode);
+		aminoAcids = geneticCode.getAminoAcids();
+		aminoAcidPositions = new byte[64];
+		for (int codon = 0; codon < 64; codon++) aminoAcidPositions[codon] = PackedAminoAcidSequence.positionOf(aminoAcids[codon]);
+		startAminoAcids = geneticCode.getStartAminoAcids();
+		startAminoAcidPositions = new byte[64];
+		for (int codon = 0; codon < 64; codon++) startAminoAcidPositions[codon] = PackedAminoAcidSequence.positionOf(startAminoAcids[codon]);
+		codonScanner = new CodonScanner(geneticCode);
+
+	}
+
+	/**
+	 * Accessor method for the genetic code used by the engine
+	 * @return The genetic code
+	 */
+	public GeneticCode getGeneticCode() {
+
+		return geneticCode;
+
+	}
+
+	/**
+	 * Accessor method for the tRNA molecules of the engine's genetic code, which are shared rather than created for each translation
+	 * @return The tRNA list
+	 */
+	public TRNAList getTRNAList() {
+
+		return tRNAList;
+
+	}
+
+	/**
+	 * Method to run transcription and translation on a DNA strand without illustrating any of it
+	 * @param dNA3to5 String representing the DNA strand, with only A,C,T and G
+	 * @return The result, including the mRNA, the indices of the Start and Stop codons, and the amino acid sequence
+	 */
+	public TranslationResult run(String dNA3to5) {
+
+		return run(dNA3to5, null);
+
+	}
+
+	/**
+	 * Method to run transcription and translation on a DNA strand, notifying the given observer of each step
+	 * @param dNA3to5 String representing the DNA strand, with only A,C,T and G
+	 * @param observer The observer to notify of each step, or null to not notify anything
+	 * @return The result, including the mRNA, the indices of the Start and Stop codons, and the amino acid sequence
+	 */
+	public TranslationResult run(String dNA3to5, TranslationObserver observer) {
+
+		// Each stage is measured if StageMetrics is enabled
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+
+		// Transcribe the DNA strand into mRNA
+		if (observer != null) observer.transcriptionStarted(dNA3to5);
+		String mRNA5to3 = transcribe(dNA3to5, observer);
+		startTime = recordStage(StageMetrics.transcription, startTime, startAllocation, dNA3to5.length());
+		startAllocation = StageMetrics.startAllocation();
+
+		// Find the Start codon. If there is none, there is nothing to translate
+		int iAUG = findStartCodon(mRNA5to3);
+		startTime = recordStage(StageMetrics.startCodonSearch, startTime, startAllocation, (iAUG == -1) ? mRNA5to3.length() : iAUG + 3);
+		startAllocation = StageMetrics.startAllocation();
+		if (iAUG == -1) {
+			return new TranslationResult(dNA3to5, mRNA5to3, -1, -1, null);
+		}
+		if (observer != null) observer.startCodonFound(mRNA5to3, iAUG);
+
+		// Find the Stop codon in frame with the Start codon. If there is none, translation would never end so there is no result
+		int iStop = findStopCodon(mRNA5to3, iAUG);
+		startTime = recordStage(StageMetrics.stopCodonSearch, startTime, startAllocation, ((iStop == -1) ? mRNA5to3.length() - iAUG : iStop - iAUG + 3) / 3);
+		startAllocation = StageMetrics.startAllocation();
+		if (iStop == -1) {
+			return new TranslationResult(dNA3to5, mRNA5to3, iAUG, -1, null);
+		}
+		if (observer != null) observer.stopCodonFound(mRNA5to3, iAUG, iStop);
+
+		// Translate the codons from the Start codon up to (not including) the Stop codon
+		AminoAcidSequence aASeq = translate(mRNA5to3, iAUG, iStop, observer);
+		recordStage(StageMetrics.translation, startTime, startAllocation, (iStop - iAUG) / 3);
+
+		return new TranslationResult(dNA3to5, mRNA5to3, iAUG, iStop, aASeq);
+
+	}
+
+	/**
+	 * Method to run transcription and translation on a packed DNA strand.
+	 * The strand is never unpacked into a String: the mRNA is the packed complement, and codons are read from it as 6-bit numbers
+	 * @param dNA3to5 The packed DNA strand
+	 * @return The result, with the packed DNA and mRNA, the indices of the Start and Stop codons, and the amino acid sequence
+	 */
+	public TranslationResult run(PackedStrand dNA3to5) {
+
+		long startTime = StageMetrics.startTime();
+		long startAllocation = StageMetrics.startAllocation();
+
+		// Transcribing a packed strand complements 32 bases at a time
+		PackedStrand mRNA5to3 = dNA3to5.transcribe();
+		startTime = recordStage(StageMetrics.transcription, startTime, startAllocation, dNA3to5.length());
+		startAllocation = StageMetrics.startAllocation();
+
+		int iAUG = findStartCodon(mRNA5to3);
+		startTime = recordStage(StageMetrics.startCodonSearch, startTime, startAllocation, (iAUG == -1) ? mRNA5to3.length() : iAUG + 3);
+		startAllocation = StageMetrics.startAllocation();
+		if (iAUG == -1) {
+			return new TranslationResult(dNA3to5, mRNA5to3, -1, -1, null);
+		}
+
+		int iStop = findStopCodon(mRNA5to3, iAUG);
+		startTime = recordStage(StageMetrics.stopCodonSearch, startTime, startAllocation, ((iStop == -1) ? mRNA5to3.length() - iAUG : iStop - iAUG + 3) / 3);
+		startAllocation = StageMetrics.startAllocation();
+		if (iStop == -1) {
+			return new TranslationResult(dNA3to5, mRNA5to3, iAUG, -1, null);
+		}
+
+		AminoAcidSequence aASeq = translate(mRNA5to3, iAUG, iStop);
+		recordStage(StageMetrics.translation, startTime, startAllocation, (iStop - iAUG) / 3);
+
+		return new TranslationResult(dNA3to5, mRNA5to3, iAUG, iStop, aASeq);
+
+	}
+
+	/**
+	 * Method to create the mRNA complementary to the given DNA strand
+	 * @param dNA3to5 String representing the DNA strand to be transcribed, with only A,C,T and G
+	 * @param observer The observer to notify after each base is added, or null
+	 * @return A string representing the mRNA transcript of the given DNA strand
+	 */
+	public String transcribe(String dNA3to5, TranslationObserver observer) {
+
+		// With nobody to show each step to, the whole strand can be complemented 8 bases at a time
+		if (observer == null) return ComplementKernel.transcribe(dNA3to5);
+
+		// The mRNA is built in an array of the same length as the DNA, instead of by appending to a string
+		char[] mRNA5to3 = new char[dNA3to5.length()];
+
+		// For each base in DNA strand, set the mRNA base as the complementary one
+		for (int i = 0; i < mRNA5to3.length; i++) {
+
+			mRNA5to3[i] = complementToRNA(dNA3to5.charAt(i));
+
+			// Show the observer the mRNA constructed so far
+			if (observer != null) observer.baseTranscribed(dNA3to5, i, java.nio.CharBuffer.wrap(mRNA5to3, 0, i + 1));
+
+		}
+
+		return new String(mRNA5to3);
+
+	}
+
+	/**
+	 * Method to find the index in the mRNA where the first Start codon (AUG in the standard code) occurs
+	 * @param mRNA5to3 String representing the mRNA being searched in for a Start codon
+	 * @return The index at which the Start codon occurs, or -1 if there is no Start codon
+	 */
+	public int findStartCodon(String mRNA5to3) {
+
+		return codonScanner.nextStart(mRNA5to3, 0);
+
+	}
+
+	/**
+	 * Method to find the index in the mRNA of the first Stop codon (UAA, UAG or UGA in the standard code) in frame with the Start codon
+	 * @param mRNA5to3 String representing the mRNA being searched in for a Stop codon
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @return The index at which the Stop codon occurs, or -1 if there is no Stop codon
+	 */
+	public int findStopCodon(String mRNA5to3, int iAUG) {
+
+		return codonScanner.nextStopInFrame(mRNA5to3, iAUG);
+
+	}
+
+	/**
+	 * Method to find the index in a packed mRNA where the first Start codon occurs
+	 * @param mRNA5to3 The packed mRNA being searched in for a Start codon
+	 * @return The index at which the Start codon occurs, or -1 if there is no Start codon
+	 */
+	public int findStartCodon(PackedStrand mRNA5to3) {
+
+		return findStartCodon(mRNA5to3, 0);
+
+	}
+
+	/**
+	 * Method to find the index in a packed mRNA where the first Start codon from a given index occurs, e.g. to find the next gene after
+	 * the Stop codon of one
+	 * @param mRNA5to3 The packed mRNA being searched in for a Start codon
+	 * @param from Index to start searching from
+	 * @return The index at which the Start codon occurs, or -1 if there is no Start codon from that index
+	 */
+	public int findStartCodon(PackedStrand mRNA5to3, int from) {
+
+		return codonScanner.nextStart(mRNA5to3, from);
+
+	}
+
+	/**
+	 * Method to find the index in a packed mRNA of the first Stop codon in frame with the Start codon
+	 * @param mRNA5to3 The packed mRNA being searched in for a Stop codon
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @return The index at which the Stop codon occurs, or -1 if there is no Stop codon
+	 */
+	public int findStopCodon(PackedStrand mRNA5to3, int iAUG) {
+
+		return codonScanner.nextStopInFrame(mRNA5to3, iAUG);
+
+	}
+
+	/**
+	 * Method to put together the amino acid chain coded for by the codons from the Start codon up to the Stop codon
+	 * @param mRNA5to3 String representing the mRNA being translated
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA
+	 * @param observer The observer to notify after each amino acid is added, or null
+	 * @return The amino acid sequence yielded by translation
+	 */
+	public AminoAcidSequence translate(String mRNA5to3, int iAUG, int iStop, TranslationObserver observer) {
+
+		if (observer != null) observer.translationStarted(mRNA5to3, iAUG, iStop);
+
+		// Initialize a list of amino acids
+		AminoAcidSequence outputAASeq = new AminoAcidSequence();
+
+		// Counter of codons, used by the observer
+		int numCurrCodon = 1;
+
+		// For each codon from the Start codon up to the Stop codon
+		for (int i = iAUG; i < iStop; i = i + 3) {
+
+			// Get the tRNA molecule that pairs with this codon, looked up directly from the codon's bases
+			TRNAMolecule tRNACurr = tRNAList.getMolecule(mRNA5to3.charAt(i), mRNA5to3.charAt(i+1), mRNA5to3.charAt(i+2));
+			// The Start codon instead pairs with the initiator tRNA, which carries methionine whichever Start codon it is
+			if (i == iAUG) tRNACurr = tRNAList.getInitiator(TRNAList.codonIndex(mRNA5to3.charAt(i), mRNA5to3.charAt(i+1), mRNA5to3.charAt(i+2)));
+
+			// Insert this tRNA's amino acid at the tail of the list
+			outputAASeq.insert(new DoublyLinkedListNode<AminoAcid>(tRNACurr.getAminoAcid()), outputAASeq.getTail());
+
+			if (observer != null) observer.aminoAcidAdded(numCurrCodon, tRNACurr, outputAASeq);
+			numCurrCodon++;
+
+		}
+
+		return outputAASeq;
+
+	}
+
+	/**
+	 * Method to put together the amino acid chain coded for by the codons of a packed mRNA, from the Start codon up to the Stop codon
+	 * @param mRNA5to3 The packed mRNA being translated
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA
+	 * @return The amino acid sequence yielded by translation
+	 */
+	public AminoAcidSequence translate(PackedStrand mRNA5to3, int iAUG, int iStop) {
+
+		AminoAcidSequence outputAASeq = new AminoAcidSequence();
+
+		for (int i = iAUG; i < iStop; i = i + 3) {
+
+			// Get the amino acid of this codon and insert it at the tail of the list. The Start codon always codes for methionine
+			AminoAcid[] codonAminoAcids = (i == iAUG) ? startAminoAcids : aminoAcids;
+			outputAASeq.insert(new DoublyLinkedListNode<AminoAcid>(codonAminoAcids[mRNA5to3.codonAt(i)]), outputAASeq.getTail());
+
+		}
+
+		return outputAASeq;
+
+	}
+
+	/**
+	 * Method to record a stage that has just finished, if StageMetrics is enabled, and get the start time of the next stage
+	 * @param stage The stage's metrics
+	 * @param startTime The time the stage started
+	 * @param startAllocation The number of bytes the thread had allocated when the stage started
+	 * @param units The number of units the stage processed
+	 * @return The time the next stage starts, or 0 if StageMetrics is not enabled
+	 */
+	private static long recordStage(StageMetrics stage, long startTime, long startAllocation, long units) {
+
+		if (!StageMetrics.enabled) return 0;
+
+		stage.record(startTime, startAllocation, units);
+		return System.nanoTime();
+
+	}
+
+	/**
+	 * Method to find the index in an mRNA stored anywhere (e.g. off the heap) where the first Start codon occurs
+	 * @param mRNA5to3 The mRNA being searched in for a Start codon
+	 * @return The index at which the Start codon occurs, or -1 if there is no Start codon
+	 */
+	public long findStartCodon(Strand mRNA5to3) {
+
+		return codonScanner.nextStart(mRNA5to3, 0);
+
+	}
+
+	/**
+	 * Method to find the index in an mRNA stored anywhere of the first Stop codon in frame with the Start codon
+	 * @param mRNA5to3 The mRNA being searched in for a Stop codon
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @return The index at which the Stop codon occurs, or -1 if there is no Stop codon
+	 */
+	public long findStopCodon(Strand mRNA5to3, long iAUG) {
+
+		return codonScanner.nextStopInFrame(mRNA5to3, iAUG);
+
+	}
+
+	/**
+	 * Method to put together the amino acid chain coded for by the codons of an mRNA stored anywhere, from the Start codon up to the Stop codon
+	 * @param mRNA5to3 The mRNA being translated
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA
+	 * @return The amino acid sequence yielded by translation
+	 */
+	public AminoAcidSequence translate(Strand mRNA5to3, long iAUG, long iStop) {
+
+		AminoAcidSequence outputAASeq = new AminoAcidSequence();
+
+		for (long i = iAUG; i < iStop; i = i + 3) {
+
+			// The Start codon always codes for methionine
+			AminoAcid[] codonAminoAcids = (i == iAUG) ? startAminoAcids : aminoAcids;
+			outputAASeq.insert(new DoublyLinkedListNode<AminoAcid>(codonAminoAcids[mRNA5to3.codonAt(i)]), outputAASeq.getTail());
+
+		}
+
+		return outputAASeq;
+
+	}
+
+	/**
+	 * Method to put together the amino acid chain coded for by the codons of an mRNA stored anywhere, counting each codon read as it goes,
+	 * so the codon usage of an ORF comes out of the same pass as its translation (see KmerCounts.fromCodonUsage())
+	 * @param mRNA5to3 The mRNA being translated
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA. The Stop codon is counted too, if the mRNA is long enough to hold it
+	 * @param codonUsage The count of each codon, indexed by its position in the chart used by TRNAList (64 counts), which is added to
+	 * @return The amino acid sequence yielded by translation
+	 */
+	public AminoAcidSequence translate(Strand mRNA5to3, long iAUG, long iStop, long[] codonUsage) {
+
+		AminoAcidSequence outputAASeq = new AminoAcidSequence();
+
+		for (long i = iAUG; i < iStop; i = i + 3) {
+
+			int codon = mRNA5to3.codonAt(i);
+			codonUsage[codon]++;
+			// The Start codon always codes for methionine
+			AminoAcid[] codonAminoAcids = (i == iAUG) ? startAminoAcids : aminoAcids;
+			outputAASeq.insert(new DoublyLinkedListNode<AminoAcid>(codonAminoAcids[codon]), outputAASeq.getTail());
+
+		}
+
+		if (iStop + 3 <= mRNA5to3.size()) codonUsage[mRNA5to3.codonAt(iStop)]++;
+
+		return outputAASeq;
+
+	}
+
+	/**
+	 * Method to put together the amino acid chain coded for by the codons of an mRNA stored anywhere, from the Start codon up to the
+	 * Stop codon, as a PackedAminoAcidSequence taking one byte per amino acid instead of a linked list node
+	 * @param mRNA5to3 The mRNA being translated
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA
+	 * @return The amino acid sequence yielded by translation
+	 */
+	public PackedAminoAcidSequence translatePacked(Strand mRNA5to3, long iAUG, long iStop) {
+
+		PackedAminoAcidSequence outputAASeq = new PackedAminoAcidSequence((int) Math.min((iStop - iAUG) / 3, Integer.MAX_VALUE - 8));
+
+		for (long i = iAUG; i < iStop; i = i + 3) {
+
+			// The Start codon always codes for methionine
+			byte[] codonPositions = (i == iAUG) ? startAminoAcidPositions : aminoAcidPositions;
+			outputAASeq.appendPosition(codonPositions[mRNA5to3.codonAt(i)]);
+
+		}
+
+		return outputAASeq;
+
+	}
+
+	/**
+	 * Method to check whether a DNA strand has only the bases that can be used in DNA (A,C,T, and G), without printing anything
+	 * @param dNA3to5 String representing the DNA strand
+	 * @return true if the DNA strand is not empty and has only A,C,T and/or G. false otherwise
+	 */
+	public static boolean isValidDNA(String dNA3to5) {
+
+		if (dNA3to5.isEmpty()) return false;
+
+		for (int i = 0; i < dNA3to5.length(); i++) {
+			char base = dNA3to5.charAt(i);
+			if (base != 'A' && base != 'C' && base != 'T' && base != 'G') return false;
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Method to get the RNA base complementary to a given base.
+	 * This works for both DNA bases (transcription) and RNA bases (finding an anticodon) since A is paired with U in RNA
+	 * @param base The DNA or RNA base
+	 * @return The complementary RNA base
+	 */
+	static char complementToRNA(char base) {
+
+		if (base == 'A') {
+			return 'U';
+		} else if (base == 'C') {
+			return 'G';
+		} else if (base == 'T' || base == 'U') {
+			return 'A';
+		} else {
+			return 'C';
+		}
+
+	}
+
+}
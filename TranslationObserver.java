@@ -0,0 +1,62 @@
+/**
+ * An object of a class implementing this interface can be given to a TranslationEngine to be notified of each step
+ * of transcription and translation as it happens.
+ * This is how the steps get illustrated (see ConsoleIllustrator) without the engine itself printing anything.
+ * Every method does nothing by default, so an observer only needs to implement the steps it is interested in.
+ * @author Prakash
+ *
+ */
+public interface TranslationObserver {
+
+	/**
+	 * Method called once, before the first base of the DNA strand is transcribed
+	 * @param dNA3to5 String representing the DNA strand about to be transcribed
+	 */
+	default void transcriptionStarted(String dNA3to5) {
+	}
+
+	/**
+	 * Method called after each base is added to the mRNA being constructed
+	 * @param dNA3to5 String representing the DNA strand being transcribed
+	 * @param iBase Index of the base that was just transcribed
+	 * @param mRNA5to3SoFar The mRNA that has so far been constructed, including the base just added
+	 */
+	default void baseTranscribed(String dNA3to5, int iBase, CharSequence mRNA5to3SoFar) {
+	}
+
+	/**
+	 * Method called once the Start codon has been found in the mRNA
+	 * @param mRNA5to3 String representing the mRNA transcript
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 */
+	default void startCodonFound(String mRNA5to3, int iAUG) {
+	}
+
+	/**
+	 * Method called once the Stop codon has been found in the mRNA
+	 * @param mRNA5to3 String representing the mRNA transcript
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA
+	 */
+	default void stopCodonFound(String mRNA5to3, int iAUG, int iStop) {
+	}
+
+	/**
+	 * Method called once, before the first amino acid is added to the amino acid chain
+	 * @param mRNA5to3 String representing the mRNA being translated
+	 * @param iAUG Index at which the Start codon occurs in the mRNA
+	 * @param iStop Index at which the Stop codon occurs in the mRNA
+	 */
+	default void translationStarted(String mRNA5to3, int iAUG, int iStop) {
+	}
+
+	/**
+	 * Method called after each amino acid is added to the amino acid chain
+	 * @param numCodon The number of the codon that was just translated (the Start codon is #1)
+	 * @param tRNA The tRNA molecule that brought the amino acid
+	 * @param aASeqSoFar The amino acid sequence that has so far been put together
+	 */
+	default void aminoAcidAdded(int numCodon, TRNAMolecule tRNA, AminoAcidSequence aASeqSoFar) {
+	}
+
+}
@@ -0,0 +1,119 @@
+/**
+ * This class represents the outcome of running a DNA strand through a TranslationEngine.
+ * It holds the DNA strand, its mRNA transcript, where the Start and Stop codons were found, and the resulting amino acid sequence.
+ * Objects of this class cannot be changed once created.
+ * @author Prakash
+ *
+ */
+public class TranslationResult {
+
+	/**
+	 * The DNA strand that was transcribed (a String, or a PackedStrand if the engine was given one)
+	 */
+	private final CharSequence dNA3to5;
+	/**
+	 * The mRNA transcript of the DNA strand (a String, or a PackedStrand if the engine was given one)
+	 */
+	private final CharSequence mRNA5to3;
+	/**
+	 * Index at which the Start codon occurs in the mRNA, or -1 if there is no Start codon
+	 */
+	private final int iStartCodon;
+	/**
+	 * Index at which the Stop codon occurs in the mRNA, or -1 if there is no Stop codon after the Start codon
+	 */
+	private final int iStopCodon;
+	/**
+	 * The amino acid sequence yielded by translation, or null if there was no Start or no Stop codon
+	 */
+	private final AminoAcidSequence aminoAcidSequence;
+
+	/**
+	 * Constructor to initialize the result of a run through the engine
+	 * @param dNA3to5 The DNA strand that was transcribed
+	 * @param mRNA5to3 The mRNA transcript of the DNA strand
+	 * @param iStartCodon Index of the Start codon in the mRNA, or -1
+	 * @param iStopCodon Index of the Stop codon in the mRNA, or -1
+	 * @param aminoAcidSequence The amino acid sequence yielded by translation, or null
+	 */
+	public TranslationResult(CharSequence dNA3to5, CharSequence mRNA5to3, int iStartCodon, int iStopCodon, AminoAcidSequence aminoAcidSequence) {
+
+		this.dNA3to5 = dNA3to5;
+		this.mRNA5to3 = mRNA5to3;
+		this.iStartCodon = iStartCodon;
+		this.iStopCodon = iStopCodon;
+		this.aminoAcidSequence = aminoAcidSequence;
+
+	}
+
+	/**
+	 * Accessor method for the DNA strand
+	 * @return The DNA strand that was transcribed
+	 */
+	public CharSequence getDNA() {
+
+		return dNA3to5;
+
+	}
+
+	/**
+	 * Accessor method for the mRNA transcript
+	 * @return The mRNA transcript of the DNA strand
+	 */
+	public CharSequence getMRNA() {
+
+		return mRNA5to3;
+
+	}
+
+	/**
+	 * Accessor method for the index of the Start codon
+	 * @return Index of the Start codon in the mRNA, or -1 if there is none
+	 */
+	public int getStartCodonIndex() {
+
+		return iStartCodon;
+
+	}
+
+	/**
+	 * Accessor method for the index of the Stop codon
+	 * @return Index of the Stop codon in the mRNA, or -1 if there is none
+	 */
+	public int getStopCodonIndex() {
+
+		return iStopCodon;
+
+	}
+
+	/**
+	 * Accessor method for the amino acid sequence
+	 * @return The amino acid sequence yielded by translation, or null if there was no Start or no Stop codon
+	 */
+	public AminoAcidSequence getAminoAcidSequence() {
+
+		return aminoAcidSequence;
+
+	}
+
+	/**
+	 * Method to check whether a Start codon was found
+	 * @return true if the mRNA has a Start codon, false if it does not
+	 */
+	public boolean hasStartCodon() {
+
+		return iStartCodon != -1;
+
+	}
+
+	/**
+	 * Method to check whether a Stop codon was found after the Start codon
+	 * @return true if the mRNA has a Stop codon in frame with the Start codon, false if it does not
+	 */
+	public boolean hasStopCodon() {
+
+		return iStopCodon != -1;
+
+	}
+
+}
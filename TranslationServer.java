@@ -0,0 +1,484 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An object of this class is an HTTP server that runs transcription and translation for any number of clients, so the simulator can be
+ * kept running as a service instead of being started for every DNA strand.
+ *
+ * Each endpoint takes a DNA strand as the body of a POST request (line breaks, other whitespace and lower case bases are allowed) and
+ * answers in plain text:
+ * -POST /transcribe answers with the mRNA
+ * -POST /translate answers with the indices of the Start and Stop codons and the amino acid sequence, as one-letter codes or, with
+ *  ?format=three or ?format=full, as three-letter codes or full names
+ * -POST /orfs answers with the protein of every open reading frame (see OrfFinder) in FASTA format. ?minCodons=N sets the fewest codons
+ *  an ORF needs to be included (30 by default)
+ * /translate and /orfs use the server's default genetic code (the standard code, unless another was chosen when it was started, e.g. with
+ * "Main --code N --serve"), or with ?code=N the built-in code the NCBI numbers N (see GeneticCode).
+ * Strands with invalid characters get 400 Bad Request saying where they are, and bodies over the size limit get 413 Payload Too Large.
+ * If handling a request fails before any of the answer is sent, it gets 500 Internal Server Error.
+ * Answers are sent with chunked transfer encoding as they are written, so a long answer is never held in memory as one string.
+ *
+ * Each request is handled on its own virtual thread when the JVM has them (Java 21 and later), and on a thread from a cached pool
+ * otherwise. The engine for each genetic code is shared by all requests.
+ * @author Prakash
+ *
+ */
+public class TranslationServer {
+
+	/**
+	 * The port used when none is given
+	 */
+	static final int defaultPort = 8080;
+	/**
+	 * The largest request body accepted when no limit is given, in bytes
+	 */
+	static final int defaultMaxBodyBytes = 64 << 20;
+	/**
+	 * The fewest codons an ORF needs when no minimum is given
+	 */
+	private static final int defaultMinCodons = 30;
+	/**
+	 * The number of bases written to the response at a time by /transcribe
+	 */
+	private static final int transcribeChunkSize = 1 << 16;
+
+	/**
+	 * The HTTP server
+	 */
+	private final HttpServer server;
+	/**
+	 * The executor each request is handled on
+	 */
+	private final ExecutorService executor;
+	/**
+	 * The largest request body accepted, in bytes
+	 */
+	private final int maxBodyBytes;
+	/**
+	 * The engine used to run requests with each genetic code, by the code's number. An engine is created the first time its code is asked for
+	 */
+	private final ConcurrentHashMap<Integer, TranslationEngine> engines;
+	/**
+	 * The engine used to run requests that do not ask for a genetic code
+	 */
+	private final TranslationEngine defaultEngine;
+	/**
+	 * The object used to check and normalize the DNA strands in requests
+	 */
+	private final DNAValidator validator;
+
+	/**
+	 * Constructor to create a server listening on a port, using the standard genetic code by default. It does not handle requests until
+	 * start() is called
+	 * @param port The port to listen on, or 0 for any free port
+	 * @param maxBodyBytes The largest request body accepted, in bytes
+	 * @throws IOException If the server cannot listen on the port
+	 */
+	public TranslationServer(int port, int maxBodyBytes) throws IOException {
+
+		this(port, maxBodyBytes, new TranslationEngine());
+
+	}
+
+	/**
+	 * Constructor to create a server listening on a port, with a given engine for requests that do not ask for a genetic code. It does
+	 * not handle requests until start() is called
+	 * @param port The port to listen on, or 0 for any free port
+	 * @param maxBodyBytes The largest request body accepted, in bytes
+	 * @param defaultEngine The engine used when a request has no ?code=N
+	 * @throws IOException If the server cannot listen on the port
+	 */
+	public TranslationServer(int port, int maxBodyBytes, TranslationEngine defaultEngine) throws IOException {
+
+		// One byte more than the limit is read to detect bodies that are too long, so that must still fit in an array
+		if (maxBodyBytes < 1 || maxBodyBytes > Integer.MAX_VALUE - 16) throw new IllegalArgumentException("Invalid body size limit: " + maxBodyBytes + '.');
+
+		this.maxBodyBytes = maxBodyBytes;
+		this.engines = new ConcurrentHashMap<Integer, TranslationEngine>();
+		this.defaultEngine = defaultEngine;
+		// ?code=N with the default engine's code gets the default engine, and ?code=1 the standard code if the default is another code
+		engines.put(defaultEngine.getGeneticCode().getId(), defaultEngine);
+		engines.putIfAbsent(GeneticCode.standard.getId(), new TranslationEngine());
+		this.validator = new DNAValidator(true, 20);
+
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		executor = newRequestExecutor();
+		server.setExecutor(executor);
+		server.createContext("/transcribe", new Endpoint(this::transcribe));
+		server.createContext("/translate", new Endpoint(this::translate));
+		server.createContext("/orfs", new Endpoint(this::findOrfs));
+
+	}
+
+	/**
+	 * Main function to run a server until the JVM is stopped
+	 * @param args Optionally the port, then optionally the largest request body accepted in bytes
+	 * @throws IOException If the server cannot listen on the port
+	 */
+	public static void main(String[] args) throws IOException {
+
+		int status = run(args, new TranslationEngine());
+		if (status != 0) System.exit(status);
+
+	}
+
+	/**
+	 * Method to run a server with a given default engine until the JVM is stopped, e.g. with the genetic code chosen by "Main --code N"
+	 * @param args Optionally the port, then optionally the largest request body accepted in bytes
+	 * @param defaultEngine The engine used for requests that do not ask for a genetic code
+	 * @return The exit status: 0 if the server is running (it keeps running after this returns), 2 if the arguments could not be used
+	 * @throws IOException If the server cannot listen on the port
+	 */
+	public static int run(String[] args, TranslationEngine defaultEngine) throws IOException {
+
+		TranslationServer server;
+		try {
+			int port = (args.length > 0) ? Integer.parseInt(args[0]) : defaultPort;
+			int maxBodyBytes = (args.length > 1) ? Integer.parseInt(args[1]) : defaultMaxBodyBytes;
+			server = new TranslationServer(port, maxBodyBytes, defaultEngine);
+		} catch (NumberFormatException e) {
+			System.err.println("The port and the request size limit must be whole numbers.");
+			System.err.println(Main.usage);
+			return 2;
+		} catch (IllegalArgumentException e) {
+			// Also thrown for ports out of range
+			System.err.println(e.getMessage());
+			System.err.println(Main.usage);
+			return 2;
+		}
+
+		server.start();
+		System.out.println("Listening on port " + server.getPort() + " (POST /transcribe, /translate, /orfs)");
+		return 0;
+
+	}
+
+	/**
+	 * Method to start handling requests
+	 */
+	public void start() {
+
+		server.start();
+
+	}
+
+	/**
+	 * Method to stop the server, letting requests in progress finish for up to a given time
+	 * @param delaySeconds The most seconds to wait for requests in progress
+	 */
+	public void stop(int delaySeconds) {
+
+		server.stop(delaySeconds);
+		executor.shutdown();
+
+	}
+
+	/**
+	 * Accessor method for the port the server is listening on
+	 * @return The port
+	 */
+	public int getPort() {
+
+		return server.getAddress().getPort();
+
+	}
+
+	/**
+	 * Method to handle POST /transcribe, writing the mRNA a chunk at a time
+	 * @param dNA3to5 The normalized bases of the DNA strand, which are transcribed in place
+	 * @param length The number of bases
+	 * @param exchange The request and response
+	 * @throws IOException If writing the response fails
+	 */
+	private void transcribe(byte[] dNA3to5, int length, HttpExchange exchange) throws IOException {
+
+		OutputStream out = startResponse(exchange, 200);
+		for (int from = 0; from < length; from = from + transcribeChunkSize) {
+			int chunkLength = Math.min(transcribeChunkSize, length - from);
+			ComplementKernel.dNAToRNA(dNA3to5, from, dNA3to5, from, chunkLength);
+			out.write(dNA3to5, from, chunkLength);
+		}
+		out.write('\n');
+		out.close();
+
+	}
+
+	/**
+	 * Method to handle POST /translate, writing the indices of the Start and Stop codons and the amino acid sequence
+	 * @param dNA3to5 The normalized bases of the DNA strand
+	 * @param length The number of bases
+	 * @param exchange The request and response
+	 * @throws IOException If writing the response fails
+	 */
+	private void translate(byte[] dNA3to5, int length, HttpExchange exchange) throws IOException {
+
+		TranslationEngine engine = getEngine(exchange);
+		if (engine == null) return;
+
+		GeneticCode code = engine.getGeneticCode();
+		TranslationResult result = engine.run(new String(dNA3to5, 0, length, StandardCharsets.ISO_8859_1));
+		if (!result.hasStartCodon()) {
+			sendError(exchange, 422, "The inputted DNA strand yielded no START codon (" + GeneticCode.listCodons(code.getStartCodons(), false, "") + ").");
+			return;
+		}
+		if (!result.hasStopCodon()) {
+			sendError(exchange, 422, "The inputted DNA strand yielded no STOP codon (" + GeneticCode.listCodons(code.getStopCodons(), false, "") + ").");
+			return;
+		}
+
+		String format = getQueryParameter(exchange, "format");
+		Writer out = new BufferedWriter(new OutputStreamWriter(startResponse(exchange, 200), StandardCharsets.US_ASCII), 1 << 16);
+		out.write("start\t" + result.getStartCodonIndex() + "\n");
+		out.write("stop\t" + result.getStopCodonIndex() + "\n");
+		out.write("protein\t");
+		AminoAcidSequence aASeq = result.getAminoAcidSequence();
+		if ("three".equals(format)) {
+			aASeq.writeThreeLetter(out);
+		} else if ("full".equals(format)) {
+			aASeq.writeFullName(out);
+		} else {
+			aASeq.writeOneLetter(out);
+		}
+		out.write('\n');
+		out.close();
+
+	}
+
+	/**
+	 * Method to handle POST /orfs, writing the protein of each ORF as a FASTA record named after the ORF
+	 * @param dNA3to5 The normalized bases of the DNA strand
+	 * @param length The number of bases
+	 * @param exchange The request and response
+	 * @throws IOException If writing the response fails
+	 */
+	private void findOrfs(byte[] dNA3to5, int length, HttpExchange exchange) throws IOException {
+
+		TranslationEngine engine = getEngine(exchange);
+		if (engine == null) return;
+
+		int minCodons = defaultMinCodons;
+		String minCodonsParameter = getQueryParameter(exchange, "minCodons");
+		if (minCodonsParameter != null) {
+			try {
+				minCodons = Integer.parseInt(minCodonsParameter);
+			} catch (NumberFormatException e) {
+				sendError(exchange, 400, "Invalid minCodons: " + minCodonsParameter);
+				return;
+			}
+		}
+
+		PackedStrand packed = PackedStrand.fromString(new String(dNA3to5, 0, length, StandardCharsets.ISO_8859_1));
+		List<OpenReadingFrame> orfs = new OrfFinder(minCodons, engine.getGeneticCode(), ForkJoinPool.commonPool()).findAll(packed);
+
+		ProteinFastaWriter out = new ProteinFastaWriter(startResponse(exchange, 200), null, 60);
+		for (OpenReadingFrame orf : orfs) {
+			out.write(orf.toString(), orf.translate(engine));
+		}
+		out.close();
+
+	}
+
+	/**
+	 * Method to get the engine for the genetic code asked for by a request, sending 400 Bad Request if there is no such code
+	 * @param exchange The request and response
+	 * @return The engine, or null if the error has been sent
+	 * @throws IOException If writing the response fails
+	 */
+	private TranslationEngine getEngine(HttpExchange exchange) throws IOException {
+
+		String codeParameter = getQueryParameter(exchange, "code");
+		if (codeParameter == null) return defaultEngine;
+
+		try {
+			int id = Integer.parseInt(codeParameter);
+			return engines.computeIfAbsent(id, key -> new TranslationEngine(GeneticCode.get(key)));
+		} catch (IllegalArgumentException e) {
+			// Also thrown for numbers that are not built-in codes
+			sendError(exchange, 400, "Invalid code: " + codeParameter);
+			return null;
+		}
+
+	}
+
+	/**
+	 * Method to send the response headers for a chunked plain text response
+	 * @param exchange The request and response
+	 * @param status The HTTP status code
+	 * @return The stream to write the response body to
+	 * @throws IOException If sending the headers fails
+	 */
+	private static OutputStream startResponse(HttpExchange exchange, int status) throws IOException {
+
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+		// A length of 0 means the length is not known yet, so the body is sent in chunks as it is written
+		exchange.sendResponseHeaders(status, 0);
+		return exchange.getResponseBody();
+
+	}
+
+	/**
+	 * Method to send a response with an error message
+	 * @param exchange The request and response
+	 * @param status The HTTP status code
+	 * @param message The error message
+	 * @throws IOException If sending the response fails
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+
+		byte[] body = (message + "\n").getBytes(StandardCharsets.US_ASCII);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+
+	}
+
+	/**
+	 * Method to get the value of a query parameter of a request
+	 * @param exchange The request and response
+	 * @param name The name of the parameter
+	 * @return The value, or null if the request has no such parameter
+	 */
+	private static String getQueryParameter(HttpExchange exchange, String name) {
+
+		String query = exchange.getRequestURI().getQuery();
+		if (query == null) return null;
+
+		for (String parameter : query.split("&")) {
+			int iEquals = parameter.indexOf('=');
+			if (iEquals > 0 && parameter.substring(0, iEquals).equals(name)) return parameter.substring(iEquals + 1);
+		}
+		return null;
+
+	}
+
+	/**
+	 * Method to create the executor requests are handled on: one virtual thread per request if the JVM has virtual threads,
+	 * or else a cached pool of daemon threads.
+	 * Virtual threads are looked up by reflection, so this class can still be compiled and run on Java versions before 21
+	 * @return The executor
+	 */
+	private static ExecutorService newRequestExecutor() {
+
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "translation-server");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+	}
+
+	/**
+	 * This interface is the part of an endpoint that differs between endpoints: what is done with a valid DNA strand
+	 */
+	private interface StrandHandler {
+
+		/**
+		 * Method to answer a request with a valid DNA strand
+		 * @param dNA3to5 The normalized bases of the DNA strand. The handler may change them
+		 * @param length The number of bases
+		 * @param exchange The request and response
+		 * @throws IOException If writing the response fails
+		 */
+		void handle(byte[] dNA3to5, int length, HttpExchange exchange) throws IOException;
+
+	}
+
+	/**
+	 * This class is the part of an endpoint shared by all of them: checking the method, reading the body within the size limit,
+	 * and checking and normalizing the DNA strand in it
+	 */
+	private class Endpoint implements HttpHandler {
+
+		/**
+		 * What is done with a valid DNA strand
+		 */
+		private final StrandHandler strandHandler;
+
+		/**
+		 * Constructor to create an endpoint
+		 * @param strandHandler What is done with a valid DNA strand
+		 */
+		private Endpoint(StrandHandler strandHandler) {
+
+			this.strandHandler = strandHandler;
+
+		}
+
+		/**
+		 * Method to handle one request
+		 */
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+
+			try {
+				if (!exchange.getRequestMethod().equals("POST")) {
+					exchange.getResponseHeaders().set("Allow", "POST");
+					sendError(exchange, 405, "Only POST is supported.");
+					return;
+				}
+
+				// Refuse bodies that say they are too long before reading anything
+				String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+				try {
+					if (contentLength != null && Long.parseLong(contentLength) > maxBodyBytes) {
+						sendError(exchange, 413, "The DNA strand is longer than the limit of " + maxBodyBytes + " bytes.");
+						return;
+					}
+				} catch (NumberFormatException e) {
+					sendError(exchange, 400, "Invalid Content-Length.");
+					return;
+				}
+
+				// Read one byte more than the limit, to know whether the body went past it (a chunked request has no Content-Length)
+				InputStream in = exchange.getRequestBody();
+				byte[] body = in.readNBytes(maxBodyBytes + 1);
+				if (body.length > maxBodyBytes) {
+					sendError(exchange, 413, "The DNA strand is longer than the limit of " + maxBodyBytes + " bytes.");
+					return;
+				}
+
+				ValidationReport report = validator.validate(body, 0, body.length);
+				if (!report.isValid()) {
+					sendError(exchange, 400, "Invalid character(s) used: " + report);
+					return;
+				}
+				if (report.getLength() == 0) {
+					sendError(exchange, 400, "The DNA strand is empty.");
+					return;
+				}
+
+				strandHandler.handle(body, (int) report.getLength(), exchange);
+			} catch (RuntimeException e) {
+				// A failure in the server itself gets 500 Internal Server Error, unless part of the answer was already sent, in which case
+				// the answer can only be cut short
+				System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+				if (exchange.getResponseCode() == -1) sendError(exchange, 500, "The request could not be handled.");
+			} finally {
+				exchange.close();
+			}
+
+		}
+
+	}
+
+}
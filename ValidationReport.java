@@ -0,0 +1,142 @@
+/**
+ * This class represents the outcome of checking a DNA strand with DNAValidator.
+ * It holds how many characters were not bases, the positions and characters of the first of them, and the strand after normalizing
+ * (if that was asked for and the strand was valid).
+ * Objects of this class cannot be changed once created.
+ * @author Prakash
+ *
+ */
+public class ValidationReport {
+
+	/**
+	 * The number of characters in the strand that are not bases
+	 */
+	private final long numInvalid;
+	/**
+	 * The indices in the strand (as given, before normalizing) of the first characters that are not bases
+	 */
+	private final long[] invalidPositions;
+	/**
+	 * The first characters that are not bases, in the same order as their positions
+	 */
+	private final char[] invalidChars;
+	/**
+	 * The number of bases in the strand after normalizing (whitespace removed)
+	 */
+	private final long length;
+	/**
+	 * The normalized strand, or null if the strand was given as bytes or is not valid
+	 */
+	private final String normalized;
+
+	/**
+	 * Constructor to initialize a report
+	 * @param numInvalid The number of characters that are not bases
+	 * @param invalidPositions The positions of the first characters that are not bases. The report keeps this array, so it must not be changed after
+	 * @param invalidChars The first characters that are not bases. The report keeps this array, so it must not be changed after
+	 * @param length The number of bases after normalizing
+	 * @param normalized The normalized strand, or null
+	 */
+	ValidationReport(long numInvalid, long[] invalidPositions, char[] invalidChars, long length, String normalized) {
+
+		this.numInvalid = numInvalid;
+		this.invalidPositions = invalidPositions;
+		this.invalidChars = invalidChars;
+		this.length = length;
+		this.normalized = normalized;
+
+	}
+
+	/**
+	 * Method to check whether the strand had only bases in it
+	 * @return true if there were no invalid characters, false otherwise
+	 */
+	public boolean isValid() {
+
+		return numInvalid == 0;
+
+	}
+
+	/**
+	 * Accessor method for the number of invalid characters. This counts all of them, even those past the reported ones
+	 * @return The number of characters that are not bases
+	 */
+	public long getNumInvalid() {
+
+		return numInvalid;
+
+	}
+
+	/**
+	 * Accessor method for the number of invalid characters whose positions were kept
+	 * @return The number of reported invalid characters
+	 */
+	public int getNumReported() {
+
+		return invalidPositions.length;
+
+	}
+
+	/**
+	 * Accessor method for the position of a reported invalid character
+	 * @param i Which reported character, from 0 to getNumReported() - 1
+	 * @return Its index in the strand as it was given
+	 */
+	public long getInvalidPosition(int i) {
+
+		return invalidPositions[i];
+
+	}
+
+	/**
+	 * Accessor method for a reported invalid character
+	 * @param i Which reported character, from 0 to getNumReported() - 1
+	 * @return The character
+	 */
+	public char getInvalidChar(int i) {
+
+		return invalidChars[i];
+
+	}
+
+	/**
+	 * Accessor method for the number of bases after normalizing
+	 * @return The number of bases, not counting whitespace that was removed
+	 */
+	public long getLength() {
+
+		return length;
+
+	}
+
+	/**
+	 * Accessor method for the normalized strand
+	 * If nothing needed to be changed, this is the same String object that was checked, not a copy
+	 * @return The strand in upper case without whitespace, or null if it was not valid or was given as bytes
+	 */
+	public String getNormalized() {
+
+		return normalized;
+
+	}
+
+	/**
+	 * A string describing the invalid characters, e.g. "'X' at base #4, 'N' at base #9", with "and N more" if not all were reported
+	 */
+	public String toString() {
+
+		if (numInvalid == 0) return "No invalid characters";
+
+		StringBuilder str1 = new StringBuilder();
+		for (int i = 0; i < invalidPositions.length; i++) {
+			if (i > 0) str1.append(", ");
+			str1.append('\'').append(invalidChars[i]).append("' at base #").append(invalidPositions[i] + 1);
+		}
+		if (numInvalid > invalidPositions.length) {
+			str1.append(" and ").append(numInvalid - invalidPositions.length).append(" more");
+		}
+		return str1.toString();
+
+	}
+
+}
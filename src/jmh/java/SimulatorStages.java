@@ -0,0 +1,216 @@
+import java.util.Random;
+
+/**
+ * This class runs the stages of the simulator measured by benchmark.PipelineBenchmark, on the inputs built for one strand.
+ * It is in the default package with the simulator's classes so it can call them (see benchmark.PipelineStages).
+ * @author Prakash
+ *
+ */
+public class SimulatorStages implements benchmark.PipelineStages {
+
+	/**
+	 * The DNA strand
+	 */
+	private String dNA3to5;
+	/**
+	 * The mRNA transcript of the DNA strand
+	 */
+	private String mRNA5to3;
+	/**
+	 * Index of the Start codon in the mRNA
+	 */
+	private int iAUG;
+	/**
+	 * Index of the Stop codon in the mRNA
+	 */
+	private int iStop;
+	/**
+	 * The codons from the Start codon up to the Stop codon, to refill the queue that Main.translate() uses up
+	 */
+	private String[] codons;
+	/**
+	 * The amino acid sequence translated from the mRNA
+	 */
+	private AminoAcidSequence aASeq;
+	/**
+	 * The number of codons RandomDNAStrandGenerator is asked for to make a strand of about the same length
+	 */
+	private int numCodonsDNA;
+	/**
+	 * A cache that already holds the result of the DNA strand
+	 */
+	private TranslationCache cache;
+
+	/**
+	 * Method to build the inputs of every stage for a strand
+	 * @param length The length of the strand
+	 */
+	@Override
+	public void prepare(int length) {
+
+		dNA3to5 = makeStrand(length, 42);
+		mRNA5to3 = Main.engine.transcribe(dNA3to5, null);
+		iAUG = Main.engine.findStartCodon(mRNA5to3);
+		iStop = Main.engine.findStopCodon(mRNA5to3, iAUG);
+		codons = new String[(iStop - iAUG) / 3];
+		for (int i = 0; i < codons.length; i++) codons[i] = mRNA5to3.substring(iAUG + 3 * i, iAUG + 3 * i + 3);
+		aASeq = Main.engine.translate(mRNA5to3, iAUG, iStop, null);
+		numCodonsDNA = length / 3 - 2;
+		cache = new TranslationCache(Main.engine, 16, Long.MAX_VALUE);
+		cache.run(dNA3to5);
+
+	}
+
+	/**
+	 * Method to run Main.checkOnlyACTG() on the DNA strand
+	 * @return Whether the DNA strand has only A,C,T and G
+	 */
+	@Override
+	public boolean checkOnlyACTG() {
+
+		return Main.checkOnlyACTG(dNA3to5);
+
+	}
+
+	/**
+	 * Method to run Main.transcribe() on the DNA strand
+	 * @return The mRNA
+	 */
+	@Override
+	public String transcribe() {
+
+		return Main.transcribe(dNA3to5);
+
+	}
+
+	/**
+	 * Method to run Main.findStartCodon() on the mRNA
+	 * @return The index of the Start codon
+	 */
+	@Override
+	public int findStartCodon() {
+
+		return Main.findStartCodon(mRNA5to3);
+
+	}
+
+	/**
+	 * Method to run Main.queueCodons() on the mRNA
+	 * @return The queue of codons
+	 */
+	@Override
+	public Object queueCodons() {
+
+		return Main.queueCodons(mRNA5to3, iAUG);
+
+	}
+
+	/**
+	 * Method to fill a queue with the codons and run Main.translate() on it
+	 * @return The amino acid sequence
+	 */
+	@Override
+	public Object translate() {
+
+		Queue<String> codonQueue = new Queue<String>();
+		for (String codon : codons) codonQueue.enqueue(codon);
+		return Main.translate(codonQueue, iAUG, iStop, mRNA5to3);
+
+	}
+
+	/**
+	 * Method to run AminoAcidSequence.updateSequenceStrings() on the amino acid sequence
+	 * @return The string of one-letter codes
+	 */
+	@Override
+	public String updateSequenceStrings() {
+
+		aASeq.updateSequenceStrings();
+		return aASeq.getStrOneLetter();
+
+	}
+
+	/**
+	 * Method to generate a random DNA strand with about as many codons as the DNA strand
+	 * @return The generated DNA strand
+	 */
+	@Override
+	public String getStrandDNA() {
+
+		return new RandomDNAStrandGenerator(0, numCodonsDNA, 0).getStrandDNA();
+
+	}
+
+	/**
+	 * Method to create the tRNA molecules of the standard genetic code
+	 * @return The tRNA list
+	 */
+	@Override
+	public Object constructTRNAList() {
+
+		return new TRNAList();
+
+	}
+
+	/**
+	 * Method to run the DNA strand through Main's engine
+	 * @return The result
+	 */
+	@Override
+	public Object engineRun() {
+
+		return Main.engine.run(dNA3to5);
+
+	}
+
+	/**
+	 * Method to get the result of the DNA strand from the cache holding it
+	 * @return The result
+	 */
+	@Override
+	public Object cacheHit() {
+
+		return cache.run(dNA3to5);
+
+	}
+
+	/**
+	 * Method to make a valid DNA strand of a given length: a tenth of it before the Start codon DNA, then codons up to a Stop codon DNA
+	 * at the very end. This is built directly rather than with RandomDNAStrandGenerator, which is itself one of the stages being measured
+	 * @param length The length of the strand (at least 6)
+	 * @param seed The seed of the random number generator, so every run uses the same strands
+	 * @return String representing the DNA strand
+	 */
+	static String makeStrand(int length, long seed) {
+
+		Random random = new Random(seed);
+		StringBuilder strand = new StringBuilder(length);
+
+		// Bases before the Start codon DNA, without accidentally making TAC
+		int numPreStart = length / 10;
+		while (strand.length() < numPreStart) {
+			char base = "ACTG".charAt(random.nextInt(4));
+			int n = strand.length();
+			if (n >= 2 && strand.charAt(n-2) == 'T' && strand.charAt(n-1) == 'A' && base == 'C') continue;
+			strand.append(base);
+		}
+
+		// Start codon DNA, then codons that are not Stop codon DNA (ATT, ATC, ACT), then Stop codon DNA
+		strand.append("TAC");
+		while (strand.length() + 6 <= length) {
+			char first = "ACTG".charAt(random.nextInt(4));
+			char second = "ACTG".charAt(random.nextInt(4));
+			char third = "ACTG".charAt(random.nextInt(4));
+			if (first == 'A' && ((second == 'T' && (third == 'T' || third == 'C')) || (second == 'C' && third == 'T'))) continue;
+			strand.append(first).append(second).append(third);
+		}
+		strand.append("ATT");
+
+		// Pad the end so the strand has exactly the given length
+		while (strand.length() < length) strand.append('G');
+
+		return strand.toString();
+
+	}
+
+}
@@ -0,0 +1,296 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class is a JMH benchmark of each stage of the simulator, run on DNA strands of increasing length (100 bases up to 10 million).
+ * Run it with "mvn -Pbenchmark verify", which runs JMH with the GC profiler so the bytes allocated per operation (gc.alloc.rate.norm)
+ * are reported next to the time per operation. Other JMH options can be given with -Djmh.args="...".
+ *
+ * The stages that print an illustration have their output thrown away while they are measured. Illustrating transcription and translation
+ * takes time proportional to the square of the length, so those two stages are only run up to 10000 bases; the others are run at every
+ * length.
+ * The stages are called through PipelineStages (see there for why).
+ * @author Prakash
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+	/**
+	 * Method to create the stages, which are in the default package
+	 * @return The stages, with no inputs built yet
+	 */
+	static PipelineStages createStages() {
+
+		try {
+			return (PipelineStages) Class.forName("SimulatorStages").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("SimulatorStages could not be created.", e);
+		}
+
+	}
+
+	/**
+	 * The stages with their inputs built for a strand of every length, for the stages that take linear time
+	 */
+	@State(Scope.Benchmark)
+	public static class LinearInputs {
+
+		/**
+		 * The length of the strand
+		 */
+		@Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+		public int length;
+
+		/**
+		 * The stages, with their inputs built for the strand
+		 */
+		PipelineStages stages;
+
+		/**
+		 * Method to build the inputs before the stages are measured at this length
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+
+			stages = createStages();
+			stages.prepare(length);
+
+		}
+
+	}
+
+	/**
+	 * The stages with their inputs built for a strand of up to 10000 bases, for the illustrated stages, which take quadratic time
+	 */
+	@State(Scope.Benchmark)
+	public static class QuadraticInputs {
+
+		/**
+		 * The length of the strand
+		 */
+		@Param({"100", "1000", "10000"})
+		public int length;
+
+		/**
+		 * The stages, with their inputs built for the strand
+		 */
+		PipelineStages stages;
+
+		/**
+		 * Method to build the inputs before the stages are measured at this length
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+
+			stages = createStages();
+			stages.prepare(length);
+
+		}
+
+	}
+
+	/**
+	 * The stages for the benchmarks that do not depend on the length of a strand, so they are only run once
+	 */
+	@State(Scope.Benchmark)
+	public static class TRNAListInputs {
+
+		/**
+		 * The stages, with their inputs built for a short strand
+		 */
+		PipelineStages stages;
+
+		/**
+		 * Method to create the stages before they are measured
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+
+			stages = createStages();
+			stages.prepare(100);
+
+		}
+
+	}
+
+	/**
+	 * Throws away everything printed to System.out while a stage is measured, so the illustrations are not part of the measurement
+	 */
+	@State(Scope.Benchmark)
+	public static class SuppressedOutput {
+
+		/**
+		 * The stream System.out was before it was suppressed
+		 */
+		private PrintStream out;
+
+		/**
+		 * Method to suppress the output before the stage is measured
+		 */
+		@Setup(Level.Trial)
+		public void suppress() {
+
+			out = System.out;
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		}
+
+		/**
+		 * Method to give back the output once the stage has been measured
+		 */
+		@TearDown(Level.Trial)
+		public void restore() {
+
+			System.setOut(out);
+
+		}
+
+	}
+
+	/**
+	 * Benchmark of checking a DNA strand has only A,C,T and G
+	 * @param inputs The stages and their inputs
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void checkOnlyACTG(LinearInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.checkOnlyACTG());
+
+	}
+
+	/**
+	 * Benchmark of transcribing a DNA strand with each step illustrated
+	 * @param inputs The stages and their inputs
+	 * @param output The suppressed output
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void transcribe(QuadraticInputs inputs, SuppressedOutput output, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.transcribe());
+
+	}
+
+	/**
+	 * Benchmark of finding the Start codon in an mRNA
+	 * @param inputs The stages and their inputs
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void findStartCodon(LinearInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.findStartCodon());
+
+	}
+
+	/**
+	 * Benchmark of putting the codons from the Start codon up to the Stop codon into a queue
+	 * @param inputs The stages and their inputs
+	 * @param output The suppressed output
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void queueCodons(LinearInputs inputs, SuppressedOutput output, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.queueCodons());
+
+	}
+
+	/**
+	 * Benchmark of translating a queue of codons with each step illustrated
+	 * @param inputs The stages and their inputs
+	 * @param output The suppressed output
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void translate(QuadraticInputs inputs, SuppressedOutput output, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.translate());
+
+	}
+
+	/**
+	 * Benchmark of building the three strings representing an amino acid sequence
+	 * @param inputs The stages and their inputs
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void updateSequenceStrings(LinearInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.updateSequenceStrings());
+
+	}
+
+	/**
+	 * Benchmark of generating a random DNA strand
+	 * @param inputs The stages and their inputs
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void getStrandDNA(LinearInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.getStrandDNA());
+
+	}
+
+	/**
+	 * Benchmark of creating the tRNA molecules of the standard genetic code, which does not depend on the length of a strand
+	 * @param inputs The stages (none of their inputs are used, and only the shortest strand is built)
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void constructTRNAList(TRNAListInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.constructTRNAList());
+
+	}
+
+	/**
+	 * Benchmark of running transcription and translation on a DNA strand with the engine
+	 * @param inputs The stages and their inputs
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void engineRun(LinearInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.engineRun());
+
+	}
+
+	/**
+	 * Benchmark of getting the result of a DNA strand that is already in a TranslationCache
+	 * @param inputs The stages and their inputs
+	 * @param blackhole Where the result goes so the work cannot be skipped
+	 */
+	@Benchmark
+	public void cacheHit(LinearInputs inputs, Blackhole blackhole) {
+
+		blackhole.consume(inputs.stages.cacheHit());
+
+	}
+
+}
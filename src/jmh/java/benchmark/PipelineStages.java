@@ -0,0 +1,81 @@
+package benchmark;
+
+/**
+ * The stages of the simulator measured by PipelineBenchmark, run on the inputs built for one strand.
+ *
+ * JMH only runs benchmarks in a named package, and the simulator's classes are in the default package, which cannot be imported from a
+ * named one. So the benchmarks call the stages through this interface, which is implemented in the default package by SimulatorStages.
+ * Each method returns the stage's result so it can be given to a Blackhole.
+ * @author Prakash
+ *
+ */
+public interface PipelineStages {
+
+	/**
+	 * Method to build the inputs of every stage for a strand, so only the stage itself is measured
+	 * @param length The length of the strand
+	 */
+	void prepare(int length);
+
+	/**
+	 * Method to check the DNA strand has only A,C,T and G (Main.checkOnlyACTG())
+	 * @return Whether it does
+	 */
+	boolean checkOnlyACTG();
+
+	/**
+	 * Method to transcribe the DNA strand with each step illustrated (Main.transcribe())
+	 * @return The mRNA
+	 */
+	String transcribe();
+
+	/**
+	 * Method to find the Start codon in the mRNA (Main.findStartCodon())
+	 * @return The index of the Start codon
+	 */
+	int findStartCodon();
+
+	/**
+	 * Method to put the codons from the Start codon up to the Stop codon into a queue (Main.queueCodons())
+	 * @return The queue
+	 */
+	Object queueCodons();
+
+	/**
+	 * Method to translate a queue of the codons with each step illustrated (Main.translate()). The queue is used up by translation, so
+	 * it is refilled each time, which is part of the stage
+	 * @return The amino acid sequence
+	 */
+	Object translate();
+
+	/**
+	 * Method to build the three strings representing the amino acid sequence (AminoAcidSequence.updateSequenceStrings())
+	 * @return The string of one-letter codes
+	 */
+	String updateSequenceStrings();
+
+	/**
+	 * Method to generate a random DNA strand of about the same length (RandomDNAStrandGenerator.getStrandDNA())
+	 * @return The DNA strand
+	 */
+	String getStrandDNA();
+
+	/**
+	 * Method to create the tRNA molecules of the standard genetic code (the TRNAList constructor)
+	 * @return The tRNA list
+	 */
+	Object constructTRNAList();
+
+	/**
+	 * Method to run transcription and translation on the DNA strand with the engine (TranslationEngine.run())
+	 * @return The result
+	 */
+	Object engineRun();
+
+	/**
+	 * Method to get the result of the DNA strand from a TranslationCache that already holds it (TranslationCache.run())
+	 * @return The result
+	 */
+	Object cacheHit();
+
+}
@@ -0,0 +1,281 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that ComplementKernel gives the same bases as the per-base methods it replaces: TranslationEngine.complementToRNA() for
+ * transcription and complementing DNA, and RandomDNAStrandGenerator.mRNAToDNA() for going from mRNA back to DNA.
+ *
+ * Every length from 0 to 17 is tried, so each number of bases left over after the 8-base longs (0 to 7) is covered with no long, one
+ * long and two longs before it. Strands are read and written at offsets that do not line up with 8, and in place (src == dst). The bytes
+ * around the bases written are checked to be left alone.
+ * @author Prakash
+ *
+ */
+public class ComplementKernelTest {
+
+	/**
+	 * The longest strand tried
+	 */
+	private static final int maxLength = 17;
+	/**
+	 * The number of random strands tried at each length and pair of offsets
+	 */
+	private static final int strandsPerCase = 20;
+	/**
+	 * The largest offset tried for where the bases start in an array or buffer
+	 */
+	private static final int maxOffset = 9;
+	/**
+	 * Byte the unused parts of an array are filled with, to check they are not written
+	 */
+	private static final byte filler = '#';
+
+	/**
+	 * Random number generator, seeded so every run tries the same strands
+	 */
+	private final Random random = new Random(12);
+	/**
+	 * Generator whose mRNAToDNA() is the reference for rNAToDNA()
+	 */
+	private final RandomDNAStrandGenerator generator = new RandomDNAStrandGenerator();
+
+	/**
+	 * Test that transcribing bytes gives the bases TranslationEngine.complementToRNA() gives, at every length and offset
+	 */
+	@Test
+	public void dNAToRNAMatchesComplementToRNA() {
+
+		for (int length = 0; length <= maxLength; length++) {
+			for (int srcOffset = 0; srcOffset <= maxOffset; srcOffset++) {
+				for (int dstOffset = 0; dstOffset <= maxOffset; dstOffset++) {
+					for (int n = 0; n < strandsPerCase; n++) {
+
+						String dNA3to5 = randomStrand(length, "ACGT");
+						byte[] src = place(dNA3to5, srcOffset);
+						byte[] dst = filled(dstOffset + length + maxOffset);
+						ComplementKernel.dNAToRNA(src, srcOffset, dst, dstOffset, length);
+
+						assertArrayEquals(place(transcribeByBase(dNA3to5), dstOffset, dst.length), dst, dNA3to5 + " at " + srcOffset + " to " + dstOffset);
+						assertArrayEquals(place(dNA3to5, srcOffset), src, "The source was changed");
+
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Test that going from mRNA back to DNA gives the bases RandomDNAStrandGenerator.mRNAToDNA() gives, at every length and offset
+	 */
+	@Test
+	public void rNAToDNAMatchesMRNAToDNA() {
+
+		for (int length = 0; length <= maxLength; length++) {
+			for (int srcOffset = 0; srcOffset <= maxOffset; srcOffset++) {
+				for (int dstOffset = 0; dstOffset <= maxOffset; dstOffset++) {
+					for (int n = 0; n < strandsPerCase; n++) {
+
+						String mRNA5to3 = randomStrand(length, "ACGU");
+						byte[] src = place(mRNA5to3, srcOffset);
+						byte[] dst = filled(dstOffset + length + maxOffset);
+						ComplementKernel.rNAToDNA(src, srcOffset, dst, dstOffset, length);
+
+						assertArrayEquals(place(generator.mRNAToDNA(mRNA5to3), dstOffset, dst.length), dst, mRNA5to3 + " at " + srcOffset + " to " + dstOffset);
+
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Test that complementing DNA gives the bases TranslationEngine.complementToRNA() gives, with T instead of U, at every length and offset
+	 */
+	@Test
+	public void complementDNAMatchesComplementToRNA() {
+
+		for (int length = 0; length <= maxLength; length++) {
+			for (int srcOffset = 0; srcOffset <= maxOffset; srcOffset++) {
+				for (int dstOffset = 0; dstOffset <= maxOffset; dstOffset++) {
+					for (int n = 0; n < strandsPerCase; n++) {
+
+						String dNA3to5 = randomStrand(length, "ACGT");
+						byte[] src = place(dNA3to5, srcOffset);
+						byte[] dst = filled(dstOffset + length + maxOffset);
+						ComplementKernel.complementDNA(src, srcOffset, dst, dstOffset, length);
+
+						String expected = transcribeByBase(dNA3to5).replace('U', 'T');
+						assertArrayEquals(place(expected, dstOffset, dst.length), dst, dNA3to5 + " at " + srcOffset + " to " + dstOffset);
+
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Test that all three kernels give the same bases when they write over their own input (src == dst)
+	 */
+	@Test
+	public void inPlaceMatchesReference() {
+
+		for (int length = 0; length <= maxLength; length++) {
+			for (int offset = 0; offset <= maxOffset; offset++) {
+				for (int n = 0; n < strandsPerCase; n++) {
+
+					String dNA3to5 = randomStrand(length, "ACGT");
+					byte[] bases = place(dNA3to5, offset);
+					ComplementKernel.dNAToRNA(bases, offset, bases, offset, length);
+					assertArrayEquals(place(transcribeByBase(dNA3to5), offset), bases, "dNAToRNA in place: " + dNA3to5);
+
+					String mRNA5to3 = randomStrand(length, "ACGU");
+					bases = place(mRNA5to3, offset);
+					ComplementKernel.rNAToDNA(bases, offset, bases, offset, length);
+					assertArrayEquals(place(generator.mRNAToDNA(mRNA5to3), offset), bases, "rNAToDNA in place: " + mRNA5to3);
+
+					bases = place(dNA3to5, offset);
+					ComplementKernel.complementDNA(bases, offset, bases, offset, length);
+					assertArrayEquals(place(transcribeByBase(dNA3to5).replace('U', 'T'), offset), bases, "complementDNA in place: " + dNA3to5);
+
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Test that transcribing a buffer gives the same bases as transcribing an array, for heap and direct buffers of either byte order,
+	 * starting at any position, and that the positions are moved past the bases and the byte orders are put back
+	 */
+	@Test
+	public void byteBufferMatchesComplementToRNA() {
+
+		for (boolean direct : new boolean[] {false, true}) {
+			for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+				for (int length = 0; length <= maxLength; length++) {
+					for (int srcOffset = 0; srcOffset <= maxOffset; srcOffset++) {
+						for (int dstOffset = 0; dstOffset <= maxOffset; dstOffset++) {
+
+							String dNA3to5 = randomStrand(length, "ACGT");
+							byte[] srcBytes = place(dNA3to5, srcOffset);
+							byte[] dstBytes = filled(dstOffset + length + maxOffset);
+							ByteBuffer src = direct ? ByteBuffer.allocateDirect(srcBytes.length) : ByteBuffer.allocate(srcBytes.length);
+							ByteBuffer dst = direct ? ByteBuffer.allocateDirect(dstBytes.length) : ByteBuffer.allocate(dstBytes.length);
+							src.put(srcBytes).order(order).position(srcOffset).limit(srcOffset + length);
+							dst.put(dstBytes).order(order).position(dstOffset);
+
+							ComplementKernel.dNAToRNA(src, dst);
+
+							assertEquals(srcOffset + length, src.position(), "Source position");
+							assertEquals(dstOffset + length, dst.position(), "Destination position");
+							assertEquals(order, src.order(), "Source byte order");
+							assertEquals(order, dst.order(), "Destination byte order");
+							byte[] written = new byte[dstBytes.length];
+							dst.get(0, written);
+							assertArrayEquals(place(transcribeByBase(dNA3to5), dstOffset, written.length), written, dNA3to5 + (direct ? " direct" : " heap"));
+
+						}
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Test that the string methods give the same strings as the per-base methods, for strands long enough to use many longs
+	 */
+	@Test
+	public void stringsMatchReference() {
+
+		for (int length = 0; length <= 200; length++) {
+
+			String dNA3to5 = randomStrand(length, "ACGT");
+			assertEquals(transcribeByBase(dNA3to5), ComplementKernel.transcribe(dNA3to5));
+
+			String mRNA5to3 = randomStrand(length, "ACGU");
+			assertEquals(generator.mRNAToDNA(mRNA5to3), ComplementKernel.toDNA(mRNA5to3));
+
+		}
+
+	}
+
+	/**
+	 * Method to transcribe a DNA strand one base at a time with TranslationEngine.complementToRNA(), the reference for the kernels
+	 * @param dNA3to5 The DNA strand
+	 * @return The mRNA
+	 */
+	private static String transcribeByBase(String dNA3to5) {
+
+		StringBuilder mRNA5to3 = new StringBuilder(dNA3to5.length());
+		for (int i = 0; i < dNA3to5.length(); i++) mRNA5to3.append(TranslationEngine.complementToRNA(dNA3to5.charAt(i)));
+		return mRNA5to3.toString();
+
+	}
+
+	/**
+	 * Method to make a random strand
+	 * @param length The number of bases
+	 * @param bases The letters to choose each base from
+	 * @return The strand
+	 */
+	private String randomStrand(int length, String bases) {
+
+		char[] strand = new char[length];
+		for (int i = 0; i < length; i++) strand[i] = bases.charAt(random.nextInt(bases.length()));
+		return new String(strand);
+
+	}
+
+	/**
+	 * Method to make an array of filler bytes
+	 * @param length The length of the array
+	 * @return The array
+	 */
+	private static byte[] filled(int length) {
+
+		byte[] bytes = new byte[length];
+		java.util.Arrays.fill(bytes, filler);
+		return bytes;
+
+	}
+
+	/**
+	 * Method to put the bases of a strand at an offset in an array of filler bytes, with maxOffset filler bytes after them
+	 * @param strand The strand
+	 * @param offset Index of the first base
+	 * @return The array
+	 */
+	private static byte[] place(String strand, int offset) {
+
+		return place(strand, offset, offset + strand.length() + maxOffset);
+
+	}
+
+	/**
+	 * Method to put the bases of a strand at an offset in an array of filler bytes of a given length
+	 * @param strand The strand
+	 * @param offset Index of the first base
+	 * @param length The length of the array
+	 * @return The array
+	 */
+	private static byte[] place(String strand, int offset, int length) {
+
+		byte[] bytes = filled(length);
+		byte[] bases = strand.getBytes(StandardCharsets.ISO_8859_1);
+		System.arraycopy(bases, 0, bytes, offset, bases.length);
+		return bytes;
+
+	}
+
+}
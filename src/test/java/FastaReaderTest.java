@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that FastaReader moves through the records of a file when only nextRecord() is called, for files with and without FASTA headers.
+ * @author Prakash
+ *
+ */
+public class FastaReaderTest {
+
+	/**
+	 * Directory the files read are written to
+	 */
+	@TempDir
+	Path directory;
+
+	/**
+	 * Test that a file with no header is one record, so a second call to nextRecord() returns false without its windows being read
+	 * @throws IOException If the file cannot be written or read
+	 */
+	@Test
+	public void headerlessFileIsOneRecord() throws IOException {
+
+		try (FastaReader reader = new FastaReader(write("headerless.fa", "ACGTACGT\nACGT\n"))) {
+
+			assertTrue(reader.nextRecord());
+			assertEquals("headerless.fa", reader.getRecordName());
+			assertFalse(reader.nextRecord());
+
+		}
+
+	}
+
+	/**
+	 * Test that a file with no header, starting with blank lines, is still one record whose bases can be read
+	 * @throws IOException If the file cannot be written or read
+	 */
+	@Test
+	public void headerlessFileAfterBlankLines() throws IOException {
+
+		try (FastaReader reader = new FastaReader(write("blank.fa", "\n\nACGT\n"))) {
+
+			assertTrue(reader.nextRecord());
+			assertEquals("blank.fa", reader.getRecordName());
+			assertEquals(4, reader.nextWindow(100).length());
+			assertNull(reader.nextWindow(100));
+			assertFalse(reader.nextRecord());
+
+		}
+
+	}
+
+	/**
+	 * Test that every record of a FASTA file is moved to in order when only nextRecord() is called
+	 * @throws IOException If the file cannot be written or read
+	 */
+	@Test
+	public void nextRecordSkipsUnreadRecords() throws IOException {
+
+		try (FastaReader reader = new FastaReader(write("records.fa", "\n>first\nACGT\nACGT\n>second\nTTT\n"))) {
+
+			assertTrue(reader.nextRecord());
+			assertEquals("first", reader.getRecordName());
+			assertTrue(reader.nextRecord());
+			assertEquals("second", reader.getRecordName());
+			assertFalse(reader.nextRecord());
+
+		}
+
+	}
+
+	/**
+	 * Method to write a file in the temporary directory
+	 * @param name The name of the file
+	 * @param contents What to write in it
+	 * @return The path of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	private Path write(String name, String contents) throws IOException {
+
+		return Files.write(directory.resolve(name), contents.getBytes(StandardCharsets.US_ASCII));
+
+	}
+
+}